@@ -0,0 +1,135 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jmh;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.FileSystemResourceLoader;
+import org.springframework.data.rest.tck.OrderFixtures;
+import org.springframework.data.rest.tck.TckConfig;
+import org.springframework.data.rest.tck.TestApplicationConfig;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkDiscoverer;
+import org.springframework.hateoas.core.DefaultLinkDiscoverer;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewFilter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.AnnotationConfigWebApplicationContext;
+
+/**
+ * Base class for benchmarks that drive the exported repositories through {@link MockMvc}, set up the same way as in
+ * {@link org.springframework.data.rest.tck.AbstractTckTest}. The application context is started once per trial.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public abstract class AbstractTckBenchmark {
+
+	protected static final MediaType COMPACT_JSON = MediaType.parseMediaType("application/x-spring-data-compact+json");
+
+	protected final LinkDiscoverer links = new DefaultLinkDiscoverer();
+	protected AnnotationConfigWebApplicationContext webAppCtx;
+	protected MockMvc mockMvc;
+
+	@Setup
+	public void setup() throws Exception {
+		MockServletContext servletContext = new MockServletContext("src/main/webapp", new FileSystemResourceLoader());
+
+		webAppCtx = new AnnotationConfigWebApplicationContext();
+		webAppCtx.setServletContext(servletContext);
+		webAppCtx.getEnvironment().setActiveProfiles(activeProfiles());
+		webAppCtx.register(TckConfig.class, TestApplicationConfig.class);
+		webAppCtx.refresh();
+		servletContext.setAttribute(WebApplicationContext.ROOT_WEB_APPLICATION_CONTEXT_ATTRIBUTE, webAppCtx);
+
+		OpenEntityManagerInViewFilter oemivf = new OpenEntityManagerInViewFilter();
+		oemivf.setServletContext(servletContext);
+
+		mockMvc = webAppContextSetup(webAppCtx)
+				.addFilter(oemivf)
+				.build();
+
+		new TransactionTemplate(webAppCtx.getBean(PlatformTransactionManager.class)).execute(
+				new TransactionCallbackWithoutResult() {
+					@Override protected void doInTransactionWithoutResult(TransactionStatus status) {
+						loadData();
+					}
+				});
+		discoverLinks();
+	}
+
+	@TearDown
+	public void tearDown() {
+		webAppCtx.close();
+	}
+
+	/**
+	 * Returns the Spring profiles to activate for the trial. None by default.
+	 */
+	protected String[] activeProfiles() {
+		return new String[0];
+	}
+
+	/**
+	 * Populates the datastore once before the measurements of a trial start. Runs inside a transaction that is
+	 * committed before {@link #discoverLinks()} is called.
+	 */
+	protected abstract void loadData();
+
+	/**
+	 * Looks up the links the benchmark methods operate on.
+	 */
+	protected abstract void discoverLinks() throws Exception;
+
+	protected List<Link> discover(Link root, String rel) throws Exception {
+		String s = mockMvc
+				.perform(get(root.getHref()).accept(COMPACT_JSON))
+				.andReturn().getResponse().getContentAsString();
+		return links.findLinksWithRel(rel, s);
+	}
+
+	protected Link discoverRootLink(String rel) throws Exception {
+		return discover(new Link("/"), rel).get(0);
+	}
+
+	/**
+	 * Returns the JSON of {@literal new-order-1.txt}, linked to the first customer, its address and the first product.
+	 */
+	protected String newOrderJson() throws Exception {
+		return OrderFixtures.newOrderJson(mockMvc);
+	}
+
+}
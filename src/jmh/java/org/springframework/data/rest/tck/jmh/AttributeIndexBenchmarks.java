@@ -0,0 +1,74 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jmh;
+
+import java.util.Map;
+import javax.sql.DataSource;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.jpa.repository.ProductRepository;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * {@link ProductRepository#findByAttributeAndValue(String, String)} with and without the attribute key/value index
+ * declared in {@literal schema-tck.sql}. Prints the query plan for the attribute lookup before measuring. Run with
+ * {@literal -PtckDataScale} so the attribute table is large enough for the index to matter.
+ */
+public class AttributeIndexBenchmarks extends AbstractTckBenchmark {
+
+	private static final String ATTRIBUTE_QUERY = "select p.id from Product p"
+			+ " inner join Product_attributes a on p.id = a.Product_id"
+			+ " where a.attributes_KEY = 'color' and a.attributes = 'red'";
+
+	@Param({"true", "false"})
+	public boolean indexed;
+
+	private ProductRepository products;
+	private TransactionTemplate tx;
+
+	@Override protected void loadData() {
+		webAppCtx.getBean(TestDataLoader.class).loadData();
+	}
+
+	@Override protected void discoverLinks() throws Exception {
+		products = webAppCtx.getBean(ProductRepository.class);
+		tx = new TransactionTemplate(webAppCtx.getBean(PlatformTransactionManager.class));
+
+		JdbcTemplate jdbc = new JdbcTemplate(webAppCtx.getBean(DataSource.class));
+		if(!indexed) {
+			jdbc.execute("drop index idx_product_attributes_key_value if exists");
+		}
+		for(Map<String, Object> row : jdbc.queryForList("explain plan for " + ATTRIBUTE_QUERY, new Object[0])) {
+			System.out.println(row.values().iterator().next());
+		}
+	}
+
+	@Benchmark
+	public int findByAttributeAndValue() {
+		return tx.execute(new TransactionCallback<Integer>() {
+			@Override public Integer doInTransaction(TransactionStatus status) {
+				return products.findByAttributeAndValue("color", "red").size();
+			}
+		});
+	}
+
+}
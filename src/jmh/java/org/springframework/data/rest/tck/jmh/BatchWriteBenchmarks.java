@@ -0,0 +1,127 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jmh;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Param;
+import org.springframework.data.rest.tck.jpa.JpaConfig;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.jpa.domain.Address;
+import org.springframework.data.rest.tck.jpa.domain.Customer;
+import org.springframework.data.rest.tck.jpa.domain.LineItem;
+import org.springframework.data.rest.tck.jpa.domain.Order;
+import org.springframework.data.rest.tck.jpa.domain.Product;
+import org.springframework.data.rest.tck.jpa.repository.CustomerRepository;
+import org.springframework.data.rest.tck.jpa.repository.OrderRepository;
+import org.springframework.data.rest.tck.jpa.repository.ProductRepository;
+import org.springframework.data.rest.tck.web.BulkOrderController;
+import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Compares order writes with identity ids and unbatched inserts against the {@value JpaConfig#BATCH_PROFILE} profile.
+ */
+public class BatchWriteBenchmarks extends AbstractTckBenchmark {
+
+	private static final int ORDERS = 100;
+
+	@Param({"default", JpaConfig.BATCH_PROFILE})
+	public String profile;
+
+	private Link orders;
+	private String newOrder;
+	private String bulkOrders;
+	private TransactionTemplate tx;
+
+	@Override protected String[] activeProfiles() {
+		return new String[]{profile};
+	}
+
+	@Override protected void loadData() {
+		webAppCtx.getBean(TestDataLoader.class).loadData();
+	}
+
+	@Override protected void discoverLinks() throws Exception {
+		orders = discoverRootLink("order");
+		newOrder = newOrderJson();
+
+		StringBuilder bulk = new StringBuilder("[");
+		for(int i = 0; i < ORDERS; i++) {
+			bulk.append(i == 0 ? "" : ",").append(newOrder);
+		}
+		bulkOrders = bulk.append("]").toString();
+		tx = new TransactionTemplate(webAppCtx.getBean(PlatformTransactionManager.class));
+	}
+
+	/**
+	 * Bulk import through the REST API, one POST per order.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(ORDERS)
+	public void postOrders() throws Exception {
+		for(int i = 0; i < ORDERS; i++) {
+			mockMvc.perform(post(orders.getHref())
+					                .contentType(MediaType.APPLICATION_JSON)
+					                .content(newOrder));
+		}
+	}
+
+	/**
+	 * Bulk import through the {@link BulkOrderController}, all orders in a single POST.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(ORDERS)
+	public void importOrders() throws Exception {
+		mockMvc.perform(post("/order/bulk")
+				                .contentType(MediaType.APPLICATION_JSON)
+				                .content(bulkOrders));
+	}
+
+	/**
+	 * Bulk import through the repositories in a single transaction, the way {@link TestDataLoader} writes.
+	 */
+	@Benchmark
+	@OperationsPerInvocation(ORDERS)
+	public Iterable<Order> saveOrders() {
+		return tx.execute(new TransactionCallback<Iterable<Order>>() {
+			@Override public Iterable<Order> doInTransaction(TransactionStatus status) {
+				Customer customer = webAppCtx.getBean(CustomerRepository.class).findAll().iterator().next();
+				Product product = webAppCtx.getBean(ProductRepository.class).findAll().iterator().next();
+
+				List<Order> orders = new ArrayList<Order>(ORDERS);
+				for(int i = 0; i < ORDERS; i++) {
+					Order order = new Order(customer, new Address("123 W 1st Street", "Univille", "USA"));
+					order.add(new LineItem(product, 1));
+					order.add(new LineItem(product, 2));
+					orders.add(order);
+				}
+
+				return webAppCtx.getBean(OrderRepository.class).save(orders);
+			}
+		});
+	}
+
+}
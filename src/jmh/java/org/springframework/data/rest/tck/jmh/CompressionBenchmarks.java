@@ -0,0 +1,104 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jmh;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.*;
+
+import javax.servlet.ServletContext;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.web.CompressionFilter;
+import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewFilter;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.filter.ShallowEtagHeaderFilter;
+
+/**
+ * Order and product pages gzipped by the {@link CompressionFilter} at different compression levels, {@literal 0}
+ * storing the body as it is, with and without the cache of precompressed bodies. Without it every request pays for
+ * compressing its body. Pages carry no {@literal ETag} of their own, so a {@link ShallowEtagHeaderFilter} tags them
+ * with a hash of their body, which the cache needs to keep them. Prints the bytes on the wire per page before measuring; the CPU cost shows in the throughput.
+ * Run with {@literal -PtckDataScale} for full pages; pages below {@value CompressionFilter#DEFAULT_MIN_SIZE} bytes
+ * aren't compressed at all.
+ */
+public class CompressionBenchmarks extends AbstractTckBenchmark {
+
+	@Param({"0", "1", "6", "9"})
+	public int level;
+
+	@Param({"true", "false"})
+	public boolean precompressed;
+
+	private Link orders;
+	private Link products;
+
+	@Override protected void loadData() {
+		webAppCtx.getBean(TestDataLoader.class).loadData();
+	}
+
+	@Override protected void discoverLinks() throws Exception {
+		orders = discoverRootLink("order");
+		products = discoverRootLink("product");
+
+		ServletContext servletContext = webAppCtx.getServletContext();
+		OpenEntityManagerInViewFilter oemivf = new OpenEntityManagerInViewFilter();
+		oemivf.setServletContext(servletContext);
+		CompressionFilter cf = new CompressionFilter();
+		cf.setServletContext(servletContext);
+		cf.setCompressionLevel(level);
+		cf.setPrecompressed(precompressed);
+		ShallowEtagHeaderFilter sehf = new ShallowEtagHeaderFilter();
+		sehf.setServletContext(servletContext);
+
+		mockMvc = webAppContextSetup(webAppCtx)
+				.addFilters(oemivf, cf, sehf)
+				.build();
+
+		for(Link link : new Link[]{orders, products}) {
+			MockHttpServletResponse plain = mockMvc.perform(get(link.getHref()).accept(MediaType.APPLICATION_JSON))
+			                                       .andReturn().getResponse();
+			MockHttpServletResponse gzipped = listGzipped(link).getResponse();
+			System.out.println(String.format("%s: %d bytes, %d gzipped at level %d",
+			                                 link.getHref(),
+			                                 plain.getContentAsByteArray().length,
+			                                 gzipped.getContentAsByteArray().length,
+			                                 level));
+		}
+	}
+
+	@Benchmark
+	public MvcResult listOrders() throws Exception {
+		return listGzipped(orders);
+	}
+
+	@Benchmark
+	public MvcResult listProducts() throws Exception {
+		return listGzipped(products);
+	}
+
+	private MvcResult listGzipped(Link link) throws Exception {
+		return mockMvc.perform(get(link.getHref())
+				                       .accept(MediaType.APPLICATION_JSON)
+				                       .header("Accept-Encoding", "gzip"))
+		              .andReturn();
+	}
+
+}
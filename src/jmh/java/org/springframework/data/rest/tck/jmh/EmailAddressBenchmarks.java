@@ -0,0 +1,128 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jmh;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.jpa.domain.Customer;
+import org.springframework.data.rest.tck.jpa.domain.EmailAddress;
+import org.springframework.data.rest.tck.jpa.repository.CustomerRepository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * {@link Customer} creation and lookup by {@link EmailAddress}, and the validation of well-formed and malformed
+ * addresses by {@link EmailAddress#isValid(String)} against the regular expression it replaced.
+ */
+public class EmailAddressBenchmarks extends AbstractTckBenchmark {
+
+	/**
+	 * The regular expression {@link EmailAddress} used to be validated with.
+	 */
+	private static final Pattern PATTERN = Pattern.compile(
+			"^[_A-Za-z0-9-]+(\\.[_A-Za-z0-9-]+)*@[A-Za-z0-9]+(\\.[A-Za-z0-9]+)*(\\.[A-Za-z]{2,})$");
+
+	private final AtomicLong sequence = new AtomicLong();
+	private CustomerRepository customers;
+	private TransactionTemplate tx;
+
+	@Override protected void loadData() {
+		webAppCtx.getBean(TestDataLoader.class).loadData();
+	}
+
+	@Override protected void discoverLinks() throws Exception {
+		customers = webAppCtx.getBean(CustomerRepository.class);
+		tx = new TransactionTemplate(webAppCtx.getBean(PlatformTransactionManager.class));
+	}
+
+	/**
+	 * Saves a {@link Customer} with a new {@link EmailAddress}. The transaction is rolled back, so the table does not
+	 * grow during the measurement.
+	 */
+	@Benchmark
+	public Customer createCustomer() {
+		return tx.execute(new TransactionCallback<Customer>() {
+			@Override public Customer doInTransaction(TransactionStatus status) {
+				status.setRollbackOnly();
+				Customer customer = new Customer("Jim", "Doe");
+				customer.setEmailAddress(new EmailAddress("Jim.Doe." + sequence.incrementAndGet() + "@Example.com"));
+				return customers.save(customer);
+			}
+		});
+	}
+
+	@Benchmark
+	public Customer findByEmailAddress() {
+		return tx.execute(new TransactionCallback<Customer>() {
+			@Override public Customer doInTransaction(TransactionStatus status) {
+				return customers.findByEmailAddress("John.Doe@Gmail.com");
+			}
+		});
+	}
+
+	@Benchmark
+	public boolean isValid(Candidates candidates) {
+		return EmailAddress.isValid(candidates.candidate);
+	}
+
+	@Benchmark
+	public boolean matchesPattern(Candidates candidates) {
+		return PATTERN.matcher(candidates.candidate).matches();
+	}
+
+	/**
+	 * Addresses to validate: a well-formed one, and two malformed ones the regular expression backtracks on. Their
+	 * runs are kept short enough for the regular expression not to overflow the stack.
+	 */
+	@State(Scope.Benchmark)
+	public static class Candidates {
+
+		@Param({"wellFormed", "longLocalPart", "dottedLocalPart"})
+		public String input;
+
+		String candidate;
+
+		@Setup
+		public void setup() {
+			if("wellFormed".equals(input)) {
+				candidate = "john.doe.1234@mail.example.com";
+			} else if("longLocalPart".equals(input)) {
+				candidate = repeat("a", 1000) + "!";
+			} else {
+				candidate = repeat("a.", 500) + "!";
+			}
+		}
+
+		private static String repeat(String s, int times) {
+			StringBuilder builder = new StringBuilder(s.length() * times);
+			for(int i = 0; i < times; i++) {
+				builder.append(s);
+			}
+			return builder.toString();
+		}
+
+	}
+
+}
@@ -0,0 +1,142 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jmh;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.web.EntityWriters;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Renders a single entity of each domain type with the {@link EntityWriters} built at startup, and the way they were
+ * rendered before: each property read by looking up its member and written by {@link ObjectMapper#writeValue}, which
+ * looks up the serializer of every value. Prints the bytes per entity before measuring.
+ */
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class EntitySerializationBenchmarks extends AbstractTckBenchmark {
+
+	private static final String SELF_URI = "http://localhost/entity/1";
+	private static final String REL      = "entity.entity";
+
+	@Param({"Customer", "Order", "LineItem", "Product", "Address"})
+	public String type;
+
+	@Param({"cached", "mapper"})
+	public String writer;
+
+	private final JsonFactory           jsonFactory = new JsonFactory();
+	private final ObjectMapper          mapper      = new ObjectMapper();
+	private final ByteArrayOutputStream out         = new ByteArrayOutputStream();
+	private EntityWriters.EntityWriter entityWriter;
+	private List<Attribute<?, ?>>      properties;
+	private List<String>               associations;
+	private Object                     entity;
+
+	@Override protected void loadData() {
+		webAppCtx.getBean(TestDataLoader.class).loadData();
+	}
+
+	@Override protected void discoverLinks() throws Exception {
+		mapper.disable(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+
+		EntityManager em = webAppCtx.getBean(EntityManagerFactory.class).createEntityManager();
+		try {
+			entity = em.createQuery("select e from " + type + " e").setMaxResults(1).getSingleResult();
+			EntityType<?> entityType = em.getMetamodel().entity(entity.getClass());
+			String id = entityType.getId(entityType.getIdType().getJavaType()).getName();
+			entityWriter = webAppCtx.getBean(EntityWriters.class).forType(entity.getClass());
+			properties = new ArrayList<Attribute<?, ?>>();
+			associations = new ArrayList<String>();
+			for(Attribute<?, ?> attribute : entityType.getAttributes()) {
+				switch(attribute.getPersistentAttributeType()) {
+					case BASIC:
+					case EMBEDDED:
+					case ELEMENT_COLLECTION:
+						if(!attribute.getName().equals(id)) {
+							properties.add(attribute);
+						}
+						break;
+					default:
+						associations.add(attribute.getName());
+				}
+			}
+			// Initializes lazy element collections while the entity manager is open
+			System.out.println(String.format("%s: %d bytes", type, render().size()));
+		} finally {
+			em.close();
+		}
+	}
+
+	@Benchmark
+	public ByteArrayOutputStream render() throws Exception {
+		out.reset();
+		JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8);
+		if("cached".equals(writer)) {
+			entityWriter.write(json, entity, SELF_URI, REL);
+		} else {
+			json.writeStartObject();
+			for(Attribute<?, ?> property : properties) {
+				json.writeFieldName(property.getName());
+				mapper.writeValue(json, valueOf(property.getJavaMember()));
+			}
+			json.writeArrayFieldStart("links");
+			writeLink(json, "self", SELF_URI);
+			for(String association : associations) {
+				writeLink(json, REL + "." + association, SELF_URI + "/" + association);
+			}
+			json.writeEndArray();
+			json.writeEndObject();
+		}
+		json.close();
+		return out;
+	}
+
+	private static void writeLink(JsonGenerator json, String rel, String href) throws Exception {
+		json.writeStartObject();
+		json.writeStringField("rel", rel);
+		json.writeStringField("href", href);
+		json.writeEndObject();
+	}
+
+	private Object valueOf(Member member) {
+		if(member instanceof Method) {
+			ReflectionUtils.makeAccessible((Method)member);
+			return ReflectionUtils.invokeMethod((Method)member, entity);
+		}
+		ReflectionUtils.makeAccessible((Field)member);
+		return ReflectionUtils.getField((Field)member, entity);
+	}
+
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jmh;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.web.ExpansionController;
+import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
+
+/**
+ * An order with its line items, their products and its customer, read in one request embedding them through the
+ * {@link ExpansionController}, and by following the links from the order to each of them, one request per resource.
+ */
+public class ExpansionBenchmarks extends AbstractTckBenchmark {
+
+	private Link order;
+
+	@Override protected void loadData() {
+		webAppCtx.getBean(TestDataLoader.class).loadData();
+	}
+
+	@Override protected void discoverLinks() throws Exception {
+		order = discover(discoverRootLink("order"), "order.order").get(0);
+	}
+
+	@Benchmark
+	public String expandOrder() throws Exception {
+		return request(order.getHref() + "?" + ExpansionController.EXPAND_PARAM + "=lineItems.product,customer",
+		               MediaType.APPLICATION_JSON);
+	}
+
+	@Benchmark
+	public int followOrderLinks() throws Exception {
+		String json = request(order.getHref(), MediaType.APPLICATION_JSON);
+		int length = json.length();
+		length += request(links.findLinkWithRel("order.order.customer", json).getHref(), MediaType.APPLICATION_JSON)
+				.length();
+
+		String lineItems = request(links.findLinkWithRel("order.order.lineItems", json).getHref(), COMPACT_JSON);
+		for(Link lineItem : links.findLinksWithRel("order.order.lineItems.lineItem", lineItems)) {
+			String lineItemJson = request(lineItem.getHref(), MediaType.APPLICATION_JSON);
+			length += lineItemJson.length();
+			length += request(links.findLinkWithRel("lineItem.lineItem.product", lineItemJson).getHref(),
+			                  MediaType.APPLICATION_JSON).length();
+		}
+		return length;
+	}
+
+	private String request(String href, MediaType mediaType) throws Exception {
+		return mockMvc.perform(get(href).accept(mediaType)).andReturn().getResponse().getContentAsString();
+	}
+
+}
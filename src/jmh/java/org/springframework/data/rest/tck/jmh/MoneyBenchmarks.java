@@ -0,0 +1,84 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jmh;
+
+import java.math.BigDecimal;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.rest.tck.jpa.domain.Money;
+
+/**
+ * Order-total computation, the sum of unit price times amount over an order's line items, with prices as
+ * {@link BigDecimal} and as {@link Money}. Runs without an application context, as it measures the arithmetic only.
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 10, time = 1, timeUnit = TimeUnit.SECONDS)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class MoneyBenchmarks {
+
+	@Param({"4", "1000"})
+	public int lineItems;
+
+	private BigDecimal[] decimalPrices;
+	private Money[] moneyPrices;
+	private int[] amounts;
+
+	@Setup
+	public void setup() {
+		Random random = new Random(1);
+
+		decimalPrices = new BigDecimal[lineItems];
+		moneyPrices = new Money[lineItems];
+		amounts = new int[lineItems];
+		for(int i = 0; i < lineItems; i++) {
+			// Same price range as the TestDataGenerator's catalogue
+			decimalPrices[i] = BigDecimal.valueOf(100 + random.nextInt(99900), 2);
+			moneyPrices[i] = Money.of(decimalPrices[i]);
+			amounts[i] = 1 + random.nextInt(5);
+		}
+	}
+
+	@Benchmark
+	public BigDecimal bigDecimalTotal() {
+		BigDecimal total = BigDecimal.ZERO;
+		for(int i = 0; i < lineItems; i++) {
+			total = total.add(decimalPrices[i].multiply(BigDecimal.valueOf(amounts[i])));
+		}
+		return total;
+	}
+
+	@Benchmark
+	public Money moneyTotal() {
+		Money total = Money.ofMinorUnits(0);
+		for(int i = 0; i < lineItems; i++) {
+			total = total.plus(moneyPrices[i].times(amounts[i]));
+		}
+		return total;
+	}
+
+}
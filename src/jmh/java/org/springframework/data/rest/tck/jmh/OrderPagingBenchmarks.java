@@ -0,0 +1,77 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jmh;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+import java.util.List;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.jpa.domain.Order;
+import org.springframework.data.rest.tck.jpa.repository.OrderRepository;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Compares reading the first and a deep page of {@link Order}s by page number against reading them with the
+ * {@literal after} cursor of {@link org.springframework.data.rest.tck.web.OrderSeekController}. Page {@literal 10000}
+ * needs {@literal -PtckDataScale=100} or more.
+ */
+public class OrderPagingBenchmarks extends AbstractTckBenchmark {
+
+	private static final int LIMIT = 20;
+
+	@Param({"1", "10000"})
+	public int page;
+
+	private long cursor;
+
+	@Override protected void loadData() {
+		webAppCtx.getBean(TestDataLoader.class).loadData();
+	}
+
+	@Override protected void discoverLinks() throws Exception {
+		if(page > 1) {
+			// The last order of the previous page
+			List<Order> previous = webAppCtx.getBean(OrderRepository.class)
+			                                .findAll(new PageRequest(page - 2, LIMIT, Sort.Direction.ASC, "id"))
+			                                .getContent();
+			if(previous.size() < LIMIT) {
+				throw new IllegalStateException("Not enough orders for page " + page + ", increase tck.data.scale!");
+			}
+			cursor = previous.get(LIMIT - 1).getId();
+		}
+	}
+
+	@Benchmark
+	public MvcResult offset() throws Exception {
+		return mockMvc.perform(get("/order").param("page", String.valueOf(page))
+		                                    .param("limit", String.valueOf(LIMIT))
+		                                    .accept(COMPACT_JSON)).andReturn();
+	}
+
+	@Benchmark
+	public MvcResult seek() throws Exception {
+		return mockMvc.perform(get("/order/search/seek").param("after", String.valueOf(cursor))
+		                                                .param("limit", String.valueOf(LIMIT))
+		                                                .accept(MediaType.APPLICATION_JSON)).andReturn();
+	}
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jmh;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+import net.sf.ehcache.CacheManager;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.rest.tck.jpa.JpaConfig;
+import org.springframework.data.rest.tck.jpa.SecondLevelCache;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.jpa.domain.Product;
+import org.springframework.data.rest.tck.jpa.repository.ProductRepository;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Product catalogue reads with and without the {@value JpaConfig#CACHE_PROFILE} and {@value JpaConfig#SEARCH_PROFILE}
+ * profiles. With the cache, this class measures warm reads and {@link Cold} evicts all regions before every invocation.
+ * The hits and misses per region are reported along with the scores, see {@link CacheCounters}. Run with
+ * {@literal -PtckDataScale} so there is a catalogue worth caching and searching.
+ */
+public class ProductCatalogueBenchmarks extends AbstractTckBenchmark {
+
+	@Param({"default", JpaConfig.CACHE_PROFILE, JpaConfig.SEARCH_PROFILE})
+	public String profile;
+
+	protected SecondLevelCache cache;
+	private ProductRepository products;
+	private TransactionTemplate tx;
+
+	@Override protected String[] activeProfiles() {
+		return new String[]{profile};
+	}
+
+	@Override protected void loadData() {
+		webAppCtx.getBean(TestDataLoader.class).loadData();
+	}
+
+	@Override protected void discoverLinks() throws Exception {
+		products = webAppCtx.getBean(ProductRepository.class);
+		tx = new TransactionTemplate(webAppCtx.getBean(PlatformTransactionManager.class));
+		cache = webAppCtx.getBeansOfType(SecondLevelCache.class).isEmpty()
+		        ? null
+		        : webAppCtx.getBean(SecondLevelCache.class);
+	}
+
+	@Benchmark
+	public MvcResult listProducts(CacheCounters counters) throws Exception {
+		return mockMvc.perform(get("/product").accept(MediaType.APPLICATION_JSON)).andReturn();
+	}
+
+	@Benchmark
+	public MvcResult searchProducts(CacheCounters counters) throws Exception {
+		return mockMvc.perform(get("/product/search/findByDescriptionContaining").param("description", "vintage")
+				                       .accept(MediaType.APPLICATION_JSON)).andReturn();
+	}
+
+	@Benchmark
+	public int findByAttributeAndValue(CacheCounters counters) {
+		return tx.execute(new TransactionCallback<Integer>() {
+			@Override public Integer doInTransaction(TransactionStatus status) {
+				int attributes = 0;
+				for(Product product : products.findByAttributeAndValue("color", "red")) {
+					attributes += product.getAttributes().size();
+				}
+				return attributes;
+			}
+		});
+	}
+
+	@Benchmark
+	public int findByDescriptionContaining(CacheCounters counters) {
+		return tx.execute(new TransactionCallback<Integer>() {
+			@Override public Integer doInTransaction(TransactionStatus status) {
+				int attributes = 0;
+				Page<Product> page = products.findByDescriptionContaining("vintage", new PageRequest(0, 20));
+				for(Product product : page) {
+					attributes += product.getAttributes().size();
+				}
+				return attributes;
+			}
+		});
+	}
+
+	/**
+	 * The second-level cache hits and misses of an iteration, all zero without the {@value JpaConfig#CACHE_PROFILE}
+	 * profile. Hibernate keeps the regions in the singleton {@link CacheManager}, which is looked up here as the
+	 * counters can't share the state of the benchmark and its {@link Cold} variant.
+	 */
+	@State(Scope.Thread)
+	@AuxCounters(AuxCounters.Type.EVENTS)
+	public static class CacheCounters {
+
+		public long productHits;
+		public long productMisses;
+		public long attributeHits;
+		public long attributeMisses;
+		public long queryHits;
+		public long queryMisses;
+
+		@Setup(Level.Iteration)
+		public void clear() {
+			SecondLevelCache cache = secondLevelCache();
+			if(null != cache) {
+				cache.clearStatistics();
+			}
+		}
+
+		@TearDown(Level.Iteration)
+		public void read() {
+			SecondLevelCache cache = secondLevelCache();
+			if(null != cache) {
+				productHits = cache.getHits(SecondLevelCache.PRODUCT_REGION);
+				productMisses = cache.getMisses(SecondLevelCache.PRODUCT_REGION);
+				attributeHits = cache.getHits(SecondLevelCache.PRODUCT_ATTRIBUTES_REGION);
+				attributeMisses = cache.getMisses(SecondLevelCache.PRODUCT_ATTRIBUTES_REGION);
+				queryHits = cache.getHits(SecondLevelCache.QUERY_REGION);
+				queryMisses = cache.getMisses(SecondLevelCache.QUERY_REGION);
+			}
+		}
+
+		private static SecondLevelCache secondLevelCache() {
+			return CacheManager.ALL_CACHE_MANAGERS.isEmpty() ? null : new SecondLevelCache(CacheManager.getInstance());
+		}
+
+	}
+
+	/**
+	 * The same reads against an empty cache.
+	 */
+	public static class Cold extends ProductCatalogueBenchmarks {
+
+		@Setup(Level.Invocation)
+		public void evict() {
+			if(null != cache) {
+				cache.evictAll();
+			}
+		}
+	}
+
+}
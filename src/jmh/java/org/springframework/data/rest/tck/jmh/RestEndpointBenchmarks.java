@@ -0,0 +1,71 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jmh;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Per-endpoint baseline for the flows covered by {@link org.springframework.data.rest.tck.jpa.JpaTckTests}.
+ */
+public class RestEndpointBenchmarks extends AbstractTckBenchmark {
+
+	private Link customers;
+	private Link orders;
+	private Link orderLineItems;
+	private String newOrder;
+
+	@Override protected void loadData() {
+		webAppCtx.getBean(TestDataLoader.class).loadData();
+	}
+
+	@Override protected void discoverLinks() throws Exception {
+		customers = discoverRootLink("customer");
+		orders = discoverRootLink("order");
+		orderLineItems = discover(discover(orders, "order.order").get(0), "order.order.lineItems").get(0);
+		newOrder = newOrderJson();
+	}
+
+	@Benchmark
+	public MvcResult discoverRoot() throws Exception {
+		return mockMvc.perform(get("/").accept(COMPACT_JSON)).andReturn();
+	}
+
+	@Benchmark
+	public MvcResult listCustomers() throws Exception {
+		return mockMvc.perform(get(customers.getHref()).accept(MediaType.APPLICATION_JSON)).andReturn();
+	}
+
+	@Benchmark
+	public MvcResult followOrderLineItems() throws Exception {
+		return mockMvc.perform(get(orderLineItems.getHref()).accept(MediaType.APPLICATION_JSON)).andReturn();
+	}
+
+	@Benchmark
+	public MvcResult createOrder() throws Exception {
+		return mockMvc
+				.perform(post(orders.getHref())
+						         .contentType(MediaType.APPLICATION_JSON)
+						         .content(newOrder))
+				.andReturn();
+	}
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jmh;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.*;
+
+import javax.servlet.ServletContext;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.web.RootDocumentFilter;
+import org.springframework.http.MediaType;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewFilter;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * The root document in each of its media types, rendered by the exporter on every request or served from the bytes
+ * kept by the {@link RootDocumentFilter}. Allocations per request are reported by the {@literal gc} profiler.
+ */
+public class RootDocumentBenchmarks extends AbstractTckBenchmark {
+
+	private static final MediaType VERBOSE_JSON = MediaType.parseMediaType("application/x-spring-data-verbose+json");
+
+	@Param({"true", "false"})
+	public boolean precomputed;
+
+	@Override protected void loadData() {
+		webAppCtx.getBean(TestDataLoader.class).loadData();
+	}
+
+	@Override protected void discoverLinks() throws Exception {
+		if(precomputed) {
+			ServletContext servletContext = webAppCtx.getServletContext();
+			OpenEntityManagerInViewFilter oemivf = new OpenEntityManagerInViewFilter();
+			oemivf.setServletContext(servletContext);
+			RootDocumentFilter rdf = new RootDocumentFilter();
+			rdf.setServletContext(servletContext);
+
+			mockMvc = webAppContextSetup(webAppCtx)
+					.addFilters(oemivf, rdf)
+					.build();
+		}
+	}
+
+	@Benchmark
+	public MvcResult discoverRootJson() throws Exception {
+		return mockMvc.perform(get("/").accept(MediaType.APPLICATION_JSON)).andReturn();
+	}
+
+	@Benchmark
+	public MvcResult discoverRootCompact() throws Exception {
+		return mockMvc.perform(get("/").accept(COMPACT_JSON)).andReturn();
+	}
+
+	@Benchmark
+	public MvcResult discoverRootVerbose() throws Exception {
+		return mockMvc.perform(get("/").accept(VERBOSE_JSON)).andReturn();
+	}
+
+}
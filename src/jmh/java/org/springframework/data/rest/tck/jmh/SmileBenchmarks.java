@@ -0,0 +1,109 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jmh;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.*;
+
+import javax.servlet.ServletContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.web.SmileFilter;
+import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewFilter;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Order and product pages in JSON and in Smile, as translated by the {@link SmileFilter}. Prints the bytes per page
+ * before measuring. {@link #listOrders()} and {@link #listProducts()} measure the server encoding the pages,
+ * {@link #decodeOrders()} and {@link #encodeOrders()} a client reading and writing an order page with Jackson. Run with
+ * {@literal -PtckDataScale} for full pages.
+ */
+public class SmileBenchmarks extends AbstractTckBenchmark {
+
+	@Param({"json", "smile"})
+	public String format;
+
+	private Link         orders;
+	private Link         products;
+	private MediaType    mediaType;
+	private ObjectMapper mapper;
+	private byte[]       ordersBody;
+	private JsonNode     ordersTree;
+
+	@Override protected void loadData() {
+		webAppCtx.getBean(TestDataLoader.class).loadData();
+	}
+
+	@Override protected void discoverLinks() throws Exception {
+		orders = discoverRootLink("order");
+		products = discoverRootLink("product");
+
+		boolean smile = "smile".equals(format);
+		mediaType = smile ? SmileFilter.SMILE : MediaType.APPLICATION_JSON;
+		mapper = smile ? new ObjectMapper(new SmileFactory()) : new ObjectMapper();
+
+		ServletContext servletContext = webAppCtx.getServletContext();
+		OpenEntityManagerInViewFilter oemivf = new OpenEntityManagerInViewFilter();
+		oemivf.setServletContext(servletContext);
+		SmileFilter sf = new SmileFilter();
+		sf.setServletContext(servletContext);
+
+		mockMvc = webAppContextSetup(webAppCtx)
+				.addFilters(oemivf, sf)
+				.build();
+
+		for(Link link : new Link[]{orders, products}) {
+			System.out.println(String.format("%s: %d bytes of %s",
+			                                 link.getHref(),
+			                                 list(link).getResponse().getContentAsByteArray().length,
+			                                 format));
+		}
+		ordersBody = list(orders).getResponse().getContentAsByteArray();
+		ordersTree = mapper.readTree(ordersBody);
+	}
+
+	@Benchmark
+	public MvcResult listOrders() throws Exception {
+		return list(orders);
+	}
+
+	@Benchmark
+	public MvcResult listProducts() throws Exception {
+		return list(products);
+	}
+
+	@Benchmark
+	public JsonNode decodeOrders() throws Exception {
+		return mapper.readTree(ordersBody);
+	}
+
+	@Benchmark
+	public byte[] encodeOrders() throws Exception {
+		return mapper.writeValueAsBytes(ordersTree);
+	}
+
+	private MvcResult list(Link link) throws Exception {
+		return mockMvc.perform(get(link.getHref()).accept(mediaType)).andReturn();
+	}
+
+}
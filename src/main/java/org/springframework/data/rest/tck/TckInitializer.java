@@ -4,9 +4,18 @@ import javax.servlet.ServletContext;
 import javax.servlet.ServletException;
 import javax.servlet.ServletRegistration;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+import org.springframework.data.rest.tck.web.CompressionFilter;
+import org.springframework.data.rest.tck.web.ConditionalRequestFilter;
+import org.springframework.data.rest.tck.web.EntityWriters;
+import org.springframework.data.rest.tck.web.ResponseCacheFilter;
+import org.springframework.data.rest.tck.web.RootDocumentFilter;
+import org.springframework.data.rest.tck.web.SmileFilter;
+import org.springframework.data.rest.tck.web.StatementStatisticsFilter;
 import org.springframework.data.rest.webmvc.config.RepositoryRestMvcConfiguration;
 import org.springframework.web.WebApplicationInitializer;
 import org.springframework.web.context.ContextLoaderListener;
@@ -26,6 +35,19 @@ public class TckInitializer implements WebApplicationInitializer {
 
 		servletContext.addListener(new ContextLoaderListener(rootCtx));
 
+		servletContext.addFilter("statementStatistics", new StatementStatisticsFilter())
+		              .addMappingForUrlPatterns(null, false, "/*");
+		servletContext.addFilter("compression", new CompressionFilter())
+		              .addMappingForUrlPatterns(null, false, "/*");
+		servletContext.addFilter("smile", new SmileFilter())
+		              .addMappingForUrlPatterns(null, false, "/*");
+		servletContext.addFilter("responseCache", new ResponseCacheFilter())
+		              .addMappingForUrlPatterns(null, false, "/*");
+		servletContext.addFilter("rootDocument", new RootDocumentFilter())
+		              .addMappingForUrlPatterns(null, false, "/*");
+		servletContext.addFilter("conditionalRequests", new ConditionalRequestFilter())
+		              .addMappingForUrlPatterns(null, false, "/*");
+
 		AnnotationConfigWebApplicationContext webCtx = new AnnotationConfigWebApplicationContext();
 		webCtx.register(WebConfig.class);
 
@@ -38,6 +60,9 @@ public class TckInitializer implements WebApplicationInitializer {
 
 	private static class WebConfig extends RepositoryRestMvcConfiguration {
 
+		@Autowired
+		private EntityWriters entityWriters;
+
 		@Bean public MessageSource messageSource() {
 			ReloadableResourceBundleMessageSource msgsrc = new ReloadableResourceBundleMessageSource();
 			msgsrc.setBasenames("/ValidationMessages");
@@ -45,6 +70,10 @@ public class TckInitializer implements WebApplicationInitializer {
 			return msgsrc;
 		}
 
+		@Override protected void configureJacksonObjectMapper(ObjectMapper objectMapper) {
+			entityWriters.registerWith(objectMapper);
+		}
+
 		@Override public RequestMappingHandlerMapping repositoryExporterHandlerMapping() {
 			RequestMappingHandlerMapping handlerMapping = super.repositoryExporterHandlerMapping();
 
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jdbc;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+/**
+ * {@link DataSource} that records the statements executed through its connections in the {@link StatementStatistics}
+ * of the current thread, if any are being recorded.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+
+	public InstrumentedDataSource(DataSource targetDataSource) {
+		super(targetDataSource);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		return proxy(Connection.class, new ConnectionHandler(super.getConnection()));
+	}
+
+	@Override
+	public Connection getConnection(String username, String password) throws SQLException {
+		return proxy(Connection.class, new ConnectionHandler(super.getConnection(username, password)));
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+		return (T)Proxy.newProxyInstance(InstrumentedDataSource.class.getClassLoader(), new Class<?>[]{type}, handler);
+	}
+
+	private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+		try {
+			return method.invoke(target, args);
+		} catch(InvocationTargetException e) {
+			throw e.getTargetException();
+		}
+	}
+
+	/**
+	 * Hands out instrumented statements.
+	 */
+	private static class ConnectionHandler implements InvocationHandler {
+
+		private final Connection target;
+
+		ConnectionHandler(Connection target) {
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			Object result = InstrumentedDataSource.invoke(target, method, args);
+
+			if(result instanceof Statement) {
+				// Prepared and callable statements are handed their SQL up front
+				String sql = null != args && args.length > 0 && args[0] instanceof String ? (String)args[0] : null;
+				return proxy(method.getReturnType(), new StatementHandler((Statement)result, sql));
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Times statement executions and tracks the size of pending batches and the SQL executed.
+	 */
+	private static class StatementHandler implements InvocationHandler {
+
+		private final Statement target;
+		private final String    preparedSql;
+		private int    batchSize;
+		private String batchSql;
+
+		StatementHandler(Statement target, String preparedSql) {
+			this.target = target;
+			this.preparedSql = preparedSql;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			StatementStatistics statistics = StatementStatistics.current();
+			String name = method.getName();
+
+			if("addBatch".equals(name)) {
+				batchSize++;
+				if(null == batchSql) {
+					batchSql = null != args && args.length > 0 ? (String)args[0] : preparedSql;
+				}
+			} else if("clearBatch".equals(name)) {
+				batchSize = 0;
+				batchSql = null;
+			}
+
+			Object result;
+			if(null != statistics && name.startsWith("execute")) {
+				long start = System.nanoTime();
+				result = InstrumentedDataSource.invoke(target, method, args);
+				long elapsed = System.nanoTime() - start;
+
+				if("executeBatch".equals(name)) {
+					statistics.batchExecuted(batchSql, batchSize, elapsed);
+				} else {
+					statistics.statementExecuted(null != args && args.length > 0 ? (String)args[0] : preparedSql, elapsed);
+				}
+			} else {
+				result = InstrumentedDataSource.invoke(target, method, args);
+			}
+
+			if("executeBatch".equals(name)) {
+				batchSize = 0;
+				batchSql = null;
+			}
+
+			if(result instanceof ResultSet) {
+				return proxy(ResultSet.class, new ResultSetHandler((ResultSet)result));
+			}
+			return result;
+		}
+	}
+
+	/**
+	 * Counts the rows read.
+	 */
+	private static class ResultSetHandler implements InvocationHandler {
+
+		private final ResultSet target;
+
+		ResultSetHandler(ResultSet target) {
+			this.target = target;
+		}
+
+		@Override
+		public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+			Object result = InstrumentedDataSource.invoke(target, method, args);
+
+			if("next".equals(method.getName()) && Boolean.TRUE.equals(result)) {
+				StatementStatistics statistics = StatementStatistics.current();
+				if(null != statistics) {
+					statistics.rowFetched();
+				}
+			}
+			return result;
+		}
+	}
+
+}
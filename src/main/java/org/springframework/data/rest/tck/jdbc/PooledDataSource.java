@@ -0,0 +1,131 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jdbc;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.apache.tomcat.jdbc.pool.DataSource;
+import org.apache.tomcat.jdbc.pool.PoolConfiguration;
+import org.apache.tomcat.jdbc.pool.PoolExhaustedException;
+
+/**
+ * Connection pool that, on top of the pool's own active and idle counts, records how long callers wait for a
+ * connection, how many of them give up waiting and the largest number of connections in use at once.
+ */
+public class PooledDataSource extends DataSource {
+
+	private final AtomicLong    connections   = new AtomicLong();
+	private final AtomicLong    waitNanos     = new AtomicLong();
+	private final AtomicLong    maxWaitNanos  = new AtomicLong();
+	private final AtomicLong    timeouts      = new AtomicLong();
+	private final AtomicInteger largestActive = new AtomicInteger();
+
+	public PooledDataSource(PoolConfiguration properties) {
+		super(properties);
+	}
+
+	@Override
+	public Connection getConnection() throws SQLException {
+		long start = System.nanoTime();
+		Connection connection;
+		try {
+			connection = super.getConnection();
+		} catch(PoolExhaustedException e) {
+			timeouts.incrementAndGet();
+			throw e;
+		}
+		long waited = System.nanoTime() - start;
+
+		connections.incrementAndGet();
+		waitNanos.addAndGet(waited);
+		for(long max = maxWaitNanos.get(); waited > max && !maxWaitNanos.compareAndSet(max, waited); ) {
+			max = maxWaitNanos.get();
+		}
+		for(int active = getActive(), max = largestActive.get();
+		    active > max && !largestActive.compareAndSet(max, active); ) {
+			max = largestActive.get();
+		}
+
+		return connection;
+	}
+
+	/**
+	 * Returns the number of connections handed out.
+	 *
+	 * @return
+	 */
+	public long getConnections() {
+		return connections.get();
+	}
+
+	/**
+	 * Returns the time callers spent waiting for the connections handed out, including the time to open new ones.
+	 *
+	 * @param unit
+	 *     must not be {@literal null}.
+	 *
+	 * @return
+	 */
+	public long getWaitTime(TimeUnit unit) {
+		return unit.convert(waitNanos.get(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Returns the longest time a caller waited for a connection.
+	 *
+	 * @param unit
+	 *     must not be {@literal null}.
+	 *
+	 * @return
+	 */
+	public long getMaxWaitTime(TimeUnit unit) {
+		return unit.convert(maxWaitNanos.get(), TimeUnit.NANOSECONDS);
+	}
+
+	/**
+	 * Returns the number of callers that gave up waiting for a connection after the configured maximum wait.
+	 *
+	 * @return
+	 */
+	public long getTimeouts() {
+		return timeouts.get();
+	}
+
+	/**
+	 * Returns the largest number of connections that were in use at the same time.
+	 *
+	 * @return
+	 */
+	public int getLargestActive() {
+		return largestActive.get();
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("%d active (largest %d), %d idle, %d waiting, %d connections handed out in %dms (max %dms), %d timeouts",
+		                     getActive(), getLargestActive(), getIdle(), getWaitCount(), getConnections(),
+		                     getWaitTime(TimeUnit.MILLISECONDS), getMaxWaitTime(TimeUnit.MILLISECONDS), getTimeouts());
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jdbc;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JDBC activity recorded by an {@link InstrumentedDataSource} on the current thread between {@link #start()} and
+ * {@link #stop()}.
+ */
+public class StatementStatistics {
+
+	private static final ThreadLocal<StatementStatistics> CURRENT = new ThreadLocal<StatementStatistics>();
+
+	private int  statements;
+	private int  batches;
+	private int  batchedStatements;
+	private int  largestBatch;
+	private long rows;
+	private long elapsedNanos;
+
+	private final List<String> sql = new ArrayList<String>();
+
+	/**
+	 * Starts recording the statements executed on the current thread.
+	 *
+	 * @return the statistics being recorded.
+	 */
+	public static StatementStatistics start() {
+		StatementStatistics statistics = new StatementStatistics();
+		CURRENT.set(statistics);
+		return statistics;
+	}
+
+	/**
+	 * Returns the statistics currently recorded for this thread.
+	 *
+	 * @return the {@link StatementStatistics} or {@literal null} if nothing is being recorded.
+	 */
+	public static StatementStatistics current() {
+		return CURRENT.get();
+	}
+
+	/**
+	 * Stops recording on the current thread.
+	 *
+	 * @return the recorded statistics or {@literal null} if nothing was being recorded.
+	 */
+	public static StatementStatistics stop() {
+		StatementStatistics statistics = CURRENT.get();
+		CURRENT.remove();
+		return statistics;
+	}
+
+	void statementExecuted(String sql, long nanos) {
+		this.sql.add(sql);
+		statements++;
+		elapsedNanos += nanos;
+	}
+
+	void batchExecuted(String sql, int size, long nanos) {
+		statementExecuted(sql, nanos);
+		batches++;
+		batchedStatements += size;
+		largestBatch = Math.max(largestBatch, size);
+	}
+
+	void rowFetched() {
+		rows++;
+	}
+
+	/**
+	 * Returns the number of statements sent to the database, counting each JDBC batch once.
+	 *
+	 * @return
+	 */
+	public int getStatements() {
+		return statements;
+	}
+
+	/**
+	 * Returns the SQL of the statements sent to the database, in the order they were sent, with each JDBC batch listed
+	 * once.
+	 *
+	 * @return
+	 */
+	public List<String> getSql() {
+		return Collections.unmodifiableList(sql);
+	}
+
+	/**
+	 * Returns the number of JDBC batches executed.
+	 *
+	 * @return
+	 */
+	public int getBatches() {
+		return batches;
+	}
+
+	/**
+	 * Returns the number of statements sent as part of a JDBC batch.
+	 *
+	 * @return
+	 */
+	public int getBatchedStatements() {
+		return batchedStatements;
+	}
+
+	/**
+	 * Returns the size of the largest JDBC batch executed.
+	 *
+	 * @return
+	 */
+	public int getLargestBatch() {
+		return largestBatch;
+	}
+
+	/**
+	 * Returns the number of rows read from result sets.
+	 *
+	 * @return
+	 */
+	public long getRows() {
+		return rows;
+	}
+
+	/**
+	 * Returns the time spent executing statements.
+	 *
+	 * @param unit
+	 *     must not be {@literal null}.
+	 *
+	 * @return
+	 */
+	public long getElapsedTime(TimeUnit unit) {
+		return unit.convert(elapsedNanos, TimeUnit.NANOSECONDS);
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("%d statements (%d batches, %d batched, largest %d), %d rows, %dus",
+		                     statements, batches, batchedStatements, largestBatch, rows,
+		                     getElapsedTime(TimeUnit.MICROSECONDS));
+	}
+
+}
@@ -1,13 +1,28 @@
 package org.springframework.data.rest.tck.jpa;
 
+import java.util.HashMap;
+import java.util.Map;
 import javax.persistence.EntityManagerFactory;
 import javax.sql.DataSource;
 
+import net.sf.ehcache.CacheManager;
+import org.apache.tomcat.jdbc.pool.PoolProperties;
+import org.apache.tomcat.jdbc.pool.interceptor.StatementCache;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.context.annotation.Primary;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+import org.springframework.data.rest.tck.jdbc.InstrumentedDataSource;
+import org.springframework.data.rest.tck.jdbc.PooledDataSource;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
 import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseType;
+import org.springframework.jdbc.datasource.init.DataSourceInitializer;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
 import org.springframework.orm.jpa.JpaDialect;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
@@ -18,6 +33,17 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 /**
+ * JPA setup for the TCK. Statements executed through the {@link DataSource} are recorded in the current thread's
+ * {@link org.springframework.data.rest.tck.jdbc.StatementStatistics}. Activating the {@value #BATCH_PROFILE} profile
+ * maps entity ids to a pooled sequence (see {@literal META-INF/orm-batch.xml}) and turns on ordered, batched JDBC
+ * inserts and updates. The {@value #CACHE_PROFILE} profile caches
+ * {@link org.springframework.data.rest.tck.jpa.domain.Product}s, their attributes and the results of the
+ * {@link org.springframework.data.rest.tck.jpa.repository.ProductRepository} queries in the regions configured in
+ * {@literal ehcache-tck.xml}. The {@value #SEARCH_PROFILE} profile answers
+ * {@link org.springframework.data.rest.tck.jpa.repository.ProductRepository#findByDescriptionContaining} from an
+ * in-memory {@link ProductSearchIndex}. The {@value #POOL_PROFILE} profile pools the connections in a
+ * {@link PooledDataSource} configured through the {@literal tck.pool.*} properties, see {@link PoolConfig}.
+ *
  * @author Jon Brisbin
  */
 @Configuration
@@ -25,7 +51,31 @@ import org.springframework.transaction.annotation.EnableTransactionManagement;
 @EnableTransactionManagement
 public class JpaConfig {
 
-  @Bean public DataSource dataSource() {
+  public static final int    FETCH_SIZE         = 50;
+  public static final String BATCH_PROFILE      = "batch";
+  public static final String CACHE_PROFILE      = "cache";
+  public static final String SEARCH_PROFILE     = "search";
+  public static final String POOL_PROFILE       = "pool";
+  public static final int    BATCH_SIZE         = 50;
+  /**
+   * Name and allocation size of the id sequence declared in {@literal META-INF/orm-batch.xml}.
+   */
+  public static final String ID_SEQUENCE        = "tck_sequence";
+  public static final int    ID_ALLOCATION_SIZE = 50;
+
+  @Autowired
+  private Environment      env;
+  @Autowired(required = false)
+  private PooledDataSource connectionPool;
+
+  /**
+   * The instrumented {@link DataSource}, preferred over the {@link PooledDataSource} it wraps when injected by type.
+   */
+  @Bean @Primary public DataSource dataSource() {
+    return new InstrumentedDataSource(null != connectionPool ? connectionPool : embeddedDatabase());
+  }
+
+  private static DataSource embeddedDatabase() {
     EmbeddedDatabaseBuilder builder = new EmbeddedDatabaseBuilder();
     return builder.setType(EmbeddedDatabaseType.HSQL).build();
   }
@@ -40,11 +90,59 @@ public class JpaConfig {
     factory.setPackagesToScan(getClass().getPackage().getName());
     factory.setDataSource(dataSource());
 
+    Map<String, Object> properties = new HashMap<String, Object>();
+    // Initialize lazy associations of up to FETCH_SIZE entities in the persistence context at once, so rendering a
+    // page of entities doesn't issue a select per association and row
+    properties.put("hibernate.default_batch_fetch_size", String.valueOf(FETCH_SIZE));
+
+    if(env.acceptsProfiles(BATCH_PROFILE)) {
+      factory.setMappingResources("META-INF/orm-batch.xml");
+      properties.putAll(batchProperties());
+    }
+    if(env.acceptsProfiles(CACHE_PROFILE)) {
+      properties.putAll(cacheProperties());
+    }
+    factory.setJpaPropertyMap(properties);
+
     factory.afterPropertiesSet();
 
     return factory.getObject();
   }
 
+  private static Map<String, Object> batchProperties() {
+    Map<String, Object> properties = new HashMap<String, Object>();
+    properties.put("hibernate.id.new_generator_mappings", "true");
+    properties.put("hibernate.jdbc.batch_size", String.valueOf(BATCH_SIZE));
+    properties.put("hibernate.jdbc.batch_versioned_data", "true");
+    properties.put("hibernate.order_inserts", "true");
+    properties.put("hibernate.order_updates", "true");
+    return properties;
+  }
+
+  private static Map<String, Object> cacheProperties() {
+    Map<String, Object> properties = new HashMap<String, Object>();
+    properties.put("hibernate.cache.use_second_level_cache", "true");
+    properties.put("hibernate.cache.use_query_cache", "true");
+    properties.put("hibernate.cache.region.factory_class", "org.hibernate.cache.ehcache.SingletonEhCacheRegionFactory");
+    properties.put("net.sf.ehcache.configurationResourceName", "/ehcache-tck.xml");
+    properties.put("hibernate.ejb.classcache." + SecondLevelCache.PRODUCT_REGION, "read-write");
+    properties.put("hibernate.ejb.collectioncache." + SecondLevelCache.PRODUCT_ATTRIBUTES_REGION, "read-write");
+    return properties;
+  }
+
+  /**
+   * Adds the indexes declared in {@literal schema-tck.sql} once Hibernate has created the tables.
+   */
+  @Bean @DependsOn("entityManagerFactory") public DataSourceInitializer schemaInitializer() {
+    ResourceDatabasePopulator populator = new ResourceDatabasePopulator();
+    populator.addScript(new ClassPathResource("schema-tck.sql"));
+
+    DataSourceInitializer initializer = new DataSourceInitializer();
+    initializer.setDataSource(dataSource());
+    initializer.setDatabasePopulator(populator);
+    return initializer;
+  }
+
   @Bean public JpaDialect jpaDialect() {
     return new HibernateJpaDialect();
   }
@@ -55,4 +153,77 @@ public class JpaConfig {
     return txManager;
   }
 
+  @Configuration
+  @Profile(CACHE_PROFILE)
+  static class CacheConfig {
+
+    /**
+     * Exposes the {@link CacheManager} Hibernate created while bootstrapping the {@link EntityManagerFactory}.
+     */
+    @Bean @DependsOn("entityManagerFactory") public SecondLevelCache secondLevelCache() {
+      return new SecondLevelCache(CacheManager.getInstance());
+    }
+
+  }
+
+  /**
+   * Sizes the connection pool from the {@literal tck.pool.*} properties: {@literal maxActive} connections at most (8),
+   * at least {@literal minIdle} of them kept open (2), callers waiting up to {@literal maxWait} milliseconds for one
+   * (5000), {@literal statementCacheSize} prepared statements cached across the pool (100), and connections held longer
+   * than {@literal leakThreshold} seconds (60) logged along with the stack trace of the code that borrowed them.
+   */
+  @Configuration
+  @Profile(POOL_PROFILE)
+  static class PoolConfig {
+
+    /**
+     * Connections are only logged as leaked, not taken back, unless they are held this long with the pool exhausted.
+     */
+    private static final int ABANDON_TIMEOUT_SECONDS = 24 * 60 * 60;
+
+    @Autowired
+    private Environment env;
+
+    @Bean(destroyMethod = "close") public PooledDataSource connectionPool() {
+      int maxActive = env.getProperty("tck.pool.maxActive", Integer.class, 8);
+      int minIdle = env.getProperty("tck.pool.minIdle", Integer.class, 2);
+
+      PoolProperties properties = new PoolProperties();
+      properties.setName("tck");
+      properties.setDataSource(embeddedDatabase());
+      properties.setMaxActive(maxActive);
+      properties.setMaxIdle(maxActive);
+      properties.setMinIdle(minIdle);
+      properties.setInitialSize(minIdle);
+      properties.setMaxWait(env.getProperty("tck.pool.maxWait", Integer.class, 5000));
+      properties.setJdbcInterceptors(String.format("%s(prepared=true,callable=false,max=%d)",
+                                                   StatementCache.class.getName(),
+                                                   env.getProperty("tck.pool.statementCacheSize", Integer.class, 100)));
+
+      // The pool only looks for leaked connections while it may abandon them
+      properties.setSuspectTimeout(env.getProperty("tck.pool.leakThreshold", Integer.class, 60));
+      properties.setLogAbandoned(true);
+      properties.setRemoveAbandoned(true);
+      properties.setRemoveAbandonedTimeout(ABANDON_TIMEOUT_SECONDS);
+      properties.setAbandonWhenPercentageFull(100);
+
+      return new PooledDataSource(properties);
+    }
+
+  }
+
+  @Configuration
+  @Profile(SEARCH_PROFILE)
+  static class SearchConfig {
+
+    @Bean public ProductSearchIndex productSearchIndex() {
+      return new ProductSearchIndex();
+    }
+
+    @Bean public static ProductSearchPostProcessor productSearchPostProcessor() {
+      return new ProductSearchPostProcessor();
+    }
+
+  }
+
 }
@@ -0,0 +1,286 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jpa;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.rest.tck.jpa.domain.Product;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.Assert;
+
+/**
+ * In-memory inverted index from the trigrams of {@link Product} descriptions to the ids of the products containing
+ * them. Answers the same question as {@code description like '%snippet%'} without scanning the product table: the
+ * posting lists of the snippet's trigrams are intersected and the remaining candidates checked against the indexed
+ * description.
+ * <p/>
+ * The index is built from the database on the first search and on the first search after {@link #invalidate()}, and
+ * kept up to date through {@link #index(Product)} and {@link #remove(Long)} in between. An index built inside a
+ * transaction may hold that transaction's uncommitted writes, so it is discarded again if the transaction doesn't
+ * commit. Ids are held in {@link BitSet}s, so products with ids beyond {@link Integer#MAX_VALUE} can't be indexed; once
+ * there are any, the index answers no searches until it is rebuilt without them.
+ */
+public class ProductSearchIndex {
+
+	private static final Logger LOG = LoggerFactory.getLogger(ProductSearchIndex.class);
+	private static final int GRAM = 3;
+
+	@PersistenceContext
+	private EntityManager em;
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+	private final Map<String, BitSet> postings = new HashMap<String, BitSet>();
+	private final Map<Integer, String> descriptions = new HashMap<Integer, String>();
+	private final BitSet described = new BitSet();
+	private boolean built;
+	private boolean overflowed;
+
+	/**
+	 * Returns the ids of all {@link Product}s whose description contains the given snippet, in ascending order.
+	 *
+	 * @param snippet
+	 *     must not be {@literal null}.
+	 *
+	 * @return the ids, or {@literal null} if there are products whose ids the index can't hold, so the database has to
+	 *         be searched instead.
+	 */
+	public List<Long> findIdsByDescriptionContaining(String snippet) {
+		Assert.notNull(snippet, "Snippet must not be null!");
+		ensureBuilt();
+
+		lock.readLock().lock();
+		try {
+			if(overflowed) {
+				return null;
+			}
+			BitSet candidates = candidates(snippet);
+			List<Long> ids = new ArrayList<Long>();
+			for(int id = candidates.nextSetBit(0); id >= 0; id = candidates.nextSetBit(id + 1)) {
+				if(descriptions.get(id).contains(snippet)) {
+					ids.add((long)id);
+				}
+			}
+			return ids;
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Adds the given {@link Product} to the index, replacing what was indexed for it before.
+	 *
+	 * @param product
+	 *     must not be {@literal null}.
+	 */
+	public void index(Product product) {
+		Assert.notNull(product, "Product must not be null!");
+
+		lock.writeLock().lock();
+		try {
+			if(built && !overflowed) {
+				if(isIndexable(product.getId())) {
+					unindex(product.getId().intValue());
+					add(product.getId().intValue(), product.getDescription());
+				} else {
+					overflow();
+				}
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Removes the {@link Product} with the given id from the index.
+	 *
+	 * @param id
+	 *     must not be {@literal null}.
+	 */
+	public void remove(Long id) {
+		Assert.notNull(id, "Id must not be null!");
+
+		lock.writeLock().lock();
+		try {
+			if(built && isIndexable(id)) {
+				unindex(id.intValue());
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Discards the index, so the next search rebuilds it from the database. Needed after {@link Product}s have been
+	 * written without going through the {@link org.springframework.data.rest.tck.jpa.repository.ProductRepository}.
+	 */
+	public void invalidate() {
+		lock.writeLock().lock();
+		try {
+			clear();
+			built = false;
+			overflowed = false;
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void ensureBuilt() {
+		lock.readLock().lock();
+		try {
+			if(built) {
+				return;
+			}
+		} finally {
+			lock.readLock().unlock();
+		}
+
+		lock.writeLock().lock();
+		try {
+			if(!built) {
+				long start = System.currentTimeMillis();
+				clear();
+				overflowed = false;
+				for(Object[] row : em.createQuery("select p.id, p.description from Product p", Object[].class)
+				                     .getResultList()) {
+					Long id = (Long)row[0];
+					if(!isIndexable(id)) {
+						overflow();
+						break;
+					}
+					add(id.intValue(), (String)row[1]);
+				}
+				built = true;
+				invalidateUnlessCommitted();
+				LOG.info("Indexed {} product descriptions ({} trigrams) in {}ms",
+				         descriptions.size(), postings.size(), System.currentTimeMillis() - start);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * Discards the index if the transaction it was just built in rolls back, as it may hold rows written by it.
+	 */
+	private void invalidateUnlessCommitted() {
+		if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+			return;
+		}
+		TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+			@Override public void afterCompletion(int status) {
+				if(STATUS_COMMITTED != status) {
+					invalidate();
+				}
+			}
+		});
+	}
+
+	private void overflow() {
+		LOG.info("Product ids beyond {} can't be indexed, searching the database instead", Integer.MAX_VALUE);
+		clear();
+		overflowed = true;
+	}
+
+	private BitSet candidates(String snippet) {
+		if(snippet.length() < GRAM) {
+			// Too short to have a trigram, so every description is a candidate
+			return (BitSet)described.clone();
+		}
+
+		BitSet candidates = null;
+		for(String gram : grams(snippet)) {
+			BitSet posting = postings.get(gram);
+			if(null == posting) {
+				return new BitSet();
+			}
+			if(null == candidates) {
+				candidates = (BitSet)posting.clone();
+			} else {
+				candidates.and(posting);
+			}
+		}
+		return candidates;
+	}
+
+	private void add(int id, String description) {
+		if(null == description) {
+			return;
+		}
+
+		descriptions.put(id, description);
+		described.set(id);
+		for(String gram : grams(description)) {
+			BitSet posting = postings.get(gram);
+			if(null == posting) {
+				postings.put(gram, posting = new BitSet());
+			}
+			posting.set(id);
+		}
+	}
+
+	private void unindex(int id) {
+		String description = descriptions.remove(id);
+		if(null == description) {
+			return;
+		}
+
+		described.clear(id);
+		for(String gram : grams(description)) {
+			BitSet posting = postings.get(gram);
+			posting.clear(id);
+			if(posting.isEmpty()) {
+				postings.remove(gram);
+			}
+		}
+	}
+
+	private void clear() {
+		postings.clear();
+		descriptions.clear();
+		described.clear();
+	}
+
+	private static Set<String> grams(String text) {
+		if(text.length() < GRAM) {
+			return Collections.emptySet();
+		}
+
+		Set<String> grams = new LinkedHashSet<String>();
+		for(int i = 0; i + GRAM <= text.length(); i++) {
+			grams.add(text.substring(i, i + GRAM));
+		}
+		return grams;
+	}
+
+	private static boolean isIndexable(Long id) {
+		return id >= 0 && id <= Integer.MAX_VALUE;
+	}
+
+}
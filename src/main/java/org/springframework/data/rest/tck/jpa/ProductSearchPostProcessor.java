@@ -0,0 +1,235 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jpa;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.BeanFactory;
+import org.springframework.beans.factory.BeanFactoryAware;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.rest.tck.jpa.domain.Product;
+import org.springframework.data.rest.tck.jpa.repository.ProductRepository;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Routes {@link ProductRepository#findByDescriptionContaining(String, Pageable)} to the {@link ProductSearchIndex} and
+ * keeps the index up to date with the {@link Product}s saved and deleted through the repository.
+ * <p/>
+ * The repository method stays a query method, so it is still exported as
+ * {@literal /product/search/findByDescriptionContaining}; only its invocation is served from the index. Results are
+ * paged in id order. Sorted pages, and searches for {@literal null}, still run the original query.
+ * <p/>
+ * Writes reach the index once their transaction has committed, so rolled back ones never do. Until then, searches in
+ * the writing transaction run the original query, which sees its own writes. Ids the index finds but the database no
+ * longer holds, of products deleted without going through the repository, are removed from the index before the page
+ * is answered, so the totals match the content.
+ */
+public class ProductSearchPostProcessor implements BeanPostProcessor, BeanFactoryAware {
+
+	private final Object pendingWrites = new Object();
+	private BeanFactory beanFactory;
+
+	@Override public void setBeanFactory(BeanFactory beanFactory) throws BeansException {
+		this.beanFactory = beanFactory;
+	}
+
+	@Override public Object postProcessBeforeInitialization(Object bean, String beanName) throws BeansException {
+		return bean;
+	}
+
+	@Override public Object postProcessAfterInitialization(Object bean, String beanName) throws BeansException {
+		if(!(bean instanceof ProductRepository)) {
+			return bean;
+		}
+
+		ProxyFactory factory = new ProxyFactory(bean);
+		factory.addAdvice(new SearchIndexInterceptor((ProductRepository)bean));
+		return factory.getProxy();
+	}
+
+	private class SearchIndexInterceptor implements MethodInterceptor {
+
+		private final ProductRepository repository;
+		private ProductSearchIndex index;
+
+		SearchIndexInterceptor(ProductRepository repository) {
+			this.repository = repository;
+		}
+
+		@Override public Object invoke(MethodInvocation invocation) throws Throwable {
+			String name = invocation.getMethod().getName();
+			Object[] args = invocation.getArguments();
+
+			if("findByDescriptionContaining".equals(name)) {
+				String description = (String)args[0];
+				Pageable pageable = (Pageable)args[1];
+				if(null == description
+						|| null == pageable
+						|| null != pageable.getSort()
+						|| TransactionSynchronizationManager.hasResource(pendingWrites)) {
+					return invocation.proceed();
+				}
+				Page<Product> page = search(description, pageable);
+				return null != page ? page : invocation.proceed();
+			}
+
+			Object result = invocation.proceed();
+
+			if("save".equals(name)) {
+				final List<Product> saved = products(result);
+				afterCommit(new Runnable() {
+					@Override public void run() {
+						for(Product product : saved) {
+							index().index(product);
+						}
+					}
+				});
+			} else if("delete".equals(name)) {
+				final List<Long> deleted = ids(args[0]);
+				afterCommit(new Runnable() {
+					@Override public void run() {
+						for(Long id : deleted) {
+							index().remove(id);
+						}
+					}
+				});
+			} else if("deleteAll".equals(name)) {
+				afterCommit(new Runnable() {
+					@Override public void run() {
+						index().invalidate();
+					}
+				});
+			}
+
+			return result;
+		}
+
+		/**
+		 * Answers the search from the index, or returns {@literal null} if the index can't.
+		 */
+		private Page<Product> search(String description, Pageable pageable) {
+			while(true) {
+				List<Long> ids = index().findIdsByDescriptionContaining(description);
+				if(null == ids) {
+					return null;
+				}
+				int from = Math.min(ids.size(), pageable.getOffset());
+				int to = Math.min(ids.size(), from + pageable.getPageSize());
+				List<Long> pageIds = ids.subList(from, to);
+
+				Map<Long, Product> products = new HashMap<Long, Product>();
+				if(!pageIds.isEmpty()) {
+					for(Product product : repository.findAll(pageIds)) {
+						products.put(product.getId(), product);
+					}
+				}
+
+				List<Product> content = new ArrayList<Product>(pageIds.size());
+				List<Long> missing = new ArrayList<Long>();
+				for(Long id : pageIds) {
+					Product product = products.get(id);
+					if(null != product) {
+						content.add(product);
+					} else {
+						missing.add(id);
+					}
+				}
+				if(missing.isEmpty()) {
+					return new PageImpl<Product>(content, pageable, ids.size());
+				}
+
+				// Deleted behind the repository's back, so the ids are dropped and the page taken again
+				for(Long id : missing) {
+					index().remove(id);
+				}
+			}
+		}
+
+		/**
+		 * Runs the given index update once the current transaction has committed, so rolled back writes never reach the
+		 * index, or right away if there is no transaction. Marks the transaction as having pending writes until it
+		 * completes.
+		 */
+		private void afterCommit(final Runnable update) {
+			if(!TransactionSynchronizationManager.isSynchronizationActive()) {
+				update.run();
+				return;
+			}
+
+			if(!TransactionSynchronizationManager.hasResource(pendingWrites)) {
+				TransactionSynchronizationManager.bindResource(pendingWrites, Boolean.TRUE);
+				TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+					@Override public void afterCompletion(int status) {
+						TransactionSynchronizationManager.unbindResourceIfPossible(pendingWrites);
+					}
+				});
+			}
+			TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+				@Override public void afterCommit() {
+					update.run();
+				}
+			});
+		}
+
+		private ProductSearchIndex index() {
+			if(null == index) {
+				index = beanFactory.getBean(ProductSearchIndex.class);
+			}
+			return index;
+		}
+
+	}
+
+	private static List<Product> products(Object result) {
+		if(result instanceof Product) {
+			return Collections.singletonList((Product)result);
+		}
+
+		List<Product> products = new ArrayList<Product>();
+		for(Object product : (Iterable<?>)result) {
+			products.add((Product)product);
+		}
+		return products;
+	}
+
+	private static List<Long> ids(Object deleted) {
+		if(deleted instanceof Long) {
+			return Collections.singletonList((Long)deleted);
+		}
+		if(deleted instanceof Product) {
+			return Collections.singletonList(((Product)deleted).getId());
+		}
+
+		List<Long> ids = new ArrayList<Long>();
+		for(Object product : (Iterable<?>)deleted) {
+			ids.add(((Product)product).getId());
+		}
+		return ids;
+	}
+
+}
@@ -0,0 +1,110 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jpa;
+
+import net.sf.ehcache.CacheManager;
+import net.sf.ehcache.Ehcache;
+import org.springframework.data.rest.tck.jpa.domain.Product;
+import org.springframework.util.Assert;
+
+/**
+ * Hit and miss counts of the second-level cache regions configured in {@literal ehcache-tck.xml}, available with the
+ * {@value JpaConfig#CACHE_PROFILE} profile active.
+ */
+public class SecondLevelCache {
+
+	public static final String PRODUCT_REGION            = Product.class.getName();
+	public static final String PRODUCT_ATTRIBUTES_REGION = PRODUCT_REGION + ".attributes";
+	public static final String QUERY_REGION              = "org.hibernate.cache.internal.StandardQueryCache";
+
+	private final CacheManager cacheManager;
+
+	public SecondLevelCache(CacheManager cacheManager) {
+		Assert.notNull(cacheManager, "CacheManager must not be null!");
+		this.cacheManager = cacheManager;
+	}
+
+	/**
+	 * Returns the number of lookups in the given region that were answered from the cache.
+	 *
+	 * @param region
+	 *     must not be {@literal null}.
+	 *
+	 * @return
+	 */
+	public long getHits(String region) {
+		return cache(region).getStatistics().getCacheHits();
+	}
+
+	/**
+	 * Returns the number of lookups in the given region that had to go to the database.
+	 *
+	 * @param region
+	 *     must not be {@literal null}.
+	 *
+	 * @return
+	 */
+	public long getMisses(String region) {
+		return cache(region).getStatistics().getCacheMisses();
+	}
+
+	/**
+	 * Returns the number of entries evicted from the given region to stay within its bounds.
+	 *
+	 * @param region
+	 *     must not be {@literal null}.
+	 *
+	 * @return
+	 */
+	public long getEvictions(String region) {
+		return cache(region).getStatistics().getEvictionCount();
+	}
+
+	/**
+	 * Resets the hit, miss and eviction counts of all regions.
+	 */
+	public void clearStatistics() {
+		for(String name : cacheManager.getCacheNames()) {
+			cacheManager.getEhcache(name).clearStatistics();
+		}
+	}
+
+	/**
+	 * Removes all entries from all regions, e.g. after rows have been written bypassing JPA.
+	 */
+	public void evictAll() {
+		cacheManager.clearAll();
+	}
+
+	private Ehcache cache(String region) {
+		Ehcache cache = cacheManager.getEhcache(region);
+		Assert.notNull(cache, "No cache region named " + region);
+		return cache;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		return String.format("products %d/%d, attributes %d/%d, queries %d/%d (hits/misses)",
+		                     getHits(PRODUCT_REGION), getMisses(PRODUCT_REGION),
+		                     getHits(PRODUCT_ATTRIBUTES_REGION), getMisses(PRODUCT_ATTRIBUTES_REGION),
+		                     getHits(QUERY_REGION), getMisses(QUERY_REGION));
+	}
+
+}
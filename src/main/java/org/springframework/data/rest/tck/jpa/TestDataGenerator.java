@@ -0,0 +1,323 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jpa;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
+import org.springframework.data.rest.tck.jpa.domain.Product;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.util.Assert;
+
+/**
+ * Generates a reproducible, arbitrarily large data set of customers, addresses, products, orders and line items.
+ * <p/>
+ * Rows are written through batched JDBC inserts with explicitly assigned identifiers rather than through the
+ * repositories, so that 10^3 to 10^7 customers can be loaded in reasonable time. The same seed and scale always
+ * produce the same data.
+ */
+@Component
+public class TestDataGenerator {
+
+	public static final int CUSTOMERS_PER_SCALE = 1000;
+
+	private static final Logger LOG = LoggerFactory.getLogger(TestDataGenerator.class);
+
+	private static final String[] FIRSTNAMES = {"John", "Jane", "Dave", "Carol", "Oliver", "Jon", "Mark", "Thomas",
+			"Maria", "Sarah", "Tim", "Anna", "Peter", "Laura", "Chris", "Eva"};
+	private static final String[] LASTNAMES = {"Doe", "Smith", "Miller", "Brown", "Taylor", "Wilson", "Moore",
+			"Clark", "Lewis", "Walker", "Young", "Allen", "King", "Wright", "Hill", "Green"};
+	private static final String[] CITIES = {"Univille", "Springfield", "Dresden", "St. Louis", "London", "Oslo"};
+	private static final String[] COUNTRIES = {"USA", "Germany", "UK", "Norway"};
+	private static final String[] ATTRIBUTE_KEYS = {"color", "size", "material", "connector"};
+	private static final String[][] ATTRIBUTE_VALUES = {
+			{"red", "green", "blue", "black", "white", "silver"},
+			{"XS", "S", "M", "L", "XL"},
+			{"steel", "plastic", "wood", "cotton", "leather"},
+			{"plug", "socket", "usb", "none"}
+	};
+	private static final String[] PRODUCT_NOUNS = {"Knife", "Lunchbox", "Lamp", "Chair", "Shirt", "Cable", "Mug",
+			"Kettle", "Backpack", "Notebook"};
+	private static final String[] DESCRIPTION_WORDS = {"fabulous", "vintage", "durable", "compact", "complete",
+			"with", "thermos", "cuts", "through", "anything", "handmade", "classic", "portable", "limited", "edition"};
+
+	private final JdbcTemplate jdbc;
+	private final Environment env;
+	private SecondLevelCache cache;
+	private ProductSearchIndex searchIndex;
+	private int batchSize = 1000;
+
+	@Autowired
+	public TestDataGenerator(DataSource dataSource, Environment env) {
+		this.jdbc = new JdbcTemplate(dataSource);
+		this.env = env;
+	}
+
+	/**
+	 * Sets the second-level cache to evict after generating, as the generated rows bypass JPA.
+	 *
+	 * @param cache
+	 */
+	@Autowired(required = false)
+	public void setSecondLevelCache(SecondLevelCache cache) {
+		this.cache = cache;
+	}
+
+	/**
+	 * Sets the product search index to invalidate after generating, as the generated rows bypass the repository.
+	 *
+	 * @param searchIndex
+	 */
+	@Autowired(required = false)
+	public void setProductSearchIndex(ProductSearchIndex searchIndex) {
+		this.searchIndex = searchIndex;
+	}
+
+	/**
+	 * Sets the number of rows sent to the database per JDBC batch. Defaults to 1000.
+	 *
+	 * @param batchSize
+	 *     must be greater than zero.
+	 */
+	public void setBatchSize(int batchSize) {
+		Assert.isTrue(batchSize > 0, "Batch size must be greater than zero!");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Generates {@code scale * }{@value #CUSTOMERS_PER_SCALE} customers and a proportional catalogue of products, plus
+	 * orders and line items for them.
+	 *
+	 * @param seed
+	 *     the seed for the random number generator.
+	 * @param scale
+	 *     must be greater than zero.
+	 */
+	public void generate(long seed, int scale) {
+		Assert.isTrue(scale > 0, "Scale must be greater than zero!");
+
+		long start = System.currentTimeMillis();
+		Random random = new Random(seed);
+		Ids ids = new Ids();
+
+		long customerCount = (long)scale * CUSTOMERS_PER_SCALE;
+		long productCount = Math.max(10, customerCount / 10);
+
+		LOG.info("Generating {} customers and {} products (seed {})...", customerCount, productCount, seed);
+
+		long[] productIds = generateProducts(random, ids, (int)productCount);
+		generateCustomers(random, ids, customerCount, productIds);
+
+		if(null != cache) {
+			cache.evictAll();
+		}
+		if(null != searchIndex) {
+			searchIndex.invalidate();
+		}
+
+		LOG.info("Generated data in {}ms", System.currentTimeMillis() - start);
+	}
+
+	private long[] generateProducts(Random random, Ids ids, int count) {
+		Batch products = new Batch("insert into Product (id, name, description, price) values (?, ?, ?, ?)");
+		Batch attributes = new Batch(
+				"insert into Product_attributes (Product_id, attributes_KEY, attributes) values (?, ?, ?)");
+
+		long[] productIds = new long[count];
+
+		for(int i = 0; i < count; i++) {
+			long id = productIds[i] = ids.next("Product");
+			String noun = pick(random, PRODUCT_NOUNS);
+			products.add(id,
+			             noun + " " + id,
+			             String.format("The %s %s %s %s.", pick(random, DESCRIPTION_WORDS), pick(random, DESCRIPTION_WORDS),
+			                           noun.toLowerCase(), pick(random, DESCRIPTION_WORDS)),
+			             priceOf(id));
+
+			for(int k = 0; k < ATTRIBUTE_KEYS.length; k++) {
+				if(random.nextBoolean()) {
+					attributes.add(id, ATTRIBUTE_KEYS[k], pick(random, ATTRIBUTE_VALUES[k]));
+				}
+			}
+
+			if(products.size() >= batchSize) {
+				products.flush();
+				attributes.flush();
+			}
+		}
+
+		products.flush();
+		attributes.flush();
+
+		return productIds;
+	}
+
+	private void generateCustomers(Random random, Ids ids, long count, long[] productIds) {
+		Batch addresses = new Batch("insert into Address (id, street, city, country) values (?, ?, ?, ?)");
+		Batch customers = new Batch(
+				"insert into Customer (id, firstname, lastname, email, email_normalized) values (?, ?, ?, ?, ?)");
+		Batch customerAddresses = new Batch("insert into Customer_Address (Customer_id, addresses_id) values (?, ?)");
+		Batch orders = new Batch(
+				"insert into Orders (id, customer_id, billingAddress_id, shippingAddress_id) values (?, ?, ?, ?)");
+		Batch lineItems = new Batch(
+				"insert into LineItem (id, product_id, price, amount, order_id) values (?, ?, ?, ?, ?)");
+
+		for(long i = 0; i < count; i++) {
+			long customerId = ids.next("Customer");
+			String firstname = pick(random, FIRSTNAMES);
+			String lastname = pick(random, LASTNAMES);
+			String email = String.format("%s.%s.%d@example.com", firstname, lastname, customerId).toLowerCase();
+			customers.add(customerId, firstname, lastname, email, email);
+
+			Object[] address = null;
+			for(int a = 1 + random.nextInt(2); a > 0; a--) {
+				long addressId = ids.next("Address");
+				address = new Object[]{(random.nextInt(999) + 1) + " W " + (random.nextInt(99) + 1) + " Street",
+						pick(random, CITIES),
+						pick(random, COUNTRIES)};
+				addresses.add(addressId, address[0], address[1], address[2]);
+				customerAddresses.add(customerId, addressId);
+			}
+
+			// Orders hold a copy of the customer's address, just like Order's constructor does
+			for(int o = random.nextInt(5); o > 0; o--) {
+				long orderId = ids.next("Orders");
+				long shippingId = ids.next("Address");
+				addresses.add(shippingId, address[0], address[1], address[2]);
+				orders.add(orderId, customerId, null, shippingId);
+
+				for(int l = 1 + random.nextInt(4); l > 0; l--) {
+					long productId = productIds[random.nextInt(productIds.length)];
+					lineItems.add(ids.next("LineItem"), productId, priceOf(productId), 1 + random.nextInt(5), orderId);
+				}
+			}
+
+			if(customers.size() >= batchSize) {
+				flush(addresses, customers, customerAddresses, orders, lineItems);
+			}
+		}
+
+		flush(addresses, customers, customerAddresses, orders, lineItems);
+	}
+
+	private static void flush(Batch... batches) {
+		// Flushed in foreign key order
+		for(Batch batch : batches) {
+			batch.flush();
+		}
+	}
+
+	private static String pick(Random random, String[] values) {
+		return values[random.nextInt(values.length)];
+	}
+
+	/**
+	 * Derives a {@link Product}'s price from its id, so line items can carry the price of their product without the
+	 * catalogue being held in memory.
+	 */
+	private static BigDecimal priceOf(long productId) {
+		return BigDecimal.valueOf(100 + (productId * 7919) % 99900, 2);
+	}
+
+	/**
+	 * Rows for a single insert statement, sent to the database as one JDBC batch on {@link #flush()}.
+	 */
+	private class Batch {
+
+		private final String sql;
+		private final List<Object[]> rows = new ArrayList<Object[]>();
+
+		Batch(String sql) {
+			this.sql = sql;
+		}
+
+		void add(Object... row) {
+			rows.add(row);
+		}
+
+		int size() {
+			return rows.size();
+		}
+
+		void flush() {
+			for(int i = 0; i < rows.size(); i += batchSize) {
+				jdbc.batchUpdate(sql, rows.subList(i, Math.min(rows.size(), i + batchSize)));
+			}
+			rows.clear();
+		}
+	}
+
+	/**
+	 * Hands out identifiers matching the id mapping in use. By default they continue from the current maximum per table;
+	 * HSQL moves an identity column past explicitly inserted values, so later inserts through JPA don't collide with the
+	 * generated rows. With the {@value JpaConfig#BATCH_PROFILE} profile active they are drawn in blocks from the shared
+	 * pooled sequence instead.
+	 */
+	private class Ids {
+
+		private final boolean pooled = env.acceptsProfiles(JpaConfig.BATCH_PROFILE);
+		private final Map<String, Long> last = new HashMap<String, Long>();
+		private long next, hi;
+
+		long next(String table) {
+			if(pooled) {
+				return nextPooled();
+			}
+
+			Long id = last.get(table);
+			id = (null == id ? max(table) : id) + 1;
+			last.put(table, id);
+			return id;
+		}
+
+		/**
+		 * Interprets the sequence value the same way Hibernate's pooled optimizer does: a value of {@code hi} reserves the
+		 * ids from {@code hi - allocation size} up to, but excluding, {@code hi}.
+		 */
+		private long nextPooled() {
+			if(next >= hi) {
+				hi = nextSequenceValue();
+				if(hi < JpaConfig.ID_ALLOCATION_SIZE) {
+					// The sequence's initial value, which does not reserve a block by itself
+					hi = nextSequenceValue();
+				}
+				next = hi - JpaConfig.ID_ALLOCATION_SIZE;
+			}
+			return next++;
+		}
+
+		private long nextSequenceValue() {
+			return jdbc.queryForObject("call next value for " + JpaConfig.ID_SEQUENCE, Long.class);
+		}
+
+		private long max(String table) {
+			Long max = jdbc.queryForObject("select max(id) from " + table, Long.class);
+			return null == max ? 0 : max;
+		}
+
+	}
+
+}
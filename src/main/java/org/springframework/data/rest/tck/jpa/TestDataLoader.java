@@ -7,6 +7,7 @@ import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.env.Environment;
 import org.springframework.data.rest.tck.jpa.domain.Account;
 import org.springframework.data.rest.tck.jpa.domain.Address;
 import org.springframework.data.rest.tck.jpa.domain.Customer;
@@ -25,7 +26,12 @@ import org.springframework.data.rest.tck.jpa.repository.UserRepository;
 import org.springframework.stereotype.Component;
 
 /**
+ * Loads the fixed set of domain objects the TCK tests assert against. Setting the {@literal tck.data.scale} property
+ * adds {@code scale * 1000} generated customers (with addresses, orders and line items) and a proportional product
+ * catalogue on top, seeded by {@literal tck.data.seed}.
+ *
  * @author Jon Brisbin
+ * @see TestDataGenerator
  */
 @Component
 public class TestDataLoader {
@@ -38,6 +44,8 @@ public class TestDataLoader {
   private final LineItemRepository lineItems;
   private final UserRepository users;
   private final AccountRepository accounts;
+  private final TestDataGenerator generator;
+  private final Environment env;
 
   @Autowired
   public TestDataLoader(CustomerRepository customers,
@@ -46,7 +54,9 @@ public class TestDataLoader {
                         OrderRepository orders,
                         LineItemRepository lineItems, 
                         UserRepository users, 
-                        AccountRepository accounts) {
+                        AccountRepository accounts,
+                        TestDataGenerator generator,
+                        Environment env) {
     this.customers = customers;
     this.addresses = addresses;
     this.products = products;
@@ -54,6 +64,8 @@ public class TestDataLoader {
     this.lineItems = lineItems;
     this.users = users;
     this.accounts = accounts;
+    this.generator = generator;
+    this.env = env;
   }
 
   public void loadData() {
@@ -66,6 +78,11 @@ public class TestDataLoader {
     for(int i = 0; i < 2; i++) {
       saveOrder(customers.get(i), new Address("123 W 1st Street", "Univille", "USA"), products.get(i));
     }
+
+    int scale = env.getProperty("tck.data.scale", Integer.class, 0);
+    if(scale > 0) {
+      generator.generate(env.getProperty("tck.data.seed", Long.class, 0L), scale);
+    }
   }
 
   private List<Customer> saveCustomers() {
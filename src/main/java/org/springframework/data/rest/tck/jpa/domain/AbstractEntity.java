@@ -15,10 +15,17 @@
  */
 package org.springframework.data.rest.tck.jpa.domain;
 
+import java.util.Date;
+import javax.persistence.Column;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
 import javax.persistence.MappedSuperclass;
+import javax.persistence.PrePersist;
+import javax.persistence.PreUpdate;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.Version;
 
 /**
  * Base class to derive entity classes from.
@@ -31,6 +38,22 @@ public class AbstractEntity {
   @Id
   @GeneratedValue(strategy = GenerationType.AUTO)
   private Long id;
+  /**
+   * Defaults to 0 in the database, too, so rows inserted through plain JDBC are versioned like the others.
+   */
+  @Version
+  @Column(columnDefinition = "bigint default 0 not null")
+  private long version;
+  /**
+   * Set when the entity is persisted and updated through JPA. Rows inserted through plain JDBC default to the time of
+   * their insertion.
+   */
+  @Temporal(TemporalType.TIMESTAMP)
+  @Column(updatable = false, columnDefinition = "timestamp default current_timestamp not null")
+  private Date createdDate;
+  @Temporal(TemporalType.TIMESTAMP)
+  @Column(columnDefinition = "timestamp default current_timestamp not null")
+  private Date lastModifiedDate;
 
   /**
    * Returns the identifier of the entity.
@@ -41,6 +64,44 @@ public class AbstractEntity {
     return id;
   }
 
+  /**
+   * Returns the version of the entity, which changes with every update written.
+   *
+   * @return the version
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Returns when the entity was created.
+   *
+   * @return the creation date, {@literal null} before the entity is persisted
+   */
+  public Date getCreatedDate() {
+    return createdDate;
+  }
+
+  /**
+   * Returns when the entity was last modified.
+   *
+   * @return the modification date, {@literal null} before the entity is persisted
+   */
+  public Date getLastModifiedDate() {
+    return lastModifiedDate;
+  }
+
+  @PrePersist
+  protected void onCreate() {
+    createdDate = new Date();
+    lastModifiedDate = createdDate;
+  }
+
+  @PreUpdate
+  protected void onUpdate() {
+    lastModifiedDate = new Date();
+  }
+
   /*
    * (non-Javadoc)
    * @see java.lang.Object#equals(java.lang.Object)
@@ -15,10 +15,12 @@
  */
 package org.springframework.data.rest.tck.jpa.domain;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
 import javax.persistence.ManyToOne;
+import javax.persistence.Version;
 
 /**
  *
@@ -31,6 +33,10 @@ public class Account {
 	@Id
 	@GeneratedValue
 	private Long id;
+
+	@Version
+	@Column(columnDefinition = "bigint default 0 not null")
+	private long version;
 	
 	private String name;
 	
@@ -15,7 +15,6 @@
  */
 package org.springframework.data.rest.tck.jpa.domain;
 
-import java.util.regex.Pattern;
 import javax.persistence.Column;
 import javax.persistence.Embeddable;
 
@@ -24,7 +23,8 @@ import com.fasterxml.jackson.databind.ser.std.ToStringSerializer;
 import org.springframework.util.Assert;
 
 /**
- * A value object abstraction of an email address.
+ * A value object abstraction of an email address. Besides the address as given, it stores its lower-case form in a
+ * column of its own, which is what addresses are looked up and kept unique by.
  *
  * @author Oliver Gierke
  */
@@ -32,10 +32,10 @@ import org.springframework.util.Assert;
 @Embeddable
 public class EmailAddress {
 
-  private static final String  EMAIL_REGEX = "^[_A-Za-z0-9-]+(\\.[_A-Za-z0-9-]+)*@[A-Za-z0-9]+(\\.[A-Za-z0-9]+)*(\\.[A-Za-z]{2,})$";
-  private static final Pattern PATTERN     = Pattern.compile(EMAIL_REGEX);
   @Column(name = "email")
   private String value;
+  @Column(name = "email_normalized", unique = true)
+  private String normalized;
 
   /**
    * Creates a new {@link EmailAddress} from the given string source.
@@ -46,6 +46,7 @@ public class EmailAddress {
   public EmailAddress(String emailAddress) {
     Assert.isTrue(isValid(emailAddress), "Invalid email address!");
     this.value = emailAddress;
+    this.normalized = normalize(emailAddress);
   }
 
   protected EmailAddress() {
@@ -56,13 +57,97 @@ public class EmailAddress {
    * Returns whether the given {@link String} is a valid {@link EmailAddress} which means you can safely instantiate
    * the
    * class.
+   * <p/>
+   * Valid addresses have a local part of dot-separated runs of letters, digits, {@literal _} and {@literal -}, and a
+   * domain of at least two dot-separated runs of letters and digits, the last of them at least two letters. The
+   * candidate is checked in a single pass, without backtracking, so the time taken grows linearly with its length.
    *
    * @param candidate
    *
    * @return
    */
   public static boolean isValid(String candidate) {
-    return candidate == null ? false : PATTERN.matcher(candidate).matches();
+    if(candidate == null) {
+      return false;
+    }
+
+    int length = candidate.length();
+    int i = 0;
+    int run = 0;
+
+    // Local part, up to the @
+    for(; i < length; i++) {
+      char c = candidate.charAt(i);
+      if(c == '@') {
+        break;
+      }
+      if(c == '.') {
+        if(run == 0) {
+          return false;
+        }
+        run = 0;
+      } else if(isLetter(c) || isDigit(c) || c == '_' || c == '-') {
+        run++;
+      } else {
+        return false;
+      }
+    }
+    if(i == length || run == 0) {
+      return false;
+    }
+
+    // Domain, after the @
+    int dots = 0;
+    boolean letters = true;
+    run = 0;
+    for(i++; i < length; i++) {
+      char c = candidate.charAt(i);
+      if(c == '.') {
+        if(run == 0) {
+          return false;
+        }
+        dots++;
+        run = 0;
+        letters = true;
+      } else if(isLetter(c)) {
+        run++;
+      } else if(isDigit(c)) {
+        run++;
+        letters = false;
+      } else {
+        return false;
+      }
+    }
+
+    return dots > 0 && run >= 2 && letters;
+  }
+
+  /**
+   * Returns the lower-case form of the given valid address. Only ASCII letters need to be considered, and addresses
+   * that are lower-case already are returned as they are.
+   */
+  private static String normalize(String emailAddress) {
+    for(int i = 0; i < emailAddress.length(); i++) {
+      char c = emailAddress.charAt(i);
+      if(c >= 'A' && c <= 'Z') {
+        char[] chars = emailAddress.toCharArray();
+        for(; i < chars.length; i++) {
+          if(chars[i] >= 'A' && chars[i] <= 'Z') {
+            chars[i] += 'a' - 'A';
+          }
+        }
+        return new String(chars);
+      }
+    }
+    return emailAddress;
+  }
+
+  private static boolean isLetter(char c) {
+    return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
   }
 
   /*
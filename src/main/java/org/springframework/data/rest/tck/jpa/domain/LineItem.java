@@ -15,11 +15,11 @@
  */
 package org.springframework.data.rest.tck.jpa.domain;
 
-import java.math.BigDecimal;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.ManyToOne;
 
+import org.hibernate.annotations.Type;
 import org.springframework.util.Assert;
 
 /**
@@ -31,10 +31,11 @@ import org.springframework.util.Assert;
 public class LineItem extends AbstractEntity {
 
   @ManyToOne
-  private Product    product;
+  private Product product;
+  @Type(type = MoneyType.NAME)
   @Column(nullable = false)
-  private BigDecimal price;
-  private int        amount;
+  private Money   price;
+  private int     amount;
 
   /**
    * Creates a new {@link LineItem} for the given {@link Product}.
@@ -67,7 +68,7 @@ public class LineItem extends AbstractEntity {
 
   }
 
-  public void setPrice(BigDecimal price) {
+  public void setPrice(Money price) {
     this.price = price;
   }
 
@@ -102,7 +103,7 @@ public class LineItem extends AbstractEntity {
    *
    * @return the price
    */
-  public BigDecimal getUnitPrice() {
+  public Money getUnitPrice() {
     return price;
   }
 
@@ -111,7 +112,7 @@ public class LineItem extends AbstractEntity {
    *
    * @return
    */
-  public BigDecimal getTotal() {
-    return price.multiply(BigDecimal.valueOf(amount));
+  public Money getTotal() {
+    return price.times(amount);
   }
 }
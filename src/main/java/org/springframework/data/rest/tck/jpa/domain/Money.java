@@ -0,0 +1,249 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jpa.domain;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.deser.std.StdScalarDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdScalarSerializer;
+import org.springframework.util.Assert;
+
+/**
+ * A value object abstraction of an amount of money, held as a {@code long} count of the currency's minor units (cents
+ * for {@literal USD}) rather than as a {@link BigDecimal}. Sums and products of prices are plain {@code long}
+ * arithmetic that allocates nothing but the result.
+ * <p/>
+ * It is immutable, and stored in a single {@code decimal} column by the {@link MoneyType}, and rendered as the same JSON
+ * number a {@link BigDecimal} of the currency's scale is rendered as. The currency isn't stored, all amounts are in
+ * {@link #DEFAULT_CURRENCY}.
+ */
+@JsonSerialize(using = Money.Serializer.class)
+@JsonDeserialize(using = Money.Deserializer.class)
+public final class Money implements Comparable<Money> {
+
+  public static final Currency DEFAULT_CURRENCY = Currency.getInstance("USD");
+
+  private final long     minorUnits;
+  private final Currency currency;
+
+  private Money(long minorUnits, Currency currency) {
+    this.minorUnits = minorUnits;
+    this.currency = currency;
+  }
+
+  /**
+   * Creates a new {@link Money} of the given amount in {@link #DEFAULT_CURRENCY}. Digits beyond the currency's minor
+   * units are rounded half-even.
+   *
+   * @param amount
+   *     must not be {@literal null}.
+   *
+   * @return
+   */
+  public static Money of(BigDecimal amount) {
+    Assert.notNull(amount, "Amount must not be null!");
+    return new Money(toMinorUnits(amount, DEFAULT_CURRENCY), DEFAULT_CURRENCY);
+  }
+
+  /**
+   * Creates a new {@link Money} of the given number of minor units in {@link #DEFAULT_CURRENCY}.
+   *
+   * @param minorUnits
+   *
+   * @return
+   */
+  public static Money ofMinorUnits(long minorUnits) {
+    return new Money(minorUnits, DEFAULT_CURRENCY);
+  }
+
+  /**
+   * Returns the sum of this and the given {@link Money}.
+   *
+   * @param other
+   *     must not be {@literal null} and of the same currency.
+   *
+   * @return
+   */
+  public Money plus(Money other) {
+    assertSameCurrency(other);
+    return new Money(addExact(minorUnits, other.minorUnits), currency);
+  }
+
+  /**
+   * Returns this minus the given {@link Money}.
+   *
+   * @param other
+   *     must not be {@literal null} and of the same currency.
+   *
+   * @return
+   */
+  public Money minus(Money other) {
+    assertSameCurrency(other);
+    return new Money(addExact(minorUnits, -other.minorUnits), currency);
+  }
+
+  /**
+   * Returns this multiplied by the given factor.
+   *
+   * @param factor
+   *
+   * @return
+   */
+  public Money times(int factor) {
+    long product = minorUnits * factor;
+    Assert.isTrue(factor == 0 || product / factor == minorUnits, "Money overflow!");
+    return new Money(product, currency);
+  }
+
+  /**
+   * Returns the number of minor units, e.g. cents, of this {@link Money}.
+   *
+   * @return
+   */
+  public long getMinorUnits() {
+    return minorUnits;
+  }
+
+  public Currency getCurrency() {
+    return currency;
+  }
+
+  /**
+   * Returns the amount as {@link BigDecimal} with the currency's number of fraction digits as scale.
+   *
+   * @return
+   */
+  public BigDecimal toBigDecimal() {
+    return BigDecimal.valueOf(minorUnits, currency.getDefaultFractionDigits());
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Comparable#compareTo(java.lang.Object)
+   */
+  @Override
+  public int compareTo(Money other) {
+    assertSameCurrency(other);
+    return minorUnits < other.minorUnits ? -1 : (minorUnits == other.minorUnits ? 0 : 1);
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#equals(java.lang.Object)
+   */
+  @Override
+  public boolean equals(Object obj) {
+    if(this == obj) {
+      return true;
+    }
+    if(!(obj instanceof Money)) {
+      return false;
+    }
+
+    Money that = (Money)obj;
+    return this.minorUnits == that.minorUnits && this.currency.equals(that.currency);
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#hashCode()
+   */
+  @Override
+  public int hashCode() {
+    return 31 * currency.hashCode() + (int)(minorUnits ^ (minorUnits >>> 32));
+  }
+
+  /*
+   * (non-Javadoc)
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    return toBigDecimal().toPlainString() + " " + currency.getCurrencyCode();
+  }
+
+  private void assertSameCurrency(Money other) {
+    Assert.notNull(other, "Money must not be null!");
+    Assert.isTrue(currency.equals(other.currency), "Currencies must match!");
+  }
+
+  private static long toMinorUnits(BigDecimal amount, Currency currency) {
+    return amount.setScale(currency.getDefaultFractionDigits(), RoundingMode.HALF_EVEN)
+                 .unscaledValue()
+                 .longValue();
+  }
+
+  private static long addExact(long x, long y) {
+    long sum = x + y;
+    Assert.isTrue(((x ^ sum) & (y ^ sum)) >= 0, "Money overflow!");
+    return sum;
+  }
+
+  /**
+   * Writes a {@link Money} as a JSON number with the currency's scale, e.g. {@code 499.00}.
+   */
+  public static class Serializer extends StdScalarSerializer<Money> {
+
+    public Serializer() {
+      super(Money.class);
+    }
+
+    @Override
+    public void serialize(Money value, JsonGenerator jgen, SerializerProvider provider) throws IOException {
+      jgen.writeNumber(value.toBigDecimal());
+    }
+
+  }
+
+  /**
+   * Reads a {@link Money} from a JSON number or string.
+   */
+  public static class Deserializer extends StdScalarDeserializer<Money> {
+
+    public Deserializer() {
+      super(Money.class);
+    }
+
+    @Override
+    public Money deserialize(JsonParser jp, DeserializationContext ctxt) throws IOException {
+      JsonToken token = jp.getCurrentToken();
+      if(token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT) {
+        return Money.of(jp.getDecimalValue());
+      }
+      if(token == JsonToken.VALUE_STRING) {
+        String text = jp.getText().trim();
+        try {
+          return Money.of(new BigDecimal(text));
+        } catch(NumberFormatException e) {
+          throw ctxt.weirdStringException(text, Money.class, "not a valid amount of money");
+        }
+      }
+      throw ctxt.mappingException(Money.class, token);
+    }
+
+  }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.jpa.domain;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+
+import org.hibernate.engine.spi.SessionImplementor;
+import org.hibernate.usertype.UserType;
+
+/**
+ * Maps a {@link Money} onto a single {@code decimal} column. As {@link Money} is immutable, Hibernate neither copies it
+ * for dirty checking nor merges detached state into it, but replaces the instance, so entities may share them.
+ */
+public class MoneyType implements UserType {
+
+  /**
+   * The name to refer to this type by in {@link org.hibernate.annotations.Type} annotations.
+   */
+  public static final String NAME = "org.springframework.data.rest.tck.jpa.domain.MoneyType";
+
+  private static final int[] SQL_TYPES = {Types.NUMERIC};
+
+  @Override
+  public int[] sqlTypes() {
+    return SQL_TYPES;
+  }
+
+  @Override
+  public Class<?> returnedClass() {
+    return Money.class;
+  }
+
+  @Override
+  public boolean equals(Object x, Object y) {
+    return x == y || (x != null && x.equals(y));
+  }
+
+  @Override
+  public int hashCode(Object x) {
+    return x.hashCode();
+  }
+
+  @Override
+  public Object nullSafeGet(ResultSet rs, String[] names, SessionImplementor session, Object owner)
+      throws SQLException {
+    BigDecimal amount = rs.getBigDecimal(names[0]);
+    return null == amount ? null : Money.of(amount);
+  }
+
+  @Override
+  public void nullSafeSet(PreparedStatement st, Object value, int index, SessionImplementor session)
+      throws SQLException {
+    if(null == value) {
+      st.setNull(index, Types.NUMERIC);
+    } else {
+      st.setBigDecimal(index, ((Money)value).toBigDecimal());
+    }
+  }
+
+  @Override
+  public Object deepCopy(Object value) {
+    return value;
+  }
+
+  @Override
+  public boolean isMutable() {
+    return false;
+  }
+
+  /**
+   * Caches the number of minor units, all amounts being in {@link Money#DEFAULT_CURRENCY}.
+   */
+  @Override
+  public Serializable disassemble(Object value) {
+    return null == value ? null : ((Money)value).getMinorUnits();
+  }
+
+  @Override
+  public Object assemble(Serializable cached, Object owner) {
+    return null == cached ? null : Money.ofMinorUnits((Long)cached);
+  }
+
+  @Override
+  public Object replace(Object original, Object target, Object owner) {
+    return original;
+  }
+
+}
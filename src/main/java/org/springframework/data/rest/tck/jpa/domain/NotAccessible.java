@@ -1,9 +1,11 @@
 package org.springframework.data.rest.tck.jpa.domain;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.GenerationType;
 import javax.persistence.Id;
+import javax.persistence.Version;
 
 /**
  * @author Jon Brisbin
@@ -14,6 +16,10 @@ public class NotAccessible {
 	@Id @GeneratedValue(strategy = GenerationType.IDENTITY)
 	private Long id;
 
+	@Version
+	@Column(columnDefinition = "bigint default 0 not null")
+	private long version;
+
 	public NotAccessible() {
 	}
 
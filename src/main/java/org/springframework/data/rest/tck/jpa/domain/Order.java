@@ -15,20 +15,25 @@
  */
 package org.springframework.data.rest.tck.jpa.domain;
 
-import java.math.BigDecimal;
 import java.util.HashSet;
 import java.util.Set;
 import javax.persistence.CascadeType;
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 
+import org.hibernate.Hibernate;
+import org.hibernate.annotations.Type;
 import org.springframework.util.Assert;
 
 /**
- * An order.
+ * An order. Its version is incremented whenever the order or the set of its line items changes, but not by the
+ * triggers declared in {@literal schema-tck.sql} that keep its total up to date, so the loaded order's version is the
+ * one in the database. Changes to a line item written through the line item itself change the order's total, but not
+ * its version.
  *
  * @author Oliver Gierke
  */
@@ -45,6 +50,14 @@ public class Order extends AbstractEntity {
   @OneToMany(cascade = CascadeType.ALL, orphanRemoval = true)
   @JoinColumn(name = "order_id")
   private Set<LineItem> lineItems = new HashSet<>();
+  /**
+   * Kept up to date by the database triggers declared in {@literal schema-tck.sql} whenever line items are inserted,
+   * changed or deleted, which is why JPA never writes it. {@link #add(LineItem)} and {@link #remove(LineItem)} keep this
+   * instance in line, and {@link #getTotal()} sums the line items again once they are loaded.
+   */
+  @Type(type = MoneyType.NAME)
+  @Column(insertable = false, updatable = false, columnDefinition = "decimal(19,2) default 0 not null")
+  private Money total = Money.ofMinorUnits(0);
 
   public Order(Customer customer,
                Address shippingAddress) {
@@ -71,7 +84,20 @@ public class Order extends AbstractEntity {
    * @param lineItem
    */
   public void add(LineItem lineItem) {
-    this.lineItems.add(lineItem);
+    if(this.lineItems.add(lineItem)) {
+      this.total = this.total.plus(lineItem.getTotal());
+    }
+  }
+
+  /**
+   * Removes the given {@link LineItem} from the {@link Order}.
+   *
+   * @param lineItem
+   */
+  public void remove(LineItem lineItem) {
+    if(this.lineItems.remove(lineItem)) {
+      this.total = this.total.minus(lineItem.getTotal());
+    }
   }
 
   /**
@@ -111,18 +137,21 @@ public class Order extends AbstractEntity {
   }
 
   /**
-   * Returns the total of the {@link Order}.
+   * Returns the total of the {@link Order}. Without loading its {@link LineItem}s, that is the total as of the time it
+   * was loaded plus the line items added and removed since. Once they are loaded, it is their sum, so it also follows
+   * line items removed through {@link #getLineItems()} and changes to their amounts and prices, before they are
+   * flushed as well as after.
    *
    * @return
    */
-  public BigDecimal getTotal() {
-
-    BigDecimal total = BigDecimal.ZERO;
-
-    for(LineItem item : lineItems) {
-      total = total.add(item.getTotal());
+  public Money getTotal() {
+    if(Hibernate.isInitialized(lineItems)) {
+      Money sum = Money.ofMinorUnits(0);
+      for(LineItem lineItem : lineItems) {
+        sum = sum.plus(lineItem.getTotal());
+      }
+      total = sum;
     }
-
     return total;
   }
 
@@ -24,6 +24,7 @@ import javax.persistence.Column;
 import javax.persistence.ElementCollection;
 import javax.persistence.Entity;
 
+import org.hibernate.annotations.Type;
 import org.springframework.util.Assert;
 
 /**
@@ -38,8 +39,9 @@ public class Product extends AbstractEntity {
 	private String name;
 	private String description;
 
+	@Type(type = MoneyType.NAME)
 	@Column(nullable = false)
-	private BigDecimal price;
+	private Money price;
 
 	@ElementCollection
 	private Map<String, String> attributes = new HashMap<String, String>();
@@ -67,7 +69,7 @@ public class Product extends AbstractEntity {
 		Assert.isTrue(BigDecimal.ZERO.compareTo(price) < 0, "Price must be greater than zero!");
 
 		this.name = name;
-		this.price = price;
+		this.price = Money.of(price);
 		this.description = description;
 	}
 
@@ -124,7 +126,7 @@ public class Product extends AbstractEntity {
 	 * 
 	 * @return
 	 */
-	public BigDecimal getPrice() {
+	public Money getPrice() {
 		return price;
 	}
 }
@@ -15,9 +15,11 @@
  */
 package org.springframework.data.rest.tck.jpa.domain;
 
+import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.GeneratedValue;
 import javax.persistence.Id;
+import javax.persistence.Version;
 
 /**
  *
@@ -29,6 +31,10 @@ public class User {
 	@Id
 	@GeneratedValue
 	private Long id;
+
+	@Version
+	@Column(columnDefinition = "bigint default 0 not null")
+	private long version;
 	private String firstname, lastname;
 	
 	protected User() {
@@ -15,8 +15,10 @@
  */
 package org.springframework.data.rest.tck.jpa.repository;
 
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
 import org.springframework.data.rest.tck.jpa.domain.Customer;
 import org.springframework.data.rest.tck.jpa.domain.EmailAddress;
 
@@ -28,13 +30,15 @@ import org.springframework.data.rest.tck.jpa.domain.EmailAddress;
 public interface CustomerRepository extends CrudRepository<Customer, Long> {
 
   /**
-   * Returns the customer with the given {@link EmailAddress}.
+   * Returns the customer with the given {@link EmailAddress}, ignoring case. The address is looked up in the unique
+   * lower-case column of {@link EmailAddress} rather than compared as given.
    *
    * @param emailAddress
-   *     the {@link EmailAddress} to search for.
+   *     the email address to search for.
    *
    * @return
    */
-  Customer findByEmailAddress(EmailAddress emailAddress);
+  @Query("select c from Customer c where c.emailAddress.normalized = lower(:emailAddress)")
+  Customer findByEmailAddress(@Param("emailAddress") String emailAddress);
 
 }
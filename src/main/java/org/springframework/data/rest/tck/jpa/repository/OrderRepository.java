@@ -17,6 +17,7 @@ package org.springframework.data.rest.tck.jpa.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.PagingAndSortingRepository;
 import org.springframework.data.repository.query.Param;
@@ -31,15 +32,47 @@ import org.springframework.data.rest.tck.jpa.domain.Order;
 public interface OrderRepository extends PagingAndSortingRepository<Order, Long> {
 
   /**
-   * Returns all {@link Order}s of the given {@link Customer}.
+   * Fetches an {@link Order}'s customer, addresses, line items and their products along with it.
+   */
+  String FETCH_ALL = "select distinct o from Order o " +
+      "join fetch o.customer " +
+      "join fetch o.shippingAddress " +
+      "left join fetch o.billingAddress " +
+      "left join fetch o.lineItems li " +
+      "left join fetch li.product ";
+
+  /**
+   * Returns all {@link Order}s of the given {@link Customer} with their line items and products prefetched.
    *
    * @param customer
    *
    * @return
    */
-  List<Order> findByCustomer(Customer customer);
+  @Query(FETCH_ALL + "where o.customer = :customer")
+  List<Order> findByCustomer(@Param("customer") Customer customer);
 
-  @Query("select o from Order o where o.customer.id = :customerId")
+  /**
+   * Returns all {@link Order}s of the {@link Customer} with the given id with their line items and products
+   * prefetched.
+   *
+   * @param customerId
+   *
+   * @return
+   */
+  @Query(FETCH_ALL + "where o.customer.id = :customerId")
   List<Order> findByCustomerId(@Param("customerId") Long customerId);
 
+  /**
+   * Returns the {@link Order}s with an id greater than the given one in id order. Only the page size of the given
+   * {@link Pageable} is meant to be used: paging through all orders by passing the last id of the previous page costs
+   * the same index range scan for every page, where an offset has the database skip all previous rows.
+   *
+   * @param after
+   * @param pageable
+   *
+   * @return
+   */
+  @Query("select o from Order o where o.id > :after order by o.id")
+  List<Order> findAfter(@Param("after") Long after, Pageable pageable);
+
 }
@@ -16,10 +16,12 @@
 package org.springframework.data.rest.tck.jpa.repository;
 
 import java.util.List;
+import javax.persistence.QueryHint;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.CrudRepository;
 import org.springframework.data.rest.tck.jpa.domain.Product;
 
@@ -30,6 +32,11 @@ import org.springframework.data.rest.tck.jpa.domain.Product;
  */
 public interface ProductRepository extends CrudRepository<Product, Long> {
 
+  /**
+   * Hint to keep a query's results in Hibernate's query cache, which is only enabled in the {@literal cache} profile.
+   */
+  String CACHEABLE = "org.hibernate.cacheable";
+
   /**
    * Returns a {@link Page} of {@link Product}s having a description which contains the given snippet.
    *
@@ -38,6 +45,7 @@ public interface ProductRepository extends CrudRepository<Product, Long> {
    *
    * @return
    */
+  @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
   Page<Product> findByDescriptionContaining(String description, Pageable pageable);
 
   /**
@@ -48,5 +56,6 @@ public interface ProductRepository extends CrudRepository<Product, Long> {
    * @return
    */
   @Query("select p from Product p where p.attributes[?1] = ?2")
+  @QueryHints(@QueryHint(name = CACHEABLE, value = "true"))
   List<Product> findByAttributeAndValue(String attribute, String value);
 }
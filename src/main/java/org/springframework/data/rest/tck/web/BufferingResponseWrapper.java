@@ -0,0 +1,165 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import javax.servlet.ServletOutputStream;
+import javax.servlet.http.HttpServletResponse;
+import javax.servlet.http.HttpServletResponseWrapper;
+
+/**
+ * Holds the body back until {@link #finish()}, so filters can keep a copy of it, unless it outgrows the maximum size
+ * given or the response is flushed. From then on the body is written through, to the stream returned by
+ * {@link #openWriteThrough()}.
+ */
+class BufferingResponseWrapper extends HttpServletResponseWrapper {
+
+	private final ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+	private final int                   maxSize;
+	private ServletOutputStream outputStream;
+	private PrintWriter         writer;
+	private OutputStream        writeThrough;
+
+	BufferingResponseWrapper(HttpServletResponse response, int maxSize) {
+		super(response);
+		this.maxSize = maxSize;
+	}
+
+	@Override public ServletOutputStream getOutputStream() throws IOException {
+		if(null == outputStream) {
+			outputStream = new ServletOutputStream() {
+				@Override public void write(int b) throws IOException {
+					write(new byte[]{(byte)b}, 0, 1);
+				}
+
+				@Override public void write(byte[] bytes, int offset, int length) throws IOException {
+					if(null == writeThrough && buffer.size() + length > maxSize) {
+						writeThrough();
+					}
+					if(null != writeThrough) {
+						writeThrough.write(bytes, offset, length);
+					} else {
+						buffer.write(bytes, offset, length);
+					}
+				}
+
+				@Override public void flush() throws IOException {
+					// Serializers flush as they go, which only counts once the body is written through
+					if(null != writeThrough) {
+						writeThrough.flush();
+					}
+				}
+			};
+		}
+		return outputStream;
+	}
+
+	@Override public PrintWriter getWriter() throws IOException {
+		if(null == writer) {
+			writer = new PrintWriter(new OutputStreamWriter(getOutputStream(), getCharacterEncoding()));
+		}
+		return writer;
+	}
+
+	@Override public void setContentLength(int length) {
+		// Set once the body is complete
+	}
+
+	@Override public void flushBuffer() throws IOException {
+		if(null != writer) {
+			writer.flush();
+		}
+		writeThrough();
+		super.flushBuffer();
+	}
+
+	@Override public void sendError(int status) throws IOException {
+		writeThrough();
+		super.sendError(status);
+	}
+
+	@Override public void sendError(int status, String message) throws IOException {
+		writeThrough();
+		super.sendError(status, message);
+	}
+
+	@Override public void reset() {
+		super.reset();
+		buffer.reset();
+	}
+
+	@Override public void resetBuffer() {
+		super.resetBuffer();
+		buffer.reset();
+	}
+
+	private void writeThrough() throws IOException {
+		if(null == writeThrough) {
+			writeThrough = openWriteThrough();
+			buffer.writeTo(writeThrough);
+			buffer.reset();
+		}
+	}
+
+	/**
+	 * Returns the stream to write the body through to once it can't be held back any longer.
+	 */
+	protected OutputStream openWriteThrough() throws IOException {
+		return getResponse().getOutputStream();
+	}
+
+	/**
+	 * Completes the body written through, once the request has been handled.
+	 */
+	protected void closeWriteThrough(OutputStream writeThrough) throws IOException {
+		writeThrough.flush();
+	}
+
+	/**
+	 * Returns the body held back, without writing it.
+	 *
+	 * @return the body, or {@literal null} if it was written through already and can't be kept.
+	 */
+	byte[] release() throws IOException {
+		if(null != writer) {
+			writer.flush();
+		}
+		if(null != writeThrough) {
+			closeWriteThrough(writeThrough);
+			return null;
+		}
+		return buffer.toByteArray();
+	}
+
+	/**
+	 * Writes the body held back.
+	 *
+	 * @return the body, or {@literal null} if it was written through already and can't be kept.
+	 */
+	byte[] finish() throws IOException {
+		byte[] body = release();
+		if(null != body) {
+			getResponse().setContentLength(body.length);
+			getResponse().getOutputStream().write(body);
+		}
+		return body;
+	}
+
+}
@@ -0,0 +1,346 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.servlet.http.HttpServletRequest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.HibernateException;
+import org.hibernate.JDBCException;
+import org.hibernate.Session;
+import org.hibernate.jdbc.ReturningWork;
+import org.hibernate.jdbc.Work;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.jpa.JpaConfig;
+import org.springframework.data.rest.tck.jpa.domain.Address;
+import org.springframework.data.rest.tck.jpa.domain.Customer;
+import org.springframework.data.rest.tck.jpa.domain.LineItem;
+import org.springframework.data.rest.tck.jpa.domain.Money;
+import org.springframework.data.rest.tck.jpa.domain.Order;
+import org.springframework.data.rest.tck.jpa.domain.Product;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Controller;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+import org.springframework.web.util.UriComponentsBuilder;
+
+/**
+ * Creates and updates any number of {@link Order}s, with their {@link LineItem}s, in a single request and a single
+ * transaction. The body is either a JSON array of orders or newline-delimited JSON ({@value #NDJSON}), one order per
+ * line. An order is written the way it is {@literal POST}ed to {@literal /order}, with its line items embedded:
+ * <pre>
+ * {"customer": {"href": ...}, "shippingAddress": {"href": ...}, "billingAddress": {"href": ...},
+ *  "lineItems": [{"product": {"href": ...}, "price": 100.0, "amount": 1}]}
+ * </pre>
+ * An order carrying the {@literal href} of an existing {@link Order} instead has its line items replaced by the given
+ * ones; its customer and addresses stay as they are. A line item's price defaults to its product's, its amount to 1.
+ * <p/>
+ * Records are read one at a time and written in chunks of {@value JpaConfig#BATCH_SIZE} orders, each flushed and
+ * cleared from the persistence context at once, so the inserts go to the database in JDBC batches with the
+ * {@value JpaConfig#BATCH_PROFILE} profile active. Each chunk is written after a savepoint; should the database reject
+ * a record of it, say because a product it refers to was deleted meanwhile, the chunk is rolled back to the savepoint
+ * and written again record by record. The response lists a result per record, in request order: its status,
+ * {@literal 201} for a created and {@literal 200} for an updated order, with the order's {@literal href}, or
+ * {@literal 400} or {@literal 404} with a message for a record that was skipped, or {@literal 409} for one the
+ * database rejected. Failed records don't keep the others from being written. A body that isn't well-formed JSON is
+ * rejected as a whole, with nothing written.
+ */
+@Controller
+public class BulkOrderController {
+
+	public static final String NDJSON = "application/x-ndjson";
+
+	private final ObjectMapper        mapper = new ObjectMapper();
+	private final TransactionTemplate tx;
+
+	@PersistenceContext
+	private EntityManager       em;
+	@Autowired(required = false)
+	private LastModifiedTracker lastModifiedTracker;
+
+	@Autowired
+	public BulkOrderController(PlatformTransactionManager transactionManager) {
+		this.tx = new TransactionTemplate(transactionManager);
+	}
+
+	@RequestMapping(value = "/order/bulk",
+	                method = RequestMethod.POST,
+	                consumes = {"application/json", NDJSON})
+	@ResponseBody
+	public Map<String, Object> importOrders(HttpServletRequest request) throws IOException {
+		final JsonParser parser = mapper.getFactory().createParser(request.getInputStream());
+		final String orderBase = ServletUriComponentsBuilder.fromContextPath(request)
+		                                                    .path("/order/")
+		                                                    .build()
+		                                                    .toUriString();
+
+		List<Map<String, Object>> results;
+		try {
+			results = tx.execute(new TransactionCallback<List<Map<String, Object>>>() {
+				@Override public List<Map<String, Object>> doInTransaction(TransactionStatus status) {
+					try {
+						return importOrders(parser, orderBase);
+					} catch(IOException e) {
+						throw new MalformedBodyException(e);
+					}
+				}
+			});
+		} catch(MalformedBodyException e) {
+			throw (IOException)e.getCause();
+		} finally {
+			parser.close();
+		}
+		if(null != lastModifiedTracker) {
+			lastModifiedTracker.modified(Order.class, LineItem.class);
+		}
+
+		return Collections.<String, Object>singletonMap("results", results);
+	}
+
+	@ExceptionHandler(JsonProcessingException.class)
+	@ResponseStatus(HttpStatus.BAD_REQUEST)
+	@ResponseBody
+	public Map<String, Object> malformedBody(JsonProcessingException e) {
+		return Collections.<String, Object>singletonMap("message", e.getOriginalMessage());
+	}
+
+	private List<Map<String, Object>> importOrders(JsonParser parser, String orderBase) throws IOException {
+		List<Map<String, Object>> results = new ArrayList<Map<String, Object>>();
+		List<JsonNode> chunk = new ArrayList<JsonNode>(JpaConfig.BATCH_SIZE);
+
+		JsonToken token = parser.nextToken();
+		boolean array = token == JsonToken.START_ARRAY;
+		if(array) {
+			token = parser.nextToken();
+		}
+
+		while(null != token && !(array && token == JsonToken.END_ARRAY)) {
+			chunk.add(parser.<JsonNode>readValueAsTree());
+			token = parser.nextToken();
+
+			if(chunk.size() == JpaConfig.BATCH_SIZE) {
+				results.addAll(importChunk(chunk, orderBase));
+				chunk.clear();
+			}
+		}
+		if(!chunk.isEmpty()) {
+			results.addAll(importChunk(chunk, orderBase));
+		}
+
+		return results;
+	}
+
+	/**
+	 * Writes a chunk of records and flushes them together. Should the database reject any of them, the chunk is rolled
+	 * back to the savepoint taken before it and written again one record at a time, each with a savepoint of its own, so
+	 * only the records the database rejects fail.
+	 */
+	private List<Map<String, Object>> importChunk(List<JsonNode> records, String orderBase) {
+		Session session = em.unwrap(Session.class);
+		Savepoint savepoint = setSavepoint(session);
+		try {
+			List<Map<String, Object>> results = new ArrayList<Map<String, Object>>(records.size());
+			Map<String, Object> resolved = new HashMap<String, Object>();
+			for(JsonNode record : records) {
+				results.add(importOrder(record, resolved, orderBase));
+			}
+			session.flush();
+			return results;
+		} catch(HibernateException e) {
+			rollback(session, savepoint);
+		} finally {
+			session.clear();
+		}
+
+		List<Map<String, Object>> results = new ArrayList<Map<String, Object>>(records.size());
+		for(JsonNode record : records) {
+			savepoint = setSavepoint(session);
+			Map<String, Object> result;
+			try {
+				result = importOrder(record, new HashMap<String, Object>(), orderBase);
+				session.flush();
+			} catch(HibernateException e) {
+				rollback(session, savepoint);
+				result = rejected(e);
+			} finally {
+				session.clear();
+			}
+			results.add(result);
+		}
+		return results;
+	}
+
+	private Map<String, Object> importOrder(JsonNode record, Map<String, Object> resolved, String orderBase) {
+		Map<String, Object> result = new LinkedHashMap<String, Object>();
+		try {
+			List<LineItem> lineItems = lineItems(record.path("lineItems"), resolved);
+
+			Order order;
+			HttpStatus status;
+			if(record.has("href")) {
+				order = resolve(Order.class, "order", record.path("href"), resolved);
+				order.getLineItems().clear();
+				status = HttpStatus.OK;
+			} else {
+				order = new Order(resolve(Customer.class, "customer", record.path("customer").path("href"), resolved),
+				                  resolve(Address.class, "shippingAddress", record.path("shippingAddress").path("href"), resolved),
+				                  record.has("billingAddress")
+				                  ? resolve(Address.class, "billingAddress", record.path("billingAddress").path("href"), resolved)
+				                  : null);
+				status = HttpStatus.CREATED;
+			}
+
+			for(LineItem lineItem : lineItems) {
+				order.add(lineItem);
+			}
+			if(status == HttpStatus.CREATED) {
+				em.unwrap(Session.class).persist(order);
+			}
+
+			result.put("status", status.value());
+			result.put("href", orderBase + order.getId());
+		} catch(InvalidRecordException e) {
+			result.put("status", e.status.value());
+			result.put("message", e.getMessage());
+		} catch(IllegalArgumentException e) {
+			result.put("status", HttpStatus.BAD_REQUEST.value());
+			result.put("message", e.getMessage());
+		}
+		return result;
+	}
+
+	/**
+	 * Creates all {@link LineItem}s of a record up front, so an invalid one rejects the record before anything of it is
+	 * written.
+	 */
+	private List<LineItem> lineItems(JsonNode records, Map<String, Object> resolved) {
+		List<LineItem> lineItems = new ArrayList<LineItem>(records.size());
+		for(JsonNode record : records) {
+			Product product = resolve(Product.class, "product", record.path("product").path("href"), resolved);
+			LineItem lineItem = new LineItem(product, record.path("amount").asInt(1));
+
+			JsonNode price = record.path("price");
+			if(price.isNumber()) {
+				lineItem.setPrice(Money.of(price.decimalValue()));
+			} else if(price.isTextual()) {
+				lineItem.setPrice(Money.of(new BigDecimal(price.textValue())));
+			}
+
+			lineItems.add(lineItem);
+		}
+		return lineItems;
+	}
+
+	/**
+	 * Loads the entity the given {@literal href} points to, reusing the ones already loaded since the persistence
+	 * context was last cleared. Like the exporter, takes the last segment of the {@literal href} as the id.
+	 */
+	private <T> T resolve(Class<T> type, String property, JsonNode href, Map<String, Object> resolved) {
+		if(!href.isTextual()) {
+			throw new InvalidRecordException(HttpStatus.BAD_REQUEST, "Missing " + property + " href!");
+		}
+
+		Object entity = resolved.get(href.textValue());
+		if(null == entity) {
+			List<String> segments = UriComponentsBuilder.fromUriString(href.textValue()).build().getPathSegments();
+			String id = segments.isEmpty() ? "" : segments.get(segments.size() - 1);
+			if(!id.matches("\\d{1,18}")) {
+				throw new InvalidRecordException(HttpStatus.BAD_REQUEST, href.textValue() + " is not a " + property + " href!");
+			}
+
+			entity = em.find(type, Long.valueOf(id));
+			if(null == entity) {
+				throw new InvalidRecordException(HttpStatus.NOT_FOUND, "No " + property + " at " + href.textValue() + "!");
+			}
+			resolved.put(href.textValue(), entity);
+		}
+		return type.cast(entity);
+	}
+
+	/**
+	 * The result of a record the database rejected while it was written.
+	 */
+	private static Map<String, Object> rejected(HibernateException e) {
+		Map<String, Object> result = new LinkedHashMap<String, Object>();
+		result.put("status", HttpStatus.CONFLICT.value());
+		result.put("message", e instanceof JDBCException ? ((JDBCException)e).getSQLException().getMessage() : e.getMessage());
+		return result;
+	}
+
+	static Savepoint setSavepoint(Session session) {
+		return session.doReturningWork(new ReturningWork<Savepoint>() {
+			@Override public Savepoint execute(Connection connection) throws SQLException {
+				return connection.setSavepoint();
+			}
+		});
+	}
+
+	static void rollback(Session session, final Savepoint savepoint) {
+		session.doWork(new Work() {
+			@Override public void execute(Connection connection) throws SQLException {
+				connection.rollback(savepoint);
+			}
+		});
+	}
+
+	private static class InvalidRecordException extends RuntimeException {
+
+		private final HttpStatus status;
+
+		InvalidRecordException(HttpStatus status, String message) {
+			super(message);
+			this.status = status;
+		}
+
+	}
+
+	/**
+	 * Carries an {@link IOException} reading the request body out of the transaction, rolling it back.
+	 */
+	private static class MalformedBodyException extends RuntimeException {
+
+		MalformedBodyException(IOException cause) {
+			super(cause);
+		}
+
+	}
+
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Compresses response bodies with {@literal gzip} or {@literal deflate}, whichever the {@literal Accept-Encoding}
+ * header prefers, {@literal gzip} on a tie. Bodies smaller than {@link #setMinSize(int) minSize} bytes, which default
+ * to {@value #DEFAULT_MIN_SIZE}, aren't worth the CPU and go out as they are, as do bodies that aren't text, JSON,
+ * Smile or XML.
+ * <p/>
+ * Bodies are held back up to {@value #MAX_CACHED_BODY} bytes. The compressed bytes of successful {@literal GET}
+ * responses held back in full are cached per URL, {@literal Accept} header and encoding, up to
+ * {@value #MAX_CACHED_BYTES} compressed bytes in all, and sent again for as long as the response carries the same
+ * strong {@literal ETag}. Only responses a shared cache may store are kept: those with an {@literal ETag} and without
+ * a {@literal no-store} or {@literal private} {@literal Cache-Control} directive. Larger bodies are compressed as they
+ * are written, so streamed responses stay streamed.
+ * <p/>
+ * The {@literal ETag} of a compressed body is suffixed with its encoding, e.g. {@literal "3-gzip"}, so caches don't take
+ * it for the identical bytes of another encoding. The {@link ConditionalRequestFilter} ignores the suffix, so the tag
+ * keeps matching the version. A {@literal 304 Not Modified} keeps the suffix of the tag the client validated.
+ */
+public class CompressionFilter extends OncePerRequestFilter {
+
+	public static final int DEFAULT_MIN_SIZE = 1024;
+	static final        int MAX_CACHED_BODY  = 256 * 1024;
+	static final        int MAX_CACHED_BYTES = 4 * 1024 * 1024;
+
+	/**
+	 * Least recently used first, guarded by itself.
+	 */
+	private final Map<String, CompressedBody> cache = new LinkedHashMap<String, CompressedBody>(16, 0.75f, true);
+	private       long                        cachedBytes;
+	private int     compressionLevel = Deflater.DEFAULT_COMPRESSION;
+	private int     minSize          = DEFAULT_MIN_SIZE;
+	private boolean precompressed    = true;
+
+	/**
+	 * Sets the {@link Deflater} level, from {@literal 0} (no compression) to {@literal 9} (best compression). Defaults to
+	 * {@link Deflater#DEFAULT_COMPRESSION}.
+	 */
+	public void setCompressionLevel(int compressionLevel) {
+		this.compressionLevel = compressionLevel;
+	}
+
+	/**
+	 * Sets the size in bytes below which bodies are sent uncompressed.
+	 */
+	public void setMinSize(int minSize) {
+		this.minSize = minSize;
+	}
+
+	/**
+	 * Sets whether compressed bodies are cached and sent again. Defaults to {@literal true}.
+	 */
+	public void setPrecompressed(boolean precompressed) {
+		this.precompressed = precompressed;
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request,
+	                                HttpServletResponse response,
+	                                FilterChain filterChain) throws ServletException, IOException {
+		if("HEAD".equals(request.getMethod())) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		String encoding = negotiate(request.getHeader("Accept-Encoding"));
+		CompressingResponseWrapper wrapper = new CompressingResponseWrapper(response, encoding);
+		filterChain.doFilter(request, wrapper);
+		byte[] body = wrapper.release();
+		if(null == body || 0 == body.length) {
+			if(null != encoding && response.getStatus() == HttpServletResponse.SC_NOT_MODIFIED) {
+				ConditionalRequestFilter.suffixValidatedETag(request, response, encoding);
+			}
+			return;
+		}
+
+		if(body.length < minSize || !wrapper.isCompressible()) {
+			write(response, body);
+			return;
+		}
+		addVary(response);
+		if(null == encoding) {
+			write(response, body);
+			return;
+		}
+
+		byte[] compressed;
+		String etag = response.getHeader("ETag");
+		if(precompressed
+				&& "GET".equals(request.getMethod())
+				&& response.getStatus() == HttpServletResponse.SC_OK
+				&& isCacheable(etag, response.getHeader("Cache-Control"))) {
+			String key = request.getScheme() + "://" + request.getServerName() + ":" + request.getServerPort()
+					+ request.getRequestURI()
+					+ (null != request.getQueryString() ? "?" + request.getQueryString() : "")
+					+ " " + request.getHeader("Accept") + " " + encoding;
+			compressed = getCached(key, etag);
+			if(null == compressed) {
+				compressed = compress(body, encoding);
+				putCached(key, new CompressedBody(etag, compressed));
+			}
+		} else {
+			compressed = compress(body, encoding);
+		}
+		response.setHeader("Content-Encoding", encoding);
+		ConditionalRequestFilter.suffixETag(response, encoding);
+		write(response, compressed);
+	}
+
+	/**
+	 * Whether a response with the given {@literal ETag} and {@literal Cache-Control} header may be stored, i.e. whether
+	 * it has a strong {@literal ETag} and isn't {@literal no-store} or {@literal private}.
+	 */
+	static boolean isCacheable(String etag, String cacheControl) {
+		if(null == etag || etag.startsWith("W/")) {
+			return false;
+		}
+		for(String directive : StringUtils.commaDelimitedListToStringArray(cacheControl)) {
+			String name = directive.split("=")[0].trim().toLowerCase();
+			if("no-store".equals(name) || "private".equals(name)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private byte[] getCached(String key, String etag) {
+		synchronized(cache) {
+			CompressedBody cached = cache.get(key);
+			return null != cached && cached.etag.equals(etag) ? cached.compressed : null;
+		}
+	}
+
+	private void putCached(String key, CompressedBody compressed) {
+		synchronized(cache) {
+			CompressedBody replaced = cache.put(key, compressed);
+			cachedBytes += compressed.compressed.length - (null != replaced ? replaced.compressed.length : 0);
+			for(Iterator<CompressedBody> eldest = cache.values().iterator(); cachedBytes > MAX_CACHED_BYTES; ) {
+				cachedBytes -= eldest.next().compressed.length;
+				eldest.remove();
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of compressed bytes cached.
+	 */
+	long getCachedBytes() {
+		synchronized(cache) {
+			return cachedBytes;
+		}
+	}
+
+	/**
+	 * Picks the encoding with the highest quality from an {@literal Accept-Encoding} header, or {@literal null} if it
+	 * accepts neither {@literal gzip} nor {@literal deflate}.
+	 */
+	static String negotiate(String acceptEncoding) {
+		if(null == acceptEncoding) {
+			return null;
+		}
+		String encoding = null;
+		float quality = 0;
+		for(String coding : StringUtils.commaDelimitedListToStringArray(acceptEncoding)) {
+			String[] parts = coding.split(";");
+			String name = parts[0].trim().toLowerCase();
+			float q = 1;
+			for(int i = 1; i < parts.length; i++) {
+				String param = parts[i].trim();
+				if(param.startsWith("q=")) {
+					try {
+						q = Float.parseFloat(param.substring(2));
+					} catch(NumberFormatException e) {
+						q = 0;
+					}
+				}
+			}
+			if("x-gzip".equals(name)) {
+				name = "gzip";
+			}
+			if(("gzip".equals(name) || "deflate".equals(name))
+					&& q > 0 && (q > quality || (q == quality && "gzip".equals(name)))) {
+				encoding = name;
+				quality = q;
+			}
+		}
+		return encoding;
+	}
+
+	private DeflaterOutputStream compressor(OutputStream out, String encoding) throws IOException {
+		// Flushes compress what was written so far, so streamed responses reach the client chunk by chunk. The native
+		// memory of the deflater is released when finishing, as the response stream itself isn't closed.
+		if("gzip".equals(encoding)) {
+			return new GZIPOutputStream(out, 8192, true) {
+				{
+					def.setLevel(compressionLevel);
+				}
+
+				@Override public void finish() throws IOException {
+					super.finish();
+					def.end();
+				}
+			};
+		}
+		return new DeflaterOutputStream(out, new Deflater(compressionLevel), 8192, true) {
+			@Override public void finish() throws IOException {
+				super.finish();
+				def.end();
+			}
+		};
+	}
+
+	/**
+	 * Compresses a body held back in full.
+	 */
+	byte[] compress(byte[] body, String encoding) throws IOException {
+		ByteArrayOutputStream compressed = new ByteArrayOutputStream(body.length / 4);
+		DeflaterOutputStream out = compressor(compressed, encoding);
+		out.write(body);
+		out.close();
+		return compressed.toByteArray();
+	}
+
+	private static void write(HttpServletResponse response, byte[] body) throws IOException {
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+	}
+
+	private static void addVary(HttpServletResponse response) {
+		String vary = response.getHeader("Vary");
+		if(null == vary) {
+			response.setHeader("Vary", "Accept-Encoding");
+		} else if(!vary.contains("Accept-Encoding")) {
+			response.setHeader("Vary", vary + ", Accept-Encoding");
+		}
+	}
+
+	private static boolean isCompressible(String contentType) {
+		if(null == contentType) {
+			return false;
+		}
+		String type = contentType.toLowerCase();
+		return type.startsWith("text/") || type.contains("json") || type.contains("smile") || type.contains("xml")
+				|| type.contains("javascript");
+	}
+
+	/**
+	 * Compresses the body as it is written once it outgrows the buffer, unless the handler reports an error, which is
+	 * left to the container.
+	 */
+	private class CompressingResponseWrapper extends BufferingResponseWrapper {
+
+		private final String  encoding;
+		private       boolean error;
+
+		private CompressingResponseWrapper(HttpServletResponse response, String encoding) {
+			super(response, MAX_CACHED_BODY);
+			this.encoding = encoding;
+		}
+
+		private boolean isCompressible() {
+			return !error && null == getHeader("Content-Encoding") && CompressionFilter.isCompressible(getContentType());
+		}
+
+		@Override protected OutputStream openWriteThrough() throws IOException {
+			if(!isCompressible()) {
+				return super.openWriteThrough();
+			}
+			addVary((HttpServletResponse)getResponse());
+			if(null == encoding) {
+				return super.openWriteThrough();
+			}
+			setHeader("Content-Encoding", encoding);
+			ConditionalRequestFilter.suffixETag((HttpServletResponse)getResponse(), encoding);
+			return compressor(getResponse().getOutputStream(), encoding);
+		}
+
+		@Override protected void closeWriteThrough(OutputStream writeThrough) throws IOException {
+			if(writeThrough instanceof DeflaterOutputStream) {
+				((DeflaterOutputStream)writeThrough).finish();
+			}
+			super.closeWriteThrough(writeThrough);
+		}
+
+		@Override public void sendError(int status) throws IOException {
+			error = true;
+			super.sendError(status);
+		}
+
+		@Override public void sendError(int status, String message) throws IOException {
+			error = true;
+			super.sendError(status, message);
+		}
+
+	}
+
+	private static class CompressedBody {
+
+		private final String etag;
+		private final byte[] compressed;
+
+		private CompressedBody(String etag, byte[] compressed) {
+			this.etag = etag;
+			this.compressed = compressed;
+		}
+
+	}
+
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.OptimisticLockException;
+import javax.persistence.Version;
+import javax.persistence.metamodel.EntityType;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.hibernate.StaleStateException;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.orm.jpa.EntityManagerFactoryUtils;
+import org.springframework.orm.jpa.EntityManagerHolder;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Answers conditional requests for the items of the exported repositories from the {@link Version}
+ * of the entity alone. Responses carry the version as a strong {@literal ETag}. Filters encoding the representation
+ * differently suffix it, e.g. {@literal "3-gzip"}, and the suffix is ignored when comparing tags with the version.
+ * <ul>
+ * <li>{@literal GET} and {@literal HEAD} requests whose {@literal If-None-Match} header matches the current version
+ * get a {@literal 304 Not Modified} without the entity being serialized.</li>
+ * <li>{@literal PUT}, {@literal PATCH}, {@literal POST} and {@literal DELETE} requests whose {@literal If-Match}
+ * header doesn't match the current version get a {@literal 412 Precondition Failed} without being applied. Changes
+ * that lose a race against a concurrent write of the same entity fail on its version, too, and get a {@literal 412} if
+ * they were conditional and a {@literal 409 Conflict} otherwise.</li>
+ * </ul>
+ * The entity is looked up in the {@link EntityManager} bound to the request if there is one, and in one bound for the
+ * duration of the request otherwise, so the exporter finds it there instead of loading it a second time. Requests for a
+ * projection of the item, answered by the {@link ProjectionController}, only look up its version. Reads embedding
+ * associated resources, answered by the {@link ExpansionController}, are passed through without an {@literal ETag}, as
+ * the version doesn't cover the resources embedded, and without the entity being looked up, as the controller loads it
+ * along with them.
+ */
+public class ConditionalRequestFilter extends OncePerRequestFilter {
+
+	private static final Pattern  ITEM_PATH              = Pattern.compile("/([^/]+)/(\\d{1,18})/?");
+	private static final String[] REPRESENTATION_SUFFIXES = {"-gzip", "-deflate", "-smile"};
+
+	private final Map<Class<?>, Field> versionFields = new ConcurrentHashMap<Class<?>, Field>();
+	private volatile ExportedRepositories repositories;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request,
+	                                HttpServletResponse response,
+	                                FilterChain filterChain) throws ServletException, IOException {
+		Matcher matcher = ITEM_PATH.matcher(request.getRequestURI().substring(request.getContextPath().length()));
+		Class<?> domainType = matcher.matches() ? getRepositories().getDomainType(matcher.group(1)) : null;
+		boolean read = "GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod());
+		if(null == domainType
+				|| (read
+				    && null != request.getParameter(ExpansionController.EXPAND_PARAM)
+				    && null == request.getParameter(ProjectionController.FIELDS_PARAM))) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		EntityManagerFactory emf = getWebApplicationContext().getBean(EntityManagerFactory.class);
+		boolean bound = false;
+		if(!TransactionSynchronizationManager.hasResource(emf)) {
+			TransactionSynchronizationManager.bindResource(emf, new EntityManagerHolder(emf.createEntityManager()));
+			bound = true;
+		}
+		try {
+			EntityManager em = ((EntityManagerHolder)TransactionSynchronizationManager.getResource(emf)).getEntityManager();
+			Long id = Long.valueOf(matcher.group(2));
+			if(read && null != request.getParameter(ProjectionController.FIELDS_PARAM)) {
+				// Projections leave the entity unloaded, so only its version is selected
+				Object version = versionOf(em, domainType, id);
+				if(null == version) {
+					filterChain.doFilter(request, response);
+				} else {
+					doGet(request, response, filterChain, "\"" + version + "\"");
+				}
+				return;
+			}
+
+			Object entity = em.find(domainType, id);
+			if(null == entity) {
+				filterChain.doFilter(request, response);
+			} else if(read) {
+				doGet(request, response, filterChain, etagOf(domainType, entity));
+			} else {
+				doUpdate(request, response, filterChain, em, domainType, entity);
+			}
+		} finally {
+			if(bound) {
+				EntityManagerHolder holder = (EntityManagerHolder)TransactionSynchronizationManager.unbindResource(emf);
+				EntityManagerFactoryUtils.closeEntityManager(holder.getEntityManager());
+			}
+		}
+	}
+
+	private void doGet(HttpServletRequest request,
+	                   HttpServletResponse response,
+	                   FilterChain filterChain,
+	                   String etag) throws ServletException, IOException {
+		response.setHeader("ETag", etag);
+		response.setHeader("Vary", "Accept");
+		if(matches(request.getHeaders("If-None-Match"), etag, true)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+		} else {
+			filterChain.doFilter(request, response);
+		}
+	}
+
+	private void doUpdate(HttpServletRequest request,
+	                      HttpServletResponse response,
+	                      FilterChain filterChain,
+	                      EntityManager em,
+	                      Class<?> domainType,
+	                      Object entity) throws ServletException, IOException {
+		boolean conditional = request.getHeaders("If-Match").hasMoreElements();
+		if(conditional && !matches(request.getHeaders("If-Match"), etagOf(domainType, entity), false)) {
+			response.setStatus(HttpServletResponse.SC_PRECONDITION_FAILED);
+			return;
+		}
+
+		try {
+			filterChain.doFilter(request, response);
+			if(em.contains(entity)) {
+				// Within a surrounding transaction the update hasn't been written yet, nor the version incremented
+				if(TransactionSynchronizationManager.isActualTransactionActive()) {
+					em.flush();
+				}
+				if(!response.isCommitted()) {
+					response.setHeader("ETag", etagOf(domainType, entity));
+				}
+			}
+		} catch(RuntimeException | ServletException e) {
+			if(!isVersionConflict(e) || response.isCommitted()) {
+				throw e;
+			}
+			response.reset();
+			response.setStatus(conditional ? HttpServletResponse.SC_PRECONDITION_FAILED : HttpServletResponse.SC_CONFLICT);
+		}
+	}
+
+	/**
+	 * Whether any of the given {@literal If-Match} or {@literal If-None-Match} header values lists the given entity tag.
+	 * Weak tags only match if {@literal weak} comparison is allowed, as it is for {@literal If-None-Match}. The suffixes
+	 * of differently encoded representations are ignored.
+	 */
+	static boolean matches(Enumeration<String> headers, String etag, boolean weak) {
+		while(headers.hasMoreElements()) {
+			for(String tag : StringUtils.commaDelimitedListToStringArray(headers.nextElement())) {
+				tag = tag.trim();
+				if(weak && tag.startsWith("W/")) {
+					tag = tag.substring(2);
+				}
+				if("*".equals(tag) || isTagOf(tag, etag)) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Suffixes an entity tag with the name of a representation, e.g. {@literal "3"} with {@literal gzip} becomes
+	 * {@literal "3-gzip"}.
+	 */
+	static String withSuffix(String etag, String representation) {
+		if(!etag.endsWith("\"")) {
+			return etag;
+		}
+		return etag.substring(0, etag.length() - 1) + "-" + representation + "\"";
+	}
+
+	/**
+	 * Suffixes the {@literal ETag} of a response, if it has one, with the name of the representation of its body.
+	 */
+	static void suffixETag(HttpServletResponse response, String representation) {
+		String etag = response.getHeader("ETag");
+		if(null != etag) {
+			response.setHeader("ETag", withSuffix(etag, representation));
+		}
+	}
+
+	/**
+	 * Suffixes the {@literal ETag} of a {@literal 304 Not Modified} with the name of a representation if the client
+	 * validated the tag of that representation, as there is no body to tell which one it would have got.
+	 */
+	static void suffixValidatedETag(HttpServletRequest request, HttpServletResponse response, String representation) {
+		String etag = response.getHeader("ETag");
+		if(null != etag && matches(request.getHeaders("If-None-Match"), withSuffix(etag, representation), true)) {
+			response.setHeader("ETag", withSuffix(etag, representation));
+		}
+	}
+
+	/**
+	 * Whether a tag is the given entity tag, or the tag of a representation of it, which is suffixed further.
+	 */
+	private static boolean isTagOf(String tag, String etag) {
+		for(; null != tag; tag = withoutSuffix(tag)) {
+			if(etag.equals(tag)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String withoutSuffix(String tag) {
+		for(String suffix : REPRESENTATION_SUFFIXES) {
+			if(tag.endsWith(suffix + "\"")) {
+				return tag.substring(0, tag.length() - suffix.length() - 1) + "\"";
+			}
+		}
+		return null;
+	}
+
+	private static boolean isVersionConflict(Throwable t) {
+		for(; null != t; t = t.getCause()) {
+			if(t instanceof OptimisticLockingFailureException
+					|| t instanceof OptimisticLockException
+					|| t instanceof StaleStateException) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private String etagOf(Class<?> domainType, Object entity) {
+		if(entity instanceof HibernateProxy) {
+			entity = ((HibernateProxy)entity).getHibernateLazyInitializer().getImplementation();
+		}
+		return "\"" + ReflectionUtils.getField(getVersionField(domainType), entity) + "\"";
+	}
+
+	private Object versionOf(EntityManager em, Class<?> domainType, Long id) {
+		EntityType<?> entityType = em.getMetamodel().entity(domainType);
+		String jpql = String.format("select e.%s from %s e where e.%s = :id",
+		                            getVersionField(domainType).getName(),
+		                            entityType.getName(),
+		                            entityType.getId(entityType.getIdType().getJavaType()).getName());
+		List<?> versions = em.createQuery(jpql).setParameter("id", id).getResultList();
+		return versions.isEmpty() ? null : versions.get(0);
+	}
+
+	private Field getVersionField(Class<?> domainType) {
+		Field field = versionFields.get(domainType);
+		if(null == field) {
+			for(Class<?> type = domainType; null == field && Object.class != type; type = type.getSuperclass()) {
+				for(Field candidate : type.getDeclaredFields()) {
+					if(candidate.isAnnotationPresent(Version.class)) {
+						field = candidate;
+					}
+				}
+			}
+			if(null == field) {
+				throw new IllegalStateException("Entity " + domainType.getName() + " has no version");
+			}
+			ReflectionUtils.makeAccessible(field);
+			versionFields.put(domainType, field);
+		}
+		return field;
+	}
+
+	private ExportedRepositories getRepositories() {
+		if(null == repositories) {
+			repositories = new ExportedRepositories(getWebApplicationContext());
+		}
+		return repositories;
+	}
+
+	private WebApplicationContext getWebApplicationContext() {
+		return WebApplicationContextUtils.getRequiredWebApplicationContext(getServletContext());
+	}
+
+}
@@ -0,0 +1,62 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.rest.tck.jdbc.PooledDataSource;
+import org.springframework.data.rest.tck.jpa.JpaConfig;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * Exposes the metrics of the {@link PooledDataSource} the {@value JpaConfig#POOL_PROFILE} profile activates.
+ */
+@Controller
+@Profile(JpaConfig.POOL_PROFILE)
+public class ConnectionPoolController {
+
+	private final PooledDataSource connectionPool;
+
+	@Autowired
+	public ConnectionPoolController(PooledDataSource connectionPool) {
+		this.connectionPool = connectionPool;
+	}
+
+	@RequestMapping(value = "/pool", method = RequestMethod.GET)
+	@ResponseBody
+	public Map<String, Object> metrics() {
+		Map<String, Object> metrics = new LinkedHashMap<String, Object>();
+		metrics.put("size", connectionPool.getSize());
+		metrics.put("maxActive", connectionPool.getMaxActive());
+		metrics.put("active", connectionPool.getActive());
+		metrics.put("largestActive", connectionPool.getLargestActive());
+		metrics.put("idle", connectionPool.getIdle());
+		metrics.put("waiting", connectionPool.getWaitCount());
+		metrics.put("connections", connectionPool.getConnections());
+		metrics.put("waitTimeMillis", connectionPool.getWaitTime(TimeUnit.MILLISECONDS));
+		metrics.put("maxWaitTimeMillis", connectionPool.getMaxWaitTime(TimeUnit.MILLISECONDS));
+		metrics.put("timeouts", connectionPool.getTimeouts());
+		return metrics;
+	}
+
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.io.IOException;
+import java.util.Set;
+import javax.persistence.EntityManagerFactory;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.core.Ordered;
+import org.springframework.data.rest.tck.TckConfig;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.mvc.method.RequestMappingInfo;
+import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
+
+/**
+ * Maps the TCK's own controllers. They are picked up by {@link TckConfig}'s component scan along with the
+ * repositories, and the {@link org.springframework.web.servlet.DispatcherServlet} also uses handler mappings of its
+ * parent context. The mapping is ordered ahead of the repository exporter's, whose catch-all
+ * {@literal /{repository}/search/{method}} patterns would otherwise shadow the controllers' URLs. Requests matching a
+ * controller's URL but not its method or parameters, like those for the {@link ProjectionController}'s
+ * {@literal /{repository}} without a {@value ProjectionController#FIELDS_PARAM} parameter or the
+ * {@link ExpansionController}'s without an {@value ExpansionController#EXPAND_PARAM} parameter, are left to the
+ * exporter.
+ * <p/>
+ * The {@link EntityWriters} for every entity type are built when the context starts, so the first requests don't pay
+ * for looking up serializers. The TCK's
+ * {@link org.springframework.data.rest.webmvc.config.RepositoryRestMvcConfiguration} registers them with the exporter's
+ * {@link com.fasterxml.jackson.databind.ObjectMapper}.
+ * <p/>
+ * The {@value #STREAMING_PROFILE} profile activates the {@link StreamingExportController}. The
+ * {@value #HTTP_CACHE_PROFILE} profile tracks the last write to every repository in a {@link LastModifiedTracker}, which
+ * the {@link ResponseCacheFilter} serves and caches responses by.
+ */
+@Configuration
+public class ControllerConfig {
+
+	public static final String STREAMING_PROFILE  = "streaming";
+	public static final String HTTP_CACHE_PROFILE = "http-cache";
+
+	private static final String TCK_PACKAGE = TckConfig.class.getPackage().getName() + ".";
+
+	@Autowired
+	private EntityManagerFactory entityManagerFactory;
+
+	@Bean public RequestMappingHandlerMapping tckHandlerMapping() {
+		RequestMappingHandlerMapping handlerMapping = new RequestMappingHandlerMapping() {
+			@Override protected boolean isHandler(Class<?> beanType) {
+				// Leave the exporter's controllers to its own mapping when both live in the same context
+				return beanType.getName().startsWith(TCK_PACKAGE) && super.isHandler(beanType);
+			}
+
+			@Override protected HandlerMethod handleNoMatch(Set<RequestMappingInfo> requestMappingInfos,
+			                                                String lookupPath,
+			                                                HttpServletRequest request) {
+				// Leave requests matching a controller's URL but not its method or parameters to the exporter
+				return null;
+			}
+		};
+		handlerMapping.setOrder(Ordered.HIGHEST_PRECEDENCE);
+		return handlerMapping;
+	}
+
+	@Bean public EntityWriters entityWriters() throws IOException {
+		return new EntityWriters(entityManagerFactory);
+	}
+
+	@Configuration
+	@Profile(HTTP_CACHE_PROFILE)
+	static class HttpCacheConfig {
+
+		@Autowired
+		private ListableBeanFactory  beanFactory;
+		@Autowired
+		private EntityManagerFactory entityManagerFactory;
+
+		@Bean public LastModifiedTracker lastModifiedTracker() {
+			return new LastModifiedTracker(beanFactory, entityManagerFactory);
+		}
+
+	}
+
+}
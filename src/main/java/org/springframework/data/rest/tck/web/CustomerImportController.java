@@ -0,0 +1,360 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.io.IOException;
+import java.sql.Savepoint;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+import javax.persistence.PersistenceContext;
+import javax.servlet.http.HttpServletRequest;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.HibernateException;
+import org.hibernate.JDBCException;
+import org.hibernate.Session;
+import org.springframework.beans.BeanUtils;
+import org.springframework.beans.DirectFieldAccessor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.MessageSource;
+import org.springframework.context.support.DefaultMessageSourceResolvable;
+import org.springframework.data.rest.tck.jpa.domain.Address;
+import org.springframework.data.rest.tck.jpa.domain.Customer;
+import org.springframework.data.rest.tck.jpa.domain.CustomerValidator;
+import org.springframework.data.rest.tck.jpa.domain.EmailAddress;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.validation.BindingResult;
+import org.springframework.validation.DirectFieldBindingResult;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.ObjectError;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.servlet.support.RequestContextUtils;
+
+/**
+ * Imports {@link Customer}s from a stream of newline-delimited JSON ({@value BulkOrderController#NDJSON}), one
+ * customer per line, written the way a customer is {@literal POST}ed to {@literal /customer} with its addresses
+ * embedded and an optional {@literal emailAddress}.
+ * <p/>
+ * The body is parsed record by record and every record is run through the {@link CustomerValidator} the exporter
+ * validates new customers with. Valid customers are committed in chunks of {@value #CHUNK_SIZE}, with the persistence
+ * context cleared after each, so neither the request nor the imported customers are ever held in memory as a whole.
+ * As the body is only read as fast as the chunks are committed, a client sending faster than the database can write is
+ * held back by the connection's flow control instead of being buffered.
+ * <p/>
+ * The response reports the number of accepted and rejected records, and for the first {@value #MAX_REPORTED_ERRORS}
+ * rejected ones their line and the errors in the format and language of the exporter's validation errors, or the
+ * database's message for records the database rejected although they passed validation. Malformed JSON ends the
+ * import with a {@literal 400}, keeping the chunks committed before the one it occurred in.
+ */
+@Controller
+public class CustomerImportController {
+
+	public static final int CHUNK_SIZE          = 500;
+	public static final int MAX_REPORTED_ERRORS = 100;
+
+	private static final String ENTITY = "customer";
+
+	private final ObjectMapper        mapper = new ObjectMapper();
+	private final CustomerValidator   validator;
+	private final TransactionTemplate tx;
+
+	@PersistenceContext
+	private EntityManager       em;
+	@Autowired(required = false)
+	private LastModifiedTracker lastModifiedTracker;
+
+	@Autowired
+	public CustomerImportController(CustomerValidator validator, PlatformTransactionManager transactionManager) {
+		this.validator = validator;
+		this.tx = new TransactionTemplate(transactionManager);
+	}
+
+	@RequestMapping(value = "/customer/import",
+	                method = RequestMethod.POST,
+	                consumes = BulkOrderController.NDJSON)
+	public ResponseEntity<Map<String, Object>> importCustomers(HttpServletRequest request) throws IOException {
+		final JsonParser parser = mapper.getFactory().createParser(request.getInputStream());
+		final Report report = new Report(RequestContextUtils.getWebApplicationContext(request),
+		                                 RequestContextUtils.getLocale(request));
+
+		try {
+			boolean more = true;
+			while(more) {
+				more = tx.execute(new TransactionCallback<Boolean>() {
+					@Override public Boolean doInTransaction(TransactionStatus status) {
+						try {
+							return importChunk(parser, report);
+						} catch(IOException e) {
+							throw new MalformedBodyException(e);
+						}
+					}
+				});
+				report.commit();
+				if(null != lastModifiedTracker) {
+					lastModifiedTracker.modified(Customer.class, Address.class);
+				}
+			}
+		} catch(MalformedBodyException e) {
+			if(!(e.getCause() instanceof JsonProcessingException)) {
+				throw (IOException)e.getCause();
+			}
+			Map<String, Object> body = report.toMap();
+			body.put("message", String.format("%s, records from line %d on were not imported",
+			                                  ((JsonProcessingException)e.getCause()).getOriginalMessage(),
+			                                  report.chunkStart));
+			return new ResponseEntity<Map<String, Object>>(body, HttpStatus.BAD_REQUEST);
+		} finally {
+			parser.close();
+		}
+
+		return new ResponseEntity<Map<String, Object>>(report.toMap(), HttpStatus.OK);
+	}
+
+	/**
+	 * Imports up to {@value #CHUNK_SIZE} records and returns whether there may be more. The valid records are written and
+	 * flushed together. Should the database reject any of them, e.g. because a concurrent import took an email address
+	 * since it was looked up, the chunk is rolled back to the savepoint taken before it and imported again one record at
+	 * a time, each validated again and written with a savepoint of its own, so only the records the database rejects
+	 * are reported as such.
+	 */
+	private boolean importChunk(JsonParser parser, Report report) throws IOException {
+		List<Integer> lines = new ArrayList<Integer>(CHUNK_SIZE);
+		List<JsonNode> records = new ArrayList<JsonNode>(CHUNK_SIZE);
+		while(records.size() < CHUNK_SIZE && null != parser.nextToken()) {
+			int line = parser.getTokenLocation().getLineNr();
+			if(lines.isEmpty()) {
+				report.chunkStart = line;
+			}
+			lines.add(line);
+			records.add(parser.<JsonNode>readValueAsTree());
+		}
+
+		Session session = em.unwrap(Session.class);
+		Savepoint savepoint = BulkOrderController.setSavepoint(session);
+		List<BindingResult> results = new ArrayList<BindingResult>(records.size());
+		try {
+			Set<String> emailAddresses = new HashSet<String>();
+			for(JsonNode record : records) {
+				results.add(importCustomer(session, record, emailAddresses));
+			}
+			session.flush();
+		} catch(HibernateException e) {
+			BulkOrderController.rollback(session, savepoint);
+			session.clear();
+
+			results.clear();
+			Set<String> emailAddresses = new HashSet<String>();
+			for(JsonNode record : records) {
+				savepoint = BulkOrderController.setSavepoint(session);
+				Customer customer = BeanUtils.instantiateClass(Customer.class);
+				BindingResult errors = bind(record, customer, emailAddresses);
+				try {
+					if(!errors.hasErrors()) {
+						session.persist(customer);
+						session.flush();
+					}
+				} catch(HibernateException rejected) {
+					BulkOrderController.rollback(session, savepoint);
+					errors.reject("not.written", rejected instanceof JDBCException
+					                             ? ((JDBCException)rejected).getSQLException().getMessage()
+					                             : rejected.getMessage());
+					if(null != customer.getEmailAddress()) {
+						emailAddresses.remove(customer.getEmailAddress().toString().toLowerCase(Locale.ENGLISH));
+					}
+				} finally {
+					session.clear();
+				}
+				results.add(errors);
+			}
+		} finally {
+			session.clear();
+		}
+
+		for(int i = 0; i < results.size(); i++) {
+			if(results.get(i).hasErrors()) {
+				report.reject(lines.get(i), results.get(i));
+			} else {
+				report.accepted();
+			}
+		}
+		return records.size() == CHUNK_SIZE;
+	}
+
+	/**
+	 * Binds the record to a new {@link Customer} and persists it, unless it is invalid.
+	 */
+	private BindingResult importCustomer(Session session, JsonNode record, Set<String> emailAddresses) {
+		Customer customer = BeanUtils.instantiateClass(Customer.class);
+		BindingResult errors = bind(record, customer, emailAddresses);
+		if(!errors.hasErrors()) {
+			session.persist(customer);
+		}
+		return errors;
+	}
+
+	/**
+	 * Populates the given {@link Customer} from the record the way the exporter does, through its fields, and validates
+	 * it.
+	 */
+	private BindingResult bind(JsonNode record, Customer customer, Set<String> emailAddresses) {
+		DirectFieldAccessor fields = new DirectFieldAccessor(customer);
+		fields.setPropertyValue("firstname", textOf(record.path("firstname")));
+		fields.setPropertyValue("lastname", textOf(record.path("lastname")));
+
+		BindingResult errors = new DirectFieldBindingResult(customer, ENTITY);
+		validator.validate(customer, errors);
+
+		String emailAddress = textOf(record.path("emailAddress"));
+		if(null != emailAddress) {
+			if(!EmailAddress.isValid(emailAddress)) {
+				reject(errors, "emailAddress", emailAddress, "invalid.email", "Invalid email address!");
+			} else if(!emailAddresses.add(emailAddress.toLowerCase(Locale.ENGLISH)) || isTaken(emailAddress)) {
+				reject(errors, "emailAddress", emailAddress, "not.unique", "Email address is already taken!");
+			} else {
+				fields.setPropertyValue("emailAddress", new EmailAddress(emailAddress));
+			}
+		}
+
+		for(JsonNode address : record.path("addresses")) {
+			try {
+				customer.add(new Address(textOf(address.path("street")),
+				                         textOf(address.path("city")),
+				                         textOf(address.path("country"))));
+			} catch(IllegalArgumentException e) {
+				reject(errors, "addresses", address.toString(), "invalid.address", e.getMessage());
+			}
+		}
+
+		return errors;
+	}
+
+	/**
+	 * Looks the address up without flushing the customers of the current chunk, which are checked against separately.
+	 */
+	private boolean isTaken(String emailAddress) {
+		return em.createQuery("select count(c) from Customer c where c.emailAddress.normalized = lower(:emailAddress)",
+		                      Long.class)
+		         .setParameter("emailAddress", emailAddress)
+		         .setFlushMode(FlushModeType.COMMIT)
+		         .getSingleResult() > 0;
+	}
+
+	private static void reject(BindingResult errors, String field, Object value, String code, String defaultMessage) {
+		errors.addError(new FieldError(ENTITY, field, value, false, errors.resolveMessageCodes(code, field), null,
+		                               defaultMessage));
+	}
+
+	private static String textOf(JsonNode node) {
+		return node.isValueNode() && !node.isNull() ? node.asText() : null;
+	}
+
+	/**
+	 * Counts the imported records and collects the errors of rejected ones. Records of the current chunk count as
+	 * accepted once the chunk is committed.
+	 */
+	private static class Report {
+
+		private final MessageSource messages;
+		private final Locale        locale;
+		private final List<Object> errors = new ArrayList<Object>();
+		private long accepted, pending, rejected;
+		private int chunkStart = 1;
+
+		Report(MessageSource messages, Locale locale) {
+			this.messages = messages;
+			this.locale = locale;
+		}
+
+		void accepted() {
+			pending++;
+		}
+
+		void commit() {
+			accepted += pending;
+			pending = 0;
+		}
+
+		void reject(int line, BindingResult result) {
+			rejected++;
+			if(errors.size() >= MAX_REPORTED_ERRORS) {
+				return;
+			}
+
+			List<Object> lineErrors = new ArrayList<Object>();
+			for(FieldError error : result.getFieldErrors()) {
+				// Same arguments and format as the exporter's validation errors
+				Object[] arguments = {error.getObjectName(), error.getField(), error.getRejectedValue()};
+				Map<String, Object> lineError = new LinkedHashMap<String, Object>();
+				lineError.put("entity", error.getObjectName());
+				lineError.put("message", messages.getMessage(
+						new DefaultMessageSourceResolvable(error.getCodes(), arguments, error.getDefaultMessage()), locale));
+				lineError.put("invalidValue", String.valueOf(error.getRejectedValue()));
+				lineError.put("property", error.getField());
+				lineErrors.add(lineError);
+			}
+			// Records the database rejected, with its message
+			for(ObjectError error : result.getGlobalErrors()) {
+				Map<String, Object> lineError = new LinkedHashMap<String, Object>();
+				lineError.put("entity", error.getObjectName());
+				lineError.put("message", error.getDefaultMessage());
+				lineErrors.add(lineError);
+			}
+
+			Map<String, Object> rejection = new LinkedHashMap<String, Object>();
+			rejection.put("line", line);
+			rejection.put("errors", lineErrors);
+			errors.add(rejection);
+		}
+
+		Map<String, Object> toMap() {
+			Map<String, Object> map = new LinkedHashMap<String, Object>();
+			map.put("accepted", accepted);
+			map.put("rejected", rejected);
+			map.put("errors", errors);
+			return map;
+		}
+
+	}
+
+	/**
+	 * Carries an {@link IOException} reading the request body out of the transaction, rolling back the current chunk.
+	 */
+	private static class MalformedBodyException extends RuntimeException {
+
+		MalformedBodyException(IOException cause) {
+			super(cause);
+		}
+
+	}
+
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.lang.reflect.Member;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.Version;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.databind.ser.DefaultSerializerProvider;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.data.rest.webmvc.PersistentEntityResource;
+import org.springframework.hateoas.Link;
+import org.springframework.util.Assert;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.ReflectionUtils;
+
+/**
+ * Renders entities the way the exporter renders them: their basic and embedded properties inline, in name order, and
+ * their associations as links. An {@link EntityWriter} is built for every entity type of the persistence unit when the
+ * application starts, with its property names encoded once and its property accessors made accessible once.
+ * <p/>
+ * Property values are written by the {@link JsonSerializer} of their type, looked up once and kept, with one
+ * {@link SerializerProvider} per entity, instead of looking the serializer up and creating a provider for every value
+ * as {@link ObjectMapper#writeValue(JsonGenerator, Object)} does. The serializers of the declared property types are
+ * looked up at startup, those of subtypes met at runtime, e.g. the {@link java.sql.Timestamp}s Hibernate reads dates
+ * as, on first use. They don't depend on the format of the generator they write to.
+ * <p/>
+ * Properties are read by reflection: accessible fields are read through the JVM's intrinsic accessors, and methods
+ * through bytecode the JVM generates once they are called often, which is what generated accessors would do as well.
+ * Entities must be initialized instances rather than Hibernate proxies, whose fields are empty.
+ * <p/>
+ * {@link #registerWith(ObjectMapper)} makes the exporter render its entity resources with them, too. The exporter
+ * serves the JSON, compact and verbose media types, and through the {@link SmileFilter} Smile, from that one
+ * {@link ObjectMapper}, so they all do. Resources of entities without a writer, and all of them while
+ * {@link #setEnabled(boolean) disabled}, are left to the exporter's own serializer.
+ */
+public class EntityWriters {
+
+	private static final SerializedString LINKS = new SerializedString("links");
+	private static final SerializedString REL   = new SerializedString("rel");
+	private static final SerializedString HREF  = new SerializedString("href");
+	private static final String           SELF  = "self";
+
+	private final ObjectMapper                                    mapper        = new ObjectMapper();
+	private final Map<Class<?>, EntityWriter>                     entityWriters = new HashMap<Class<?>, EntityWriter>();
+	private final ConcurrentMap<Class<?>, JsonSerializer<Object>> serializers   =
+			new ConcurrentHashMap<Class<?>, JsonSerializer<Object>>();
+	private volatile boolean enabled = true;
+
+	public EntityWriters(EntityManagerFactory entityManagerFactory) throws IOException {
+		for(EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities()) {
+			entityWriters.put(entityType.getJavaType(), new EntityWriter(entityType));
+		}
+	}
+
+	/**
+	 * Returns the {@link EntityWriter} for the given entity type.
+	 *
+	 * @param type
+	 *     must be an entity type of the persistence unit.
+	 *
+	 * @return
+	 */
+	public EntityWriter forType(Class<?> type) {
+		EntityWriter writer = entityWriters.get(type);
+		Assert.notNull(writer, type.getName() + " is not an entity type!");
+		return writer;
+	}
+
+	/**
+	 * Sets whether the {@link ObjectMapper}s registered with render entity resources with the writers. Defaults to
+	 * {@literal true}.
+	 */
+	public void setEnabled(boolean enabled) {
+		this.enabled = enabled;
+	}
+
+	/**
+	 * Registers a serializer for the exporter's {@link PersistentEntityResource}s with the given {@link ObjectMapper},
+	 * which writes the entity's properties with its {@link EntityWriter} and the resource's links. It takes precedence
+	 * over the serializer already registered for them, which it hands other resources to.
+	 *
+	 * @param objectMapper
+	 *     the exporter's {@link ObjectMapper}, with its own modules registered.
+	 */
+	public void registerWith(ObjectMapper objectMapper) {
+		JsonSerializer<Object> exporterSerializer;
+		try {
+			// A provider of its own, so the exporter's serializer isn't cached for the mapper
+			exporterSerializer = new DefaultSerializerProvider.Impl()
+					.createInstance(objectMapper.getSerializationConfig(), objectMapper.getSerializerFactory())
+					.findValueSerializer(PersistentEntityResource.class, null);
+		} catch(JsonMappingException e) {
+			throw new IllegalStateException("No serializer for the exporter's entity resources", e);
+		}
+		SimpleModule module = new SimpleModule("EntityWriters", Version.unknownVersion());
+		module.addSerializer(PersistentEntityResource.class, new EntityResourceSerializer(exporterSerializer));
+		objectMapper.registerModule(module);
+	}
+
+	private SerializerProvider newSerializerProvider() {
+		// Providers keep state while serializing, so each write gets its own
+		return ((DefaultSerializerProvider)mapper.getSerializerProvider())
+				.createInstance(mapper.getSerializationConfig(), mapper.getSerializerFactory());
+	}
+
+	private JsonSerializer<Object> serializerFor(Class<?> valueType, SerializerProvider provider) throws IOException {
+		JsonSerializer<Object> serializer = serializers.get(valueType);
+		if(null == serializer) {
+			serializer = provider.findTypedValueSerializer(valueType, true, null);
+			serializers.putIfAbsent(valueType, serializer);
+		}
+		return serializer;
+	}
+
+	/**
+	 * Whether the attribute refers to other entities. Hibernate's metamodel reports to-one associations as
+	 * non-associations and element collections as associations, so this goes by the persistent attribute type.
+	 */
+	static boolean isAssociation(Attribute<?, ?> attribute) {
+		switch(attribute.getPersistentAttributeType()) {
+			case MANY_TO_ONE:
+			case ONE_TO_ONE:
+			case ONE_TO_MANY:
+			case MANY_TO_MANY:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+	private static Member accessible(Member member) {
+		if(member instanceof Method) {
+			ReflectionUtils.makeAccessible((Method)member);
+		} else {
+			ReflectionUtils.makeAccessible((Field)member);
+		}
+		return member;
+	}
+
+	private static Object read(Member member, Object entity) {
+		return member instanceof Method
+		       ? ReflectionUtils.invokeMethod((Method)member, entity)
+		       : ReflectionUtils.getField((Field)member, entity);
+	}
+
+	/**
+	 * Renders the entities of one type.
+	 */
+	public class EntityWriter {
+
+		private final Member              id;
+		private final List<Property>      properties   = new ArrayList<Property>();
+		private final Map<String, Member> associations = new LinkedHashMap<String, Member>();
+
+		private EntityWriter(EntityType<?> entityType) throws IOException {
+			SingularAttribute<?, ?> idAttribute = entityType.getId(entityType.getIdType().getJavaType());
+			this.id = accessible(idAttribute.getJavaMember());
+
+			SerializerProvider provider = newSerializerProvider();
+			List<Attribute<?, ?>> attributes = new ArrayList<Attribute<?, ?>>(entityType.getAttributes());
+			Collections.sort(attributes, new Comparator<Attribute<?, ?>>() {
+				@Override public int compare(Attribute<?, ?> left, Attribute<?, ?> right) {
+					return left.getName().compareTo(right.getName());
+				}
+			});
+			for(Attribute<?, ?> attribute : attributes) {
+				if(attribute.getName().equals(idAttribute.getName())) {
+					continue;
+				}
+				if(isAssociation(attribute)) {
+					associations.put(attribute.getName(), accessible(attribute.getJavaMember()));
+				} else {
+					properties.add(new Property(attribute, provider));
+				}
+			}
+		}
+
+		/**
+		 * Returns the id of the given entity.
+		 */
+		public Object idOf(Object entity) {
+			return read(id, entity);
+		}
+
+		/**
+		 * Returns the entity or the collection of entities the given association of the given entity refers to, which
+		 * may be a proxy or an uninitialized collection.
+		 *
+		 * @param entity
+		 * @param association
+		 *     the name of an association of the entity's type.
+		 *
+		 * @return
+		 */
+		public Object associationOf(Object entity, String association) {
+			Member member = associations.get(association);
+			Assert.notNull(member, association + " is not an association!");
+			return read(member, entity);
+		}
+
+		/**
+		 * Writes the given entity as an object with a {@literal self} link to the given URI, and a link per association
+		 * to the URI of the association resource below it.
+		 *
+		 * @param json
+		 *     the generator to write to.
+		 * @param entity
+		 *     the entity, must not be a proxy.
+		 * @param selfUri
+		 *     the URI of the entity's resource.
+		 * @param rel
+		 *     the rel the association rels are prefixed with, e.g. {@literal order.order}.
+		 */
+		public void write(JsonGenerator json, Object entity, String selfUri, String rel) throws IOException {
+			writeProperties(json, entity);
+			writeLinks(json, selfUri, rel);
+		}
+
+		/**
+		 * Starts the object of the given entity and writes its properties, leaving the object open for further fields.
+		 * {@link #writeLinks(JsonGenerator, String, String)} ends it.
+		 */
+		public void writeProperties(JsonGenerator json, Object entity) throws IOException {
+			SerializerProvider provider = newSerializerProvider();
+			json.writeStartObject();
+			for(Property property : properties) {
+				property.write(json, entity, provider);
+			}
+		}
+
+		/**
+		 * Writes the links of an entity whose properties were written by
+		 * {@link #writeProperties(JsonGenerator, Object)} and ends its object.
+		 */
+		public void writeLinks(JsonGenerator json, String selfUri, String rel) throws IOException {
+			json.writeFieldName(LINKS);
+			json.writeStartArray();
+			writeLink(json, SELF, selfUri);
+			for(String association : associations.keySet()) {
+				writeLink(json, rel + "." + association, selfUri + "/" + association);
+			}
+			json.writeEndArray();
+
+			json.writeEndObject();
+		}
+
+		/**
+		 * Writes the given links of an entity whose properties were written by
+		 * {@link #writeProperties(JsonGenerator, Object)} and ends its object.
+		 */
+		public void writeLinks(JsonGenerator json, Iterable<Link> links) throws IOException {
+			json.writeFieldName(LINKS);
+			json.writeStartArray();
+			for(Link link : links) {
+				writeLink(json, link.getRel(), link.getHref());
+			}
+			json.writeEndArray();
+
+			json.writeEndObject();
+		}
+
+		private void writeLink(JsonGenerator json, String rel, String href) throws IOException {
+			json.writeStartObject();
+			json.writeFieldName(REL);
+			json.writeString(rel);
+			json.writeFieldName(HREF);
+			json.writeString(href);
+			json.writeEndObject();
+		}
+
+	}
+
+	/**
+	 * Writes {@link PersistentEntityResource}s of entities with a writer, and hands the others to the exporter's
+	 * serializer.
+	 */
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private class EntityResourceSerializer extends JsonSerializer<PersistentEntityResource> {
+
+		private final JsonSerializer<Object> exporterSerializer;
+
+		private EntityResourceSerializer(JsonSerializer<Object> exporterSerializer) {
+			this.exporterSerializer = exporterSerializer;
+		}
+
+		@Override public Class<PersistentEntityResource> handledType() {
+			return PersistentEntityResource.class;
+		}
+
+		@Override public void serialize(PersistentEntityResource resource,
+		                                JsonGenerator json,
+		                                SerializerProvider provider) throws IOException {
+			Object entity = resource.getContent();
+			if(entity instanceof HibernateProxy) {
+				entity = ((HibernateProxy)entity).getHibernateLazyInitializer().getImplementation();
+			}
+			EntityWriter writer = null != entity ? entityWriters.get(entity.getClass()) : null;
+			if(!enabled || null == writer) {
+				exporterSerializer.serialize(resource, json, provider);
+				return;
+			}
+			writer.writeProperties(json, entity);
+			writer.writeLinks(json, resource.getLinks());
+		}
+
+	}
+
+	private class Property {
+
+		private final SerializableString name;
+		private final Member             member;
+
+		private Property(Attribute<?, ?> attribute, SerializerProvider provider) throws IOException {
+			this.name = new SerializedString(attribute.getName());
+			this.member = accessible(attribute.getJavaMember());
+			serializerFor(ClassUtils.resolvePrimitiveIfNecessary(attribute.getJavaType()), provider);
+		}
+
+		private void write(JsonGenerator json, Object entity, SerializerProvider provider) throws IOException {
+			json.writeFieldName(name);
+			Object value = read(member, entity);
+			if(null == value) {
+				json.writeNull();
+			} else {
+				serializerFor(value.getClass(), provider).serialize(value, json, provider);
+			}
+		}
+
+	}
+
+}
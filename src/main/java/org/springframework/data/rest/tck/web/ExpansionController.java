@@ -0,0 +1,470 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.io.IOException;
+import java.lang.reflect.AnnotatedElement;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.FetchType;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToOne;
+import javax.persistence.PersistenceContext;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.hibernate.proxy.HibernateProxy;
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Answers requests for the collection and item resources of the exported repositories that name associations to embed
+ * in an {@value #EXPAND_PARAM} parameter, e.g. {@literal /order/1?expand=lineItems.product,customer}. Each association
+ * named is rendered under its name, as an object or an array of objects ordered by id, next to the link to it, so a
+ * client gets in one request what it would otherwise get by following the links one by one. Paths expand associations
+ * of the associated entities.
+ * <p/>
+ * The entities are read by a single query that fetch joins the associations expanded, along with the element
+ * collections of the entities selected and the eager to-one associations Hibernate would otherwise load with a query of
+ * their own per entity. Element collections of the entities embedded, which Hibernate can't fetch join, take one more
+ * query per collection for all of them, so the number of queries doesn't grow with the entities.
+ * <p/>
+ * Collections are paged like the exporter's, through the {@literal page} and {@literal limit} parameters. The ids of
+ * the page are selected first, as fetch joins of collections rule out limiting the rows, and one more id than the page
+ * holds tells whether there is a next page.
+ * <p/>
+ * Expanded resources change independently of the entities they are embedded in, so their representations are neither
+ * cached by the {@link ResponseCacheFilter} nor validated by the {@link ConditionalRequestFilter}.
+ */
+@Controller
+public class ExpansionController {
+
+	public static final String EXPAND_PARAM = "expand";
+
+	private final JsonFactory         jsonFactory = new JsonFactory();
+	private final ListableBeanFactory beanFactory;
+	private final EntityWriters       entityWriters;
+	private volatile ExportedRepositories repositories;
+
+	@PersistenceContext
+	private EntityManager em;
+
+	@Autowired
+	public ExpansionController(ListableBeanFactory beanFactory, EntityWriters entityWriters) {
+		this.beanFactory = beanFactory;
+		this.entityWriters = entityWriters;
+	}
+
+	@RequestMapping(value = "/{repository}",
+	                method = RequestMethod.GET,
+	                params = {EXPAND_PARAM, "!" + ProjectionController.FIELDS_PARAM})
+	public void expandCollection(@PathVariable("repository") String repository,
+	                             @RequestParam(EXPAND_PARAM) String expand,
+	                             @RequestParam(value = "page", defaultValue = "1") int page,
+	                             @RequestParam(value = "limit", defaultValue = "" + ProjectionController.DEFAULT_LIMIT)
+	                             int limit,
+	                             HttpServletRequest request,
+	                             HttpServletResponse response) throws IOException {
+		Expansion expansion = new Expansion(repository, expand);
+		page = Math.max(1, page);
+		limit = Math.max(1, Math.min(limit, ProjectionController.MAX_LIMIT));
+
+		List<?> ids = em.createQuery(String.format("select e.%s from %s e order by e.%s",
+		                                           expansion.id.getName(),
+		                                           expansion.entityType.getName(),
+		                                           expansion.id.getName()))
+		                .setFirstResult((page - 1) * limit)
+		                .setMaxResults(limit + 1)
+		                .getResultList();
+		Collection<?> entities = ids.isEmpty()
+		                         ? Collections.emptySet()
+		                         : expansion.fetch(ids.subList(0, Math.min(ids.size(), limit)));
+
+		String baseUri = ServletUriComponentsBuilder.fromContextPath(request).path("/").build().toUriString();
+		JsonGenerator json = start(response);
+		json.writeStartObject();
+		json.writeArrayFieldStart("content");
+		for(Object entity : entities) {
+			expansion.write(json, entity, baseUri);
+		}
+		json.writeEndArray();
+
+		json.writeArrayFieldStart("links");
+		if(page > 1) {
+			writeLink(json, repository + ".prev", pageUri(request, page - 1, limit));
+		}
+		if(ids.size() > limit) {
+			writeLink(json, repository + ".next", pageUri(request, page + 1, limit));
+		}
+		json.writeEndArray();
+		json.writeEndObject();
+		json.close();
+	}
+
+	@RequestMapping(value = "/{repository}/{id}",
+	                method = RequestMethod.GET,
+	                params = {EXPAND_PARAM, "!" + ProjectionController.FIELDS_PARAM})
+	public void expandItem(@PathVariable("repository") String repository,
+	                       @PathVariable("id") Long id,
+	                       @RequestParam(EXPAND_PARAM) String expand,
+	                       HttpServletRequest request,
+	                       HttpServletResponse response) throws IOException {
+		Expansion expansion = new Expansion(repository, expand);
+
+		Collection<?> entities = expansion.fetch(Collections.singletonList(id));
+		if(entities.isEmpty()) {
+			throw new InvalidExpansionException(HttpStatus.NOT_FOUND, "No " + repository + " " + id + "!");
+		}
+
+		String baseUri = ServletUriComponentsBuilder.fromContextPath(request).path("/").build().toUriString();
+		JsonGenerator json = start(response);
+		expansion.write(json, entities.iterator().next(), baseUri);
+		json.close();
+	}
+
+	@ExceptionHandler(InvalidExpansionException.class)
+	@ResponseBody
+	public ResponseEntity<Map<String, Object>> invalidExpansion(InvalidExpansionException e) {
+		return new ResponseEntity<Map<String, Object>>(
+				Collections.<String, Object>singletonMap("message", e.getMessage()), e.status);
+	}
+
+	private JsonGenerator start(HttpServletResponse response) throws IOException {
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		return jsonFactory.createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+	}
+
+	private static void writeLink(JsonGenerator json, String rel, String href) throws IOException {
+		json.writeStartObject();
+		json.writeStringField("rel", rel);
+		json.writeStringField("href", href);
+		json.writeEndObject();
+	}
+
+	private static String pageUri(HttpServletRequest request, int page, int limit) {
+		return ServletUriComponentsBuilder.fromRequest(request)
+		                                  .replaceQueryParam("page", page)
+		                                  .replaceQueryParam("limit", limit)
+		                                  .build()
+		                                  .toUriString();
+	}
+
+	private static Object unproxy(Object entity) {
+		return entity instanceof HibernateProxy
+		       ? ((HibernateProxy)entity).getHibernateLazyInitializer().getImplementation()
+		       : entity;
+	}
+
+	/**
+	 * Whether Hibernate loads the association along with its owner, by a query of its own unless it's fetch joined.
+	 * To-one associations are eager unless mapped otherwise.
+	 */
+	private static boolean isEager(Attribute<?, ?> attribute) {
+		if(!(attribute.getJavaMember() instanceof AnnotatedElement)) {
+			return false;
+		}
+		AnnotatedElement member = (AnnotatedElement)attribute.getJavaMember();
+		switch(attribute.getPersistentAttributeType()) {
+			case MANY_TO_ONE:
+				ManyToOne manyToOne = member.getAnnotation(ManyToOne.class);
+				return null == manyToOne || manyToOne.fetch() == FetchType.EAGER;
+			case ONE_TO_ONE:
+				OneToOne oneToOne = member.getAnnotation(OneToOne.class);
+				return null == oneToOne || oneToOne.fetch() == FetchType.EAGER;
+			default:
+				return false;
+		}
+	}
+
+	private ExportedRepositories getRepositories() {
+		if(null == repositories) {
+			repositories = new ExportedRepositories(beanFactory);
+		}
+		return repositories;
+	}
+
+	/**
+	 * The associations of an exported repository's domain type named in an {@value #EXPAND_PARAM} parameter, as a tree
+	 * of the associations to expand from each entity type reached.
+	 */
+	private class Expansion {
+
+		private final EntityType<?>           entityType;
+		private final SingularAttribute<?, ?> id;
+		private final Node                    root;
+
+		private Expansion(String repository, String expand) {
+			Class<?> domainType = getRepositories().getDomainType(repository);
+			if(null == domainType) {
+				throw new InvalidExpansionException(HttpStatus.NOT_FOUND, "No repository " + repository + "!");
+			}
+			entityType = em.getMetamodel().entity(domainType);
+			id = entityType.getId(entityType.getIdType().getJavaType());
+			root = new Node(entityType);
+
+			for(String path : StringUtils.commaDelimitedListToStringArray(expand)) {
+				if(!StringUtils.hasText(path)) {
+					continue;
+				}
+				Node node = root;
+				for(String name : StringUtils.delimitedListToStringArray(path.trim(), ".")) {
+					node = node.expand(name);
+				}
+			}
+		}
+
+		/**
+		 * Reads the entities of the given ids in id order, with everything they are rendered with.
+		 */
+		private Collection<?> fetch(List<?> ids) {
+			StringBuilder jpql = new StringBuilder("select e from ").append(entityType.getName()).append(" e");
+			appendFetchJoins(jpql, "e", root, new int[1], new HashSet<EntityType<?>>());
+			jpql.append(" where e.").append(id.getName()).append(" in (:ids) order by e.").append(id.getName());
+
+			// Fetch joined collections repeat their owner per element
+			Collection<?> entities = new LinkedHashSet<Object>(em.createQuery(jpql.toString())
+			                                                     .setParameter("ids", ids)
+			                                                     .getResultList());
+			for(Map.Entry<String, Node> association : root.expanded.entrySet()) {
+				initializeElementCollections(association.getValue(), associated(root, association.getKey(), entities));
+			}
+			return entities;
+		}
+
+		/**
+		 * Hibernate can't fetch join element collections of entities other than the ones selected, so those of the
+		 * entities embedded are initialized by one more query per collection, for all the entities at once.
+		 */
+		private void initializeElementCollections(Node node, Collection<Object> entities) {
+			if(entities.isEmpty()) {
+				return;
+			}
+			EntityWriters.EntityWriter writer = entityWriters.forType(node.entityType.getJavaType());
+			List<Object> ids = new ArrayList<Object>();
+			for(Object entity : entities) {
+				ids.add(writer.idOf(entity));
+			}
+			String idName = node.entityType.getId(node.entityType.getIdType().getJavaType()).getName();
+			for(Attribute<?, ?> attribute : node.entityType.getAttributes()) {
+				if(attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.ELEMENT_COLLECTION) {
+					String jpql = String.format("select distinct e from %s e left join fetch e.%s where e.%s in (:ids)",
+					                            node.entityType.getName(), attribute.getName(), idName);
+					em.createQuery(jpql)
+					  .setParameter("ids", ids)
+					  .getResultList();
+				}
+			}
+
+			for(Map.Entry<String, Node> association : node.expanded.entrySet()) {
+				initializeElementCollections(association.getValue(), associated(node, association.getKey(), entities));
+			}
+		}
+
+		/**
+		 * Returns the entities the given association of the given entities refers to, without duplicates.
+		 */
+		private Collection<Object> associated(Node node, String association, Collection<?> entities) {
+			EntityWriters.EntityWriter writer = entityWriters.forType(node.entityType.getJavaType());
+			Set<Object> associated = new LinkedHashSet<Object>();
+			for(Object entity : entities) {
+				Object value = unproxy(writer.associationOf(unproxy(entity), association));
+				if(value instanceof Collection) {
+					for(Object element : (Collection<?>)value) {
+						associated.add(unproxy(element));
+					}
+				} else if(null != value) {
+					associated.add(value);
+				}
+			}
+			return associated;
+		}
+
+		private void appendFetchJoins(StringBuilder jpql,
+		                              String alias,
+		                              Node node,
+		                              int[] aliases,
+		                              Set<EntityType<?>> eagerPath) {
+			for(Attribute<?, ?> attribute : node.entityType.getAttributes()) {
+				Node expanded = node.expanded.get(attribute.getName());
+				boolean elementCollection =
+						attribute.getPersistentAttributeType() == Attribute.PersistentAttributeType.ELEMENT_COLLECTION;
+				boolean eager = null == expanded && isEager(attribute) && !eagerPath.contains(node.entityType);
+				if(null == expanded && !(node == root && elementCollection) && !eager) {
+					continue;
+				}
+
+				String join = "j" + aliases[0]++;
+				jpql.append(" left join fetch ").append(alias).append(".").append(attribute.getName()).append(" ")
+				    .append(join);
+				if(null != expanded) {
+					appendFetchJoins(jpql, join, expanded, aliases, new HashSet<EntityType<?>>());
+				} else if(eager) {
+					// Entities loaded only to be linked still load their own eager associations
+					Set<EntityType<?>> path = new HashSet<EntityType<?>>(eagerPath);
+					path.add(node.entityType);
+					Node linked = new Node(em.getMetamodel().entity(attribute.getJavaType()));
+					appendFetchJoins(jpql, join, linked, aliases, path);
+				}
+			}
+		}
+
+		private void write(JsonGenerator json, Object entity, String baseUri) throws IOException {
+			write(json, entity, root, null, baseUri);
+		}
+
+		/**
+		 * Writes the entity with the associations of the given node embedded. Entities of types that aren't exported
+		 * are identified by the URI of the association they are embedded from.
+		 */
+		private void write(JsonGenerator json,
+		                   Object entity,
+		                   Node node,
+		                   String fallbackUri,
+		                   String baseUri) throws IOException {
+			EntityWriters.EntityWriter writer = entityWriters.forType(node.entityType.getJavaType());
+			Object id = writer.idOf(entity);
+			String path = getRepositories().getPath(node.entityType.getJavaType());
+			String selfUri = null != path ? baseUri + path + "/" + id : fallbackUri;
+			String name = StringUtils.uncapitalize(node.entityType.getJavaType().getSimpleName());
+			String rel = (null != path ? path : name) + "." + name;
+
+			writer.writeProperties(json, entity);
+			for(Map.Entry<String, Node> association : node.expanded.entrySet()) {
+				String associationUri = selfUri + "/" + association.getKey();
+				Object value = unproxy(writer.associationOf(entity, association.getKey()));
+				json.writeFieldName(association.getKey());
+				if(null == value) {
+					json.writeNull();
+				} else if(value instanceof Collection) {
+					EntityWriters.EntityWriter elementWriter =
+							entityWriters.forType(association.getValue().entityType.getJavaType());
+					List<Object> elements = new ArrayList<Object>((Collection<?>)value);
+					Collections.sort(elements, new IdComparator(elementWriter));
+					json.writeStartArray();
+					for(Object element : elements) {
+						element = unproxy(element);
+						write(json, element, association.getValue(), associationUri + "/" + elementWriter.idOf(element),
+						      baseUri);
+					}
+					json.writeEndArray();
+				} else {
+					write(json, value, association.getValue(), associationUri, baseUri);
+				}
+			}
+			writer.writeLinks(json, selfUri, rel);
+		}
+
+	}
+
+	/**
+	 * An entity type and the associations to expand from it, keyed by name.
+	 */
+	private class Node {
+
+		private final EntityType<?>     entityType;
+		private final Map<String, Node> expanded = new LinkedHashMap<String, Node>();
+
+		private Node(EntityType<?> entityType) {
+			this.entityType = entityType;
+		}
+
+		private Node expand(String name) {
+			Node node = expanded.get(name);
+			if(null != node) {
+				return node;
+			}
+
+			Attribute<?, ?> attribute = null;
+			for(Attribute<?, ?> candidate : entityType.getAttributes()) {
+				if(candidate.getName().equals(name)) {
+					attribute = candidate;
+				}
+			}
+			if(null == attribute) {
+				throw new InvalidExpansionException(HttpStatus.BAD_REQUEST,
+				                                    "No property " + name + " on " + entityType.getName() + "!");
+			}
+			if(!EntityWriters.isAssociation(attribute)) {
+				throw new InvalidExpansionException(HttpStatus.BAD_REQUEST,
+				                                    "Property " + name + " of " + entityType.getName()
+				                                    + " is not an association!");
+			}
+
+			Class<?> type = attribute instanceof PluralAttribute
+			                ? ((PluralAttribute<?, ?, ?>)attribute).getElementType().getJavaType()
+			                : attribute.getJavaType();
+			node = new Node(em.getMetamodel().entity(type));
+			expanded.put(name, node);
+			return node;
+		}
+
+	}
+
+	private static class IdComparator implements Comparator<Object> {
+
+		private final EntityWriters.EntityWriter writer;
+
+		private IdComparator(EntityWriters.EntityWriter writer) {
+			this.writer = writer;
+		}
+
+		@SuppressWarnings({"unchecked", "rawtypes"})
+		@Override public int compare(Object left, Object right) {
+			return ((Comparable)writer.idOf(unproxy(left))).compareTo(writer.idOf(unproxy(right)));
+		}
+
+	}
+
+	private static class InvalidExpansionException extends RuntimeException {
+
+		private final HttpStatus status;
+
+		InvalidExpansionException(HttpStatus status, String message) {
+			super(message);
+			this.status = status;
+		}
+
+	}
+
+}
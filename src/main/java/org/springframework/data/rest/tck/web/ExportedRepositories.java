@@ -0,0 +1,66 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.data.repository.support.Repositories;
+import org.springframework.data.rest.repository.annotation.RestResource;
+import org.springframework.util.StringUtils;
+
+/**
+ * The paths the repository exporter serves the repositories under, following its rules: the path given by the
+ * repository's {@link RestResource} annotation, or else the name of the repository interface without its
+ * {@literal Repository} suffix. Repositories that aren't exported have no path.
+ */
+class ExportedRepositories {
+
+	private final Map<String, Class<?>> domainTypes = new HashMap<String, Class<?>>();
+	private final Map<Class<?>, String> paths       = new HashMap<Class<?>, String>();
+
+	ExportedRepositories(ListableBeanFactory beanFactory) {
+		Repositories repositories = new Repositories(beanFactory);
+		for(Class<?> domainType : repositories) {
+			Class<?> repositoryInterface = repositories.getRepositoryInformationFor(domainType).getRepositoryInterface();
+			RestResource resource = repositoryInterface.getAnnotation(RestResource.class);
+			if(null != resource && !resource.exported()) {
+				continue;
+			}
+			String path = null != resource && StringUtils.hasText(resource.path())
+			              ? resource.path()
+			              : StringUtils.uncapitalize(repositoryInterface.getSimpleName().replaceAll("Repository$", ""));
+			domainTypes.put(path, domainType);
+			paths.put(domainType, path);
+		}
+	}
+
+	/**
+	 * @return the domain type of the repository exported under the given path, or {@literal null} if there is none.
+	 */
+	Class<?> getDomainType(String path) {
+		return domainTypes.get(path);
+	}
+
+	/**
+	 * @return the path the repository of the given domain type is exported under, or {@literal null} if it isn't.
+	 */
+	String getPath(Class<?> domainType) {
+		return paths.get(domainType);
+	}
+
+}
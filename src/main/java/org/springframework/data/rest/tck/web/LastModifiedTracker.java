@@ -0,0 +1,209 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.PluralAttribute;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.context.ApplicationListener;
+import org.springframework.data.rest.repository.context.AfterCreateEvent;
+import org.springframework.data.rest.repository.context.AfterDeleteEvent;
+import org.springframework.data.rest.repository.context.AfterLinkSaveEvent;
+import org.springframework.data.rest.repository.context.AfterSaveEvent;
+import org.springframework.data.rest.repository.context.RepositoryEvent;
+
+/**
+ * Keeps a high-water mark per exported repository: the time its entities were last written, as far as the exporter's
+ * {@link RepositoryEvent}s tell. Writes that bypass the exporter are reported through {@link #modified(Class[])}.
+ * Nothing is known about writes before the application started, so every mark starts out at that time.
+ * <p/>
+ * A write to an entity also moves the marks of the entities referencing it, as their representations may include it,
+ * e.g. an order's total those of its line items. Marks are kept in whole seconds, the precision of
+ * {@literal Last-Modified} and {@literal If-Modified-Since}, rounded down, so they never lie in the future. As another
+ * write in the same second leaves a mark where it is, a mark only tells the writes before it from the ones after it once
+ * its second has passed, see {@link #isSettled(long)}.
+ */
+public class LastModifiedTracker implements ApplicationListener<RepositoryEvent> {
+
+	private static final long SECOND = TimeUnit.SECONDS.toMillis(1);
+
+	private final ListableBeanFactory         beanFactory;
+	private final EntityManagerFactory        entityManagerFactory;
+	private final long                        started = roundDown(System.currentTimeMillis());
+	private final ConcurrentMap<String, Long> marks   = new ConcurrentHashMap<String, Long>();
+	private volatile ExportedRepositories       repositories;
+	private volatile Map<Class<?>, Set<String>> affectedPaths;
+
+	public LastModifiedTracker(ListableBeanFactory beanFactory, EntityManagerFactory entityManagerFactory) {
+		this.beanFactory = beanFactory;
+		this.entityManagerFactory = entityManagerFactory;
+	}
+
+	@Override
+	public void onApplicationEvent(RepositoryEvent event) {
+		if(event instanceof AfterCreateEvent
+				|| event instanceof AfterSaveEvent
+				|| event instanceof AfterDeleteEvent
+				|| event instanceof AfterLinkSaveEvent) {
+			modified(event.getSource().getClass());
+		}
+	}
+
+	/**
+	 * Moves the marks of the repositories of the given domain types, and of the types referencing them, to now.
+	 *
+	 * @param domainTypes
+	 *     the types of the entities written.
+	 */
+	public void modified(Class<?>... domainTypes) {
+		Set<String> paths = new HashSet<String>();
+		for(Class<?> domainType : domainTypes) {
+			paths.addAll(getAffectedPaths(domainType));
+		}
+		long now = roundDown(System.currentTimeMillis());
+		for(String path : paths) {
+			advance(path, now);
+		}
+	}
+
+	/**
+	 * Returns the high-water mark of the repository exported under the given path.
+	 *
+	 * @param path
+	 *     the path of the repository, or {@literal null} for resources that don't depend on any repository's entities,
+	 *     like the root document.
+	 *
+	 * @return the time of the last write in milliseconds, a whole number of seconds.
+	 */
+	public long getLastModified(String path) {
+		Long mark = null != path ? marks.get(path) : null;
+		return null != mark ? mark : started;
+	}
+
+	/**
+	 * Returns whether the second of the given mark has passed, so no write can be given that mark anymore. Until then,
+	 * a response can't be validated or cached by its mark, as it may be missing a write the mark covers.
+	 *
+	 * @param lastModified
+	 *     a mark returned by {@link #getLastModified(String)}.
+	 *
+	 * @return
+	 */
+	public boolean isSettled(long lastModified) {
+		return lastModified < roundDown(System.currentTimeMillis());
+	}
+
+	ExportedRepositories getRepositories() {
+		if(null == repositories) {
+			repositories = new ExportedRepositories(beanFactory);
+		}
+		return repositories;
+	}
+
+	private void advance(String path, long now) {
+		for(; ; ) {
+			Long mark = marks.get(path);
+			long next = Math.max(now, null != mark ? mark : started);
+			if(null != mark && next == mark) {
+				return;
+			}
+			if(null == mark ? null == marks.putIfAbsent(path, next) : marks.replace(path, mark, next)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Looks up the paths affected by writes to the given type, or to the closest supertype known, as entities may be
+	 * proxies.
+	 */
+	private Set<String> getAffectedPaths(Class<?> type) {
+		if(null == affectedPaths) {
+			affectedPaths = affectedPaths();
+		}
+		for(Class<?> domainType = type; null != domainType; domainType = domainType.getSuperclass()) {
+			Set<String> paths = affectedPaths.get(domainType);
+			if(null != paths) {
+				return paths;
+			}
+		}
+		return Collections.emptySet();
+	}
+
+	/**
+	 * Maps every entity type to the paths of its own repository and of the repositories of the entities referencing it
+	 * through an association.
+	 */
+	private Map<Class<?>, Set<String>> affectedPaths() {
+		Map<Class<?>, Set<String>> affected = new HashMap<Class<?>, Set<String>>();
+		for(EntityType<?> entityType : entityManagerFactory.getMetamodel().getEntities()) {
+			addPath(affected, entityType.getJavaType(), entityType.getJavaType());
+			for(Attribute<?, ?> attribute : entityType.getAttributes()) {
+				if(isAssociation(attribute)) {
+					Class<?> target = attribute instanceof PluralAttribute
+					                  ? ((PluralAttribute<?, ?, ?>)attribute).getElementType().getJavaType()
+					                  : attribute.getJavaType();
+					addPath(affected, target, entityType.getJavaType());
+				}
+			}
+		}
+		return affected;
+	}
+
+	private void addPath(Map<Class<?>, Set<String>> affected, Class<?> written, Class<?> referencing) {
+		Set<String> paths = affected.get(written);
+		if(null == paths) {
+			paths = new HashSet<String>();
+			affected.put(written, paths);
+		}
+		String path = getRepositories().getPath(referencing);
+		if(null != path) {
+			paths.add(path);
+		}
+	}
+
+	private static long roundDown(long millis) {
+		return millis / SECOND * SECOND;
+	}
+
+	/**
+	 * Whether the attribute refers to other entities. Hibernate's metamodel reports to-one associations as
+	 * non-associations and element collections as associations, so this goes by the persistent attribute type.
+	 */
+	private static boolean isAssociation(Attribute<?, ?> attribute) {
+		switch(attribute.getPersistentAttributeType()) {
+			case MANY_TO_ONE:
+			case ONE_TO_ONE:
+			case ONE_TO_MANY:
+			case MANY_TO_MANY:
+				return true;
+			default:
+				return false;
+		}
+	}
+
+}
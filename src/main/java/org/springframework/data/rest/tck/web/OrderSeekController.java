@@ -0,0 +1,81 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.util.List;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.rest.tck.jpa.domain.Order;
+import org.springframework.data.rest.tck.jpa.repository.OrderRepository;
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.ResourceSupport;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Pages through all {@link Order}s with a cursor rather than a page number, using
+ * {@link OrderRepository#findAfter(Long, org.springframework.data.domain.Pageable)}. Renders a page like the
+ * exporter's compact representation: a link to every {@link Order} plus, for a full page, a {@value #NEXT_REL} link
+ * carrying the id of the page's last {@link Order} as the {@literal after} cursor.
+ */
+@Controller
+public class OrderSeekController {
+
+	public static final String ORDER_REL     = "order.order";
+	public static final String NEXT_REL      = "order.next";
+	public static final int    DEFAULT_LIMIT = 20;
+	public static final int    MAX_LIMIT     = 1000;
+
+	private final OrderRepository orders;
+
+	@Autowired
+	public OrderSeekController(OrderRepository orders) {
+		this.orders = orders;
+	}
+
+	@RequestMapping(value = "/order/search/seek", method = RequestMethod.GET)
+	@ResponseBody
+	public ResourceSupport seek(@RequestParam(value = "after", defaultValue = "0") long after,
+	                            @RequestParam(value = "limit", defaultValue = "" + DEFAULT_LIMIT) int limit,
+	                            HttpServletRequest request) {
+		limit = Math.max(1, Math.min(limit, MAX_LIMIT));
+		List<Order> page = orders.findAfter(after, new PageRequest(0, limit));
+
+		ResourceSupport resource = new ResourceSupport();
+		String orderBase = ServletUriComponentsBuilder.fromContextPath(request).path("/order/").build().toUriString();
+		for(Order order : page) {
+			resource.add(new Link(orderBase + order.getId(), ORDER_REL));
+		}
+
+		if(page.size() == limit) {
+			String next = ServletUriComponentsBuilder.fromRequest(request)
+			                                         .replaceQueryParam("after", page.get(page.size() - 1).getId())
+			                                         .replaceQueryParam("limit", limit)
+			                                         .build()
+			                                         .toUriString();
+			resource.add(new Link(next, NEXT_REL));
+		}
+
+		return resource;
+	}
+
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.ListableBeanFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Answers requests for the collection and item resources of the exported repositories that name the properties to
+ * render in a {@value #FIELDS_PARAM} parameter, e.g. {@literal /order?fields=total}. Only the id and the basic and
+ * embedded properties named are selected, as a tuple, so entities are neither loaded nor any of their associations.
+ * Associations named are rendered as links, as the exporter renders them; the links don't need any of the associated
+ * data. Collections of basic values, like a product's attributes, can't be selected as part of a tuple and are rejected.
+ * <p/>
+ * Collections are paged and sorted like the exporter's, through the {@literal page}, {@literal limit} and
+ * {@literal sort} parameters, the latter naming a basic property to sort by, in descending order if a
+ * {@literal <property>.dir=desc} parameter says so. Entities sorting equal stay in id order, so pages don't overlap.
+ * A full page links to the next one, and the page number and size are rendered along with the page. One more entity
+ * than the page holds is selected to tell whether there is a next page, rather than counting them all, so there are
+ * no totals.
+ */
+@Controller
+public class ProjectionController {
+
+	public static final String FIELDS_PARAM  = "fields";
+	public static final int    DEFAULT_LIMIT = 20;
+	public static final int    MAX_LIMIT     = 1000;
+
+	private final ListableBeanFactory beanFactory;
+	private volatile ExportedRepositories repositories;
+
+	@PersistenceContext
+	private EntityManager em;
+
+	@Autowired
+	public ProjectionController(ListableBeanFactory beanFactory) {
+		this.beanFactory = beanFactory;
+	}
+
+	@RequestMapping(value = "/{repository}", method = RequestMethod.GET, params = FIELDS_PARAM)
+	@ResponseBody
+	public Map<String, Object> projectCollection(@PathVariable("repository") String repository,
+	                                             @RequestParam(FIELDS_PARAM) String fields,
+	                                             @RequestParam(value = "page", defaultValue = "1") int page,
+	                                             @RequestParam(value = "limit", defaultValue = "" + DEFAULT_LIMIT) int limit,
+	                                             @RequestParam(value = "sort", required = false) String[] sort,
+	                                             HttpServletRequest request) {
+		Projection projection = new Projection(repository, fields);
+		page = Math.max(1, page);
+		limit = Math.max(1, Math.min(limit, MAX_LIMIT));
+
+		List<?> rows = em.createQuery(projection.select() + projection.orderBy(sort, request))
+		                 .setFirstResult((page - 1) * limit)
+		                 .setMaxResults(limit + 1)
+		                 .getResultList();
+
+		String baseUri = ServletUriComponentsBuilder.fromContextPath(request).path("/" + repository + "/")
+		                                            .build().toUriString();
+		List<Map<String, Object>> content = new ArrayList<Map<String, Object>>();
+		for(Object row : rows.subList(0, Math.min(rows.size(), limit))) {
+			content.add(projection.render(row, baseUri));
+		}
+
+		List<Link> links = new ArrayList<Link>();
+		if(page > 1) {
+			links.add(new Link(pageUri(request, page - 1, limit), repository + ".prev"));
+		}
+		if(rows.size() > limit) {
+			links.add(new Link(pageUri(request, page + 1, limit), repository + ".next"));
+		}
+
+		Map<String, Object> metadata = new LinkedHashMap<String, Object>();
+		metadata.put("number", page);
+		metadata.put("size", limit);
+
+		Map<String, Object> resource = new LinkedHashMap<String, Object>();
+		resource.put("content", content);
+		resource.put("links", links);
+		resource.put("page", metadata);
+		return resource;
+	}
+
+	@RequestMapping(value = "/{repository}/{id}", method = RequestMethod.GET, params = FIELDS_PARAM)
+	@ResponseBody
+	public Map<String, Object> projectItem(@PathVariable("repository") String repository,
+	                                       @PathVariable("id") Long id,
+	                                       @RequestParam(FIELDS_PARAM) String fields,
+	                                       HttpServletRequest request) {
+		Projection projection = new Projection(repository, fields);
+
+		List<?> rows = em.createQuery(projection.select() + " where e." + projection.id.getName() + " = :id")
+		                 .setParameter("id", id)
+		                 .getResultList();
+		if(rows.isEmpty()) {
+			throw new InvalidProjectionException(HttpStatus.NOT_FOUND, "No " + repository + " " + id + "!");
+		}
+
+		String baseUri = ServletUriComponentsBuilder.fromContextPath(request).path("/" + repository + "/")
+		                                            .build().toUriString();
+		return projection.render(rows.get(0), baseUri);
+	}
+
+	@ExceptionHandler(InvalidProjectionException.class)
+	@ResponseBody
+	public ResponseEntity<Map<String, Object>> invalidProjection(InvalidProjectionException e) {
+		return new ResponseEntity<Map<String, Object>>(
+				Collections.<String, Object>singletonMap("message", e.getMessage()), e.status);
+	}
+
+	private static String pageUri(HttpServletRequest request, int page, int limit) {
+		return ServletUriComponentsBuilder.fromRequest(request)
+		                                  .replaceQueryParam("page", page)
+		                                  .replaceQueryParam("limit", limit)
+		                                  .build()
+		                                  .toUriString();
+	}
+
+	private ExportedRepositories getRepositories() {
+		if(null == repositories) {
+			repositories = new ExportedRepositories(beanFactory);
+		}
+		return repositories;
+	}
+
+	/**
+	 * The properties of an exported repository's domain type named in a {@value #FIELDS_PARAM} parameter, split into
+	 * those selected and the associations rendered as links.
+	 */
+	private class Projection {
+
+		private final EntityType<?>           entityType;
+		private final SingularAttribute<?, ?> id;
+		private final List<Attribute<?, ?>>   selected     = new ArrayList<Attribute<?, ?>>();
+		private final List<Attribute<?, ?>>   associations = new ArrayList<Attribute<?, ?>>();
+		private final String                  rel;
+
+		private Projection(String repository, String fields) {
+			Class<?> domainType = getRepositories().getDomainType(repository);
+			if(null == domainType) {
+				throw new InvalidProjectionException(HttpStatus.NOT_FOUND, "No repository " + repository + "!");
+			}
+			entityType = em.getMetamodel().entity(domainType);
+			id = entityType.getId(entityType.getIdType().getJavaType());
+			rel = repository + "." + StringUtils.uncapitalize(domainType.getSimpleName());
+
+			Set<String> names = new LinkedHashSet<String>();
+			for(String name : StringUtils.commaDelimitedListToStringArray(fields)) {
+				if(StringUtils.hasText(name)) {
+					names.add(name.trim());
+				}
+			}
+			// The id is rendered as the self link
+			names.remove(id.getName());
+
+			for(String name : names) {
+				// Hibernate's metamodel doesn't tell associations apart reliably through isAssociation()
+				Attribute<?, ?> attribute = attributeOf(name);
+				switch(attribute.getPersistentAttributeType()) {
+					case BASIC:
+					case EMBEDDED:
+						selected.add(attribute);
+						break;
+					case ELEMENT_COLLECTION:
+						throw new InvalidProjectionException(HttpStatus.BAD_REQUEST,
+						                                     "Property " + name + " of " + repository + " can't be selected!");
+					default:
+						associations.add(attribute);
+				}
+			}
+		}
+
+		private Attribute<?, ?> attributeOf(String name) {
+			for(Attribute<?, ?> attribute : entityType.getAttributes()) {
+				if(attribute.getName().equals(name)) {
+					return attribute;
+				}
+			}
+			throw new InvalidProjectionException(HttpStatus.BAD_REQUEST,
+			                                     "No property " + name + " on " + entityType.getName() + "!");
+		}
+
+		private String select() {
+			StringBuilder jpql = new StringBuilder("select e.").append(id.getName());
+			for(Attribute<?, ?> attribute : selected) {
+				jpql.append(", e.").append(attribute.getName());
+			}
+			return jpql.append(" from ").append(entityType.getName()).append(" e").toString();
+		}
+
+		/**
+		 * Orders by the properties named in the given {@literal sort} parameters, and by id last.
+		 */
+		private String orderBy(String[] sort, HttpServletRequest request) {
+			StringBuilder jpql = new StringBuilder(" order by ");
+			for(String name : null != sort ? sort : new String[0]) {
+				if(!StringUtils.hasText(name)) {
+					continue;
+				}
+				name = name.trim();
+				if(attributeOf(name).getPersistentAttributeType() != Attribute.PersistentAttributeType.BASIC) {
+					throw new InvalidProjectionException(HttpStatus.BAD_REQUEST,
+					                                     "Can't sort " + entityType.getName() + " by " + name + "!");
+				}
+				String direction = request.getParameter(name + ".dir");
+				if(null != direction && !"asc".equalsIgnoreCase(direction) && !"desc".equalsIgnoreCase(direction)) {
+					throw new InvalidProjectionException(HttpStatus.BAD_REQUEST, "No sort direction " + direction + "!");
+				}
+				jpql.append("e.").append(name).append("desc".equalsIgnoreCase(direction) ? " desc, " : " asc, ");
+			}
+			return jpql.append("e.").append(id.getName()).toString();
+		}
+
+		/**
+		 * Renders a row selected by {@link #select()} like the exporter renders an entity: its properties inline, its
+		 * associations as links.
+		 */
+		private Map<String, Object> render(Object row, String baseUri) {
+			Object[] values = row instanceof Object[] ? (Object[])row : new Object[]{row};
+			String selfUri = baseUri + values[0];
+
+			Map<String, Object> resource = new LinkedHashMap<String, Object>();
+			for(int i = 0; i < selected.size(); i++) {
+				resource.put(selected.get(i).getName(), values[i + 1]);
+			}
+
+			List<Link> links = new ArrayList<Link>();
+			links.add(new Link(selfUri));
+			for(Attribute<?, ?> association : associations) {
+				links.add(new Link(selfUri + "/" + association.getName(), rel + "." + association.getName()));
+			}
+			resource.put("links", links);
+			return resource;
+		}
+
+	}
+
+	private static class InvalidProjectionException extends RuntimeException {
+
+		private final HttpStatus status;
+
+		InvalidProjectionException(HttpStatus status, String message) {
+			super(message);
+			this.status = status;
+		}
+
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.context.support.WebApplicationContextUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Caches the responses to {@literal GET} requests for the root document and the collection and item resources of the
+ * exported repositories, and serves them with the high-water mark of their repository, kept by the
+ * {@link LastModifiedTracker}, as {@literal Last-Modified}. A request whose {@literal If-Modified-Since} isn't older
+ * than the mark is answered with {@literal 304 Not Modified}, and one for a response cached since the last write to
+ * the repository with that response, neither of them touching the database. Both wait for the mark to settle, as a
+ * write later in the second of the mark wouldn't move it. Nested resources, like associations and
+ * searches, are passed through, and so are resources embedding associated ones through the {@link ExpansionController},
+ * which writes to other repositories don't mark.
+ * <p/>
+ * Responses are cached per URL and {@literal Accept} header, up to {@value #MAX_ENTRIES} of them, and only if they are
+ * successful and no larger than {@value #MAX_BODY_SIZE} bytes; larger ones are written through once they outgrow the
+ * buffer. Without a {@link LastModifiedTracker} in the application context, all requests are passed through.
+ */
+public class ResponseCacheFilter extends OncePerRequestFilter {
+
+	static final int MAX_ENTRIES   = 1000;
+	static final int MAX_BODY_SIZE = 256 * 1024;
+
+	/**
+	 * The root document, or a collection or item resource, whose repository path is the first group.
+	 */
+	private static final Pattern RESOURCE_PATH = Pattern.compile("/(?:([^/]+)(?:/\\d{1,18})?/?)?");
+
+	private final Map<String, CachedResponse> cache = Collections.synchronizedMap(
+			new LinkedHashMap<String, CachedResponse>(16, 0.75f, true) {
+				@Override protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+					return size() > MAX_ENTRIES;
+				}
+			}
+	);
+	private volatile LastModifiedTracker tracker;
+	private volatile boolean             trackerResolved;
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request,
+	                                HttpServletResponse response,
+	                                FilterChain filterChain) throws ServletException, IOException {
+		LastModifiedTracker tracker = getTracker();
+		boolean get = "GET".equals(request.getMethod());
+		Matcher matcher = RESOURCE_PATH.matcher(request.getRequestURI().substring(request.getContextPath().length()));
+		if(null == tracker
+				|| !(get || "HEAD".equals(request.getMethod()))
+				|| !matcher.matches()
+				|| null != request.getParameter(ExpansionController.EXPAND_PARAM)
+				|| (null != matcher.group(1) && null == tracker.getRepositories().getDomainType(matcher.group(1)))) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		long lastModified = tracker.getLastModified(matcher.group(1));
+		boolean settled = tracker.isSettled(lastModified);
+		response.setDateHeader("Last-Modified", lastModified);
+		// If-None-Match takes precedence, and is left to the ETags
+		if(settled && null == request.getHeader("If-None-Match") && lastModified <= getIfModifiedSince(request)) {
+			response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+			return;
+		}
+		if(!get || !settled) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		String key = request.getRequestURI()
+				+ (null != request.getQueryString() ? "?" + request.getQueryString() : "")
+				+ " " + request.getHeader("Accept");
+		CachedResponse cached = cache.get(key);
+		if(null != cached && cached.lastModified == lastModified) {
+			cached.writeTo(request, response);
+			return;
+		}
+
+		BufferingResponseWrapper wrapper = new BufferingResponseWrapper(response, MAX_BODY_SIZE);
+		filterChain.doFilter(request, wrapper);
+		byte[] body = wrapper.finish();
+		if(null != body && wrapper.getStatus() == HttpServletResponse.SC_OK) {
+			cache.put(key, new CachedResponse(lastModified, wrapper, body));
+		}
+	}
+
+	private static long getIfModifiedSince(HttpServletRequest request) {
+		try {
+			return request.getDateHeader("If-Modified-Since");
+		} catch(IllegalArgumentException e) {
+			// Malformed dates are ignored
+			return -1;
+		}
+	}
+
+	private LastModifiedTracker getTracker() {
+		if(!trackerResolved) {
+			WebApplicationContext context = WebApplicationContextUtils.getRequiredWebApplicationContext(getServletContext());
+			Map<String, LastModifiedTracker> trackers = context.getBeansOfType(LastModifiedTracker.class);
+			tracker = trackers.isEmpty() ? null : trackers.values().iterator().next();
+			trackerResolved = true;
+		}
+		return tracker;
+	}
+
+	private static class CachedResponse {
+
+		private final long   lastModified;
+		private final String contentType;
+		private final String etag;
+		private final String vary;
+		private final byte[] body;
+
+		private CachedResponse(long lastModified, HttpServletResponse response, byte[] body) {
+			this.lastModified = lastModified;
+			this.contentType = response.getContentType();
+			this.etag = response.getHeader("ETag");
+			this.vary = response.getHeader("Vary");
+			this.body = body;
+		}
+
+		private void writeTo(HttpServletRequest request, HttpServletResponse response) throws IOException {
+			if(null != etag) {
+				response.setHeader("ETag", etag);
+			}
+			if(null != vary) {
+				response.setHeader("Vary", vary);
+			}
+			if(null != etag && ConditionalRequestFilter.matches(request.getHeaders("If-None-Match"), etag, true)) {
+				response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+				return;
+			}
+			response.setContentType(contentType);
+			response.setContentLength(body.length);
+			response.getOutputStream().write(body);
+		}
+
+	}
+
+}
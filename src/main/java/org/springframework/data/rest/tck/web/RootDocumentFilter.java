@@ -0,0 +1,142 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.springframework.http.MediaType;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Serves the root document from the bytes the exporter rendered for the first request of its kind. The repositories
+ * exported don't change while the application runs, so neither does the list of links to them; only the base URL of
+ * the links does, and the media type of the representation, e.g. plain, compact or verbose JSON. The document is kept
+ * per base URL and the media type negotiated from the {@literal Accept} header, for up to {@value #MAX_ENTRIES} of
+ * them, so clients spelling their {@literal Accept} headers differently share them. A document is only kept if the
+ * exporter rendered it in the media type negotiated; requests for other media types, beyond those kept, with a query
+ * string, or that don't get a {@literal 200 OK} are passed through.
+ */
+public class RootDocumentFilter extends OncePerRequestFilter {
+
+	static final int MAX_ENTRIES   = 32;
+	static final int MAX_BODY_SIZE = 64 * 1024;
+
+	/**
+	 * The media types the exporter renders the root document in, in the order it prefers them.
+	 */
+	static final List<MediaType> MEDIA_TYPES = Arrays.asList(
+			MediaType.APPLICATION_JSON,
+			MediaType.valueOf("application/x-spring-data-compact+json"),
+			MediaType.valueOf("application/x-spring-data-verbose+json")
+	);
+
+	private final ConcurrentMap<String, RootDocument> documents = new ConcurrentHashMap<String, RootDocument>();
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request,
+	                                HttpServletResponse response,
+	                                FilterChain filterChain) throws ServletException, IOException {
+		String path = request.getRequestURI().substring(request.getContextPath().length());
+		boolean get = "GET".equals(request.getMethod());
+		if(!(get || "HEAD".equals(request.getMethod()))
+				|| !("/".equals(path) || path.isEmpty())
+				|| null != request.getQueryString()) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+		MediaType mediaType = negotiate(request.getHeader("Accept"));
+		if(null == mediaType) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		String key = request.getScheme() + "://" + request.getServerName() + ":" + request.getServerPort()
+				+ request.getContextPath() + " " + mediaType;
+		RootDocument document = documents.get(key);
+		if(null != document) {
+			document.writeTo(response, get);
+			return;
+		}
+		if(!get || documents.size() >= MAX_ENTRIES) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		BufferingResponseWrapper wrapper = new BufferingResponseWrapper(response, MAX_BODY_SIZE);
+		filterChain.doFilter(request, wrapper);
+		byte[] body = wrapper.finish();
+		if(null != body
+				&& wrapper.getStatus() == HttpServletResponse.SC_OK
+				&& null != wrapper.getContentType()
+				&& mediaType.includes(MediaType.parseMediaType(wrapper.getContentType()))) {
+			documents.putIfAbsent(key, new RootDocument(wrapper.getContentType(), body));
+		}
+	}
+
+	/**
+	 * Returns the first of the {@link #MEDIA_TYPES} the given {@literal Accept} header prefers, or {@literal null} if it
+	 * accepts none of them or can't be parsed.
+	 */
+	static MediaType negotiate(String accept) {
+		List<MediaType> accepted;
+		try {
+			accepted = MediaType.parseMediaTypes(StringUtils.hasText(accept) ? accept : MediaType.ALL_VALUE);
+		} catch(IllegalArgumentException e) {
+			return null;
+		}
+		MediaType.sortBySpecificityAndQuality(accepted);
+		for(MediaType type : accepted) {
+			if(type.getQualityValue() > 0) {
+				for(MediaType candidate : MEDIA_TYPES) {
+					if(type.includes(candidate)) {
+						return candidate;
+					}
+				}
+			}
+		}
+		return null;
+	}
+
+	private static class RootDocument {
+
+		private final String contentType;
+		private final byte[] body;
+
+		private RootDocument(String contentType, byte[] body) {
+			this.contentType = contentType;
+			this.body = body;
+		}
+
+		private void writeTo(HttpServletResponse response, boolean includeBody) throws IOException {
+			response.setContentType(contentType);
+			response.setContentLength(body.length);
+			if(includeBody) {
+				response.getOutputStream().write(body);
+			}
+		}
+
+	}
+
+}
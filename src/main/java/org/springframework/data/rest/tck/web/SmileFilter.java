@@ -0,0 +1,334 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.ServletInputStream;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletRequestWrapper;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileGenerator;
+import org.springframework.http.MediaType;
+import org.springframework.util.FileCopyUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Speaks <a href="http://wiki.fasterxml.com/SmileFormat">Smile</a>, Jackson's binary JSON, to clients asking for it,
+ * e.g. other services that don't need to read the representations themselves. {@value #SMILE_VALUE} stands for
+ * {@literal application/json}, and a {@literal +smile} suffix for a {@literal +json} one, e.g.
+ * {@literal application/x-spring-data-compact+smile} for the compact representation.
+ * <p/>
+ * Requests are handed on as JSON requests: {@literal Accept} headers preferring a Smile type are translated into the
+ * JSON types, and Smile bodies into JSON. JSON responses to them are translated token by token into Smile, so the
+ * representations and their links are exactly those of JSON, whichever controller renders them, and the responses
+ * cached by the {@link ResponseCacheFilter} and the {@link RootDocumentFilter} are shared between both. Decimals are
+ * kept as they are rather than read as doubles. The {@literal ETag} of a translated response is suffixed with
+ * {@literal smile}, e.g. {@literal "3-smile"}, which the {@link ConditionalRequestFilter} ignores.
+ * <p/>
+ * Responses are translated once complete, so those larger than {@value #MAX_BODY_SIZE} bytes go out as JSON if the
+ * {@literal Accept} header allows for JSON, too, and are answered with {@literal 406 Not Acceptable} otherwise.
+ * Requests with a malformed {@literal Accept} or {@literal Content-Type} header are passed through untouched.
+ */
+public class SmileFilter extends OncePerRequestFilter {
+
+	public static final String    SMILE_VALUE   = "application/x-jackson-smile";
+	public static final MediaType SMILE         = MediaType.valueOf(SMILE_VALUE);
+	static final        int       MAX_BODY_SIZE = 16 * 1024 * 1024;
+
+	private static final String REPRESENTATION = "smile";
+	private static final String SMILE_SUFFIX   = "+smile";
+	private static final String JSON_SUFFIX    = "+json";
+
+	private final JsonFactory  jsonFactory  = new JsonFactory();
+	private final SmileFactory smileFactory = new SmileFactory();
+
+	public SmileFilter() {
+		// Rels and hrefs repeat from one resource to the next
+		smileFactory.enable(SmileGenerator.Feature.CHECK_SHARED_STRING_VALUES);
+	}
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request,
+	                                HttpServletResponse response,
+	                                FilterChain filterChain) throws ServletException, IOException {
+		String accept = request.getHeader("Accept");
+		String contentType = request.getContentType();
+		boolean smileAccepted;
+		boolean smileContent;
+		try {
+			smileAccepted = null != accept && prefersSmile(accept);
+			smileContent = null != contentType && isSmile(MediaType.parseMediaType(contentType));
+		} catch(IllegalArgumentException e) {
+			// Malformed headers are the exporter's to reject
+			filterChain.doFilter(request, response);
+			return;
+		}
+		if(!smileAccepted && !smileContent) {
+			filterChain.doFilter(request, response);
+			return;
+		}
+
+		byte[] json = null;
+		if(smileContent) {
+			try {
+				json = toJson(FileCopyUtils.copyToByteArray(request.getInputStream()));
+			} catch(JsonProcessingException e) {
+				response.setStatus(HttpServletResponse.SC_BAD_REQUEST);
+				return;
+			}
+		}
+		HttpServletRequest jsonRequest = new JsonRequestWrapper(request,
+		                                                        smileAccepted ? toJsonAccept(accept) : accept,
+		                                                        smileContent ? toJson(contentType) : contentType,
+		                                                        json);
+		if(!smileAccepted) {
+			filterChain.doFilter(jsonRequest, response);
+			return;
+		}
+
+		SmileResponseWrapper wrapper = new SmileResponseWrapper(response, accept);
+		filterChain.doFilter(jsonRequest, wrapper);
+		byte[] body = wrapper.release();
+		if(wrapper.discarded) {
+			response.reset();
+			response.setStatus(HttpServletResponse.SC_NOT_ACCEPTABLE);
+			return;
+		}
+		if(null == body || 0 == body.length) {
+			if(response.getStatus() == HttpServletResponse.SC_NOT_MODIFIED) {
+				ConditionalRequestFilter.suffixValidatedETag(request, response, REPRESENTATION);
+			}
+			return;
+		}
+		String responseType = wrapper.getContentType();
+		if(null != responseType && isJson(MediaType.parseMediaType(responseType))) {
+			body = toSmile(body);
+			response.setContentType(toSmile(MediaType.parseMediaType(responseType)).toString());
+			ConditionalRequestFilter.suffixETag(response, REPRESENTATION);
+		}
+		response.setContentLength(body.length);
+		response.getOutputStream().write(body);
+	}
+
+	/**
+	 * Translates a JSON body into Smile.
+	 */
+	byte[] toSmile(byte[] json) throws IOException {
+		ByteArrayOutputStream smile = new ByteArrayOutputStream(json.length / 2);
+		copy(jsonFactory.createParser(json), smileFactory.createGenerator(smile));
+		return smile.toByteArray();
+	}
+
+	/**
+	 * Translates a Smile body into JSON.
+	 */
+	byte[] toJson(byte[] smile) throws IOException {
+		ByteArrayOutputStream json = new ByteArrayOutputStream(smile.length * 2);
+		copy(smileFactory.createParser(smile), jsonFactory.createGenerator(json));
+		return json.toByteArray();
+	}
+
+	private static void copy(JsonParser parser, JsonGenerator generator) throws IOException {
+		try {
+			for(JsonToken token = parser.nextToken(); null != token; token = parser.nextToken()) {
+				if(token == JsonToken.VALUE_NUMBER_FLOAT) {
+					generator.writeNumber(parser.getDecimalValue());
+				} else {
+					generator.copyCurrentEvent(parser);
+				}
+			}
+		} finally {
+			parser.close();
+			generator.close();
+		}
+	}
+
+	private static boolean prefersSmile(String accept) {
+		List<MediaType> mediaTypes = MediaType.parseMediaTypes(accept);
+		MediaType.sortByQualityValue(mediaTypes);
+		return !mediaTypes.isEmpty() && isSmile(mediaTypes.get(0)) && mediaTypes.get(0).getQualityValue() > 0;
+	}
+
+	private static boolean acceptsJson(String accept, MediaType json) {
+		for(MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+			if(!isSmile(mediaType) && mediaType.includes(json) && mediaType.getQualityValue() > 0) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static String toJsonAccept(String accept) {
+		List<MediaType> mediaTypes = new ArrayList<MediaType>();
+		for(MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+			mediaTypes.add(isSmile(mediaType) ? toJson(mediaType) : mediaType);
+		}
+		return MediaType.toString(mediaTypes);
+	}
+
+	private static String toJson(String contentType) {
+		return toJson(MediaType.parseMediaType(contentType)).toString();
+	}
+
+	private static boolean isSmile(MediaType mediaType) {
+		return SMILE.includes(mediaType) && !mediaType.isWildcardSubtype()
+				|| "application".equals(mediaType.getType()) && mediaType.getSubtype().endsWith(SMILE_SUFFIX);
+	}
+
+	private static boolean isJson(MediaType mediaType) {
+		return MediaType.APPLICATION_JSON.includes(mediaType) && !mediaType.isWildcardSubtype()
+				|| "application".equals(mediaType.getType()) && mediaType.getSubtype().endsWith(JSON_SUFFIX);
+	}
+
+	private static MediaType toJson(MediaType smile) {
+		String subtype = smile.getSubtype().endsWith(SMILE_SUFFIX)
+		                 ? smile.getSubtype().substring(0, smile.getSubtype().length() - SMILE_SUFFIX.length()) + JSON_SUFFIX
+		                 : MediaType.APPLICATION_JSON.getSubtype();
+		return new MediaType("application", subtype, smile.getParameters());
+	}
+
+	private static MediaType toSmile(MediaType json) {
+		// Smile is binary, so the charset goes
+		return json.getSubtype().endsWith(JSON_SUFFIX)
+		       ? new MediaType("application",
+		                       json.getSubtype().substring(0, json.getSubtype().length() - JSON_SUFFIX.length()) + SMILE_SUFFIX)
+		       : SMILE;
+	}
+
+	/**
+	 * Writes JSON bodies too large to translate through as they are if the client accepts JSON, too, and discards them
+	 * otherwise. Error responses are left to the container.
+	 */
+	private static class SmileResponseWrapper extends BufferingResponseWrapper {
+
+		private final String  accept;
+		private       boolean error;
+		private       boolean discarded;
+
+		private SmileResponseWrapper(HttpServletResponse response, String accept) {
+			super(response, MAX_BODY_SIZE);
+			this.accept = accept;
+		}
+
+		@Override protected OutputStream openWriteThrough() throws IOException {
+			String contentType = getContentType();
+			if(error
+					|| null == contentType
+					|| !isJson(MediaType.parseMediaType(contentType))
+					|| acceptsJson(accept, MediaType.parseMediaType(contentType))) {
+				return super.openWriteThrough();
+			}
+			discarded = true;
+			return new OutputStream() {
+				@Override public void write(int b) {
+				}
+
+				@Override public void write(byte[] bytes, int offset, int length) {
+				}
+			};
+		}
+
+		@Override public void sendError(int status) throws IOException {
+			error = true;
+			super.sendError(status);
+		}
+
+		@Override public void sendError(int status, String message) throws IOException {
+			error = true;
+			super.sendError(status, message);
+		}
+
+	}
+
+	/**
+	 * Presents a Smile request as a JSON request.
+	 */
+	private static class JsonRequestWrapper extends HttpServletRequestWrapper {
+
+		private final String accept;
+		private final String contentType;
+		private final byte[] body;
+
+		private JsonRequestWrapper(HttpServletRequest request, String accept, String contentType, byte[] body) {
+			super(request);
+			this.accept = accept;
+			this.contentType = contentType;
+			this.body = body;
+		}
+
+		@Override public String getHeader(String name) {
+			if("Accept".equalsIgnoreCase(name)) {
+				return accept;
+			}
+			if("Content-Type".equalsIgnoreCase(name)) {
+				return contentType;
+			}
+			return super.getHeader(name);
+		}
+
+		@Override public Enumeration<String> getHeaders(String name) {
+			if("Accept".equalsIgnoreCase(name) || "Content-Type".equalsIgnoreCase(name)) {
+				String value = getHeader(name);
+				return Collections.enumeration(null != value
+				                               ? Collections.singletonList(value)
+				                               : Collections.<String>emptyList());
+			}
+			return super.getHeaders(name);
+		}
+
+		@Override public String getContentType() {
+			return contentType;
+		}
+
+		@Override public int getContentLength() {
+			return null != body ? body.length : super.getContentLength();
+		}
+
+		@Override public ServletInputStream getInputStream() throws IOException {
+			if(null == body) {
+				return super.getInputStream();
+			}
+			final ByteArrayInputStream in = new ByteArrayInputStream(body);
+			return new ServletInputStream() {
+				@Override public int read() {
+					return in.read();
+				}
+
+				@Override public int read(byte[] bytes, int offset, int length) {
+					return in.read(bytes, offset, length);
+				}
+			};
+		}
+
+	}
+
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.rest.tck.jdbc.InstrumentedDataSource;
+import org.springframework.data.rest.tck.jdbc.StatementStatistics;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Records the statements a request executes through an {@link InstrumentedDataSource} and exposes them as the
+ * {@link #STATISTICS_ATTRIBUTE} request attribute.
+ */
+public class StatementStatisticsFilter extends OncePerRequestFilter {
+
+	public static final String STATISTICS_ATTRIBUTE = StatementStatistics.class.getName();
+
+	private static final Logger LOG = LoggerFactory.getLogger(StatementStatisticsFilter.class);
+
+	@Override
+	protected void doFilterInternal(HttpServletRequest request,
+	                                HttpServletResponse response,
+	                                FilterChain filterChain) throws ServletException, IOException {
+		StatementStatistics statistics = StatementStatistics.start();
+		try {
+			filterChain.doFilter(request, response);
+		} finally {
+			StatementStatistics.stop();
+			request.setAttribute(STATISTICS_ATTRIBUTE, statistics);
+			if(LOG.isDebugEnabled()) {
+				LOG.debug("{} {}: {}", request.getMethod(), request.getRequestURI(), statistics);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2013 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.springframework.data.rest.tck.web;
+
+import java.io.IOException;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Profile;
+import org.springframework.data.rest.tck.jpa.domain.Customer;
+import org.springframework.data.rest.tck.jpa.domain.Order;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Controller;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestMethod;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+/**
+ * Answers requests for the {@link Order} and {@link Customer} collection resources that opt in with an
+ * {@value #EXPORT_PARAM} parameter in the {@value ControllerConfig#STREAMING_PROFILE} profile, e.g.
+ * {@literal /order?export}, by writing the entities to the response as they are read, instead of building the whole
+ * list and resource tree first. The exported document is plain JSON in id order without collection links, so requests
+ * that also page or sort, or that accept only the compact or verbose media types, are left to the exporter.
+ * <p/>
+ * Entities are read in chunks of {@value #CHUNK_SIZE} in id order, each chunk continuing after the last id of the
+ * previous one, and the persistence context is cleared after every chunk, so heap use doesn't grow with the number of
+ * entities. Each entity is rendered by the {@link EntityWriters.EntityWriter} built for its type at startup, like the
+ * exporter renders it: its basic and embedded properties inline, its associations as links.
+ * <p/>
+ * Requests for projections or expansions are left to the {@link ProjectionController} and the
+ * {@link ExpansionController}, whose {@literal /{repository}} pattern is less specific than the URLs mapped here.
+ */
+@Controller
+@Profile(ControllerConfig.STREAMING_PROFILE)
+public class StreamingExportController {
+
+	public static final int    CHUNK_SIZE   = 500;
+	public static final String EXPORT_PARAM = "export";
+
+	private final JsonFactory   jsonFactory = new JsonFactory();
+	private final EntityWriters entityWriters;
+
+	@PersistenceContext
+	private EntityManager em;
+
+	@Autowired
+	public StreamingExportController(EntityWriters entityWriters) {
+		this.entityWriters = entityWriters;
+	}
+
+	@RequestMapping(value = "/order",
+	                method = RequestMethod.GET,
+	                params = {EXPORT_PARAM, "!page", "!limit", "!sort",
+	                          "!" + ProjectionController.FIELDS_PARAM, "!" + ExpansionController.EXPAND_PARAM},
+	                produces = MediaType.APPLICATION_JSON_VALUE)
+	public void exportOrders(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		export(Order.class, "order", request, response);
+	}
+
+	@RequestMapping(value = "/customer",
+	                method = RequestMethod.GET,
+	                params = {EXPORT_PARAM, "!page", "!limit", "!sort",
+	                          "!" + ProjectionController.FIELDS_PARAM, "!" + ExpansionController.EXPAND_PARAM},
+	                produces = MediaType.APPLICATION_JSON_VALUE)
+	public void exportCustomers(HttpServletRequest request, HttpServletResponse response) throws IOException {
+		export(Customer.class, "customer", request, response);
+	}
+
+	private void export(Class<?> type,
+	                    String repositoryRel,
+	                    HttpServletRequest request,
+	                    HttpServletResponse response) throws IOException {
+		EntityType<?> entityType = em.getMetamodel().entity(type);
+		SingularAttribute<?, ?> id = entityType.getId(entityType.getIdType().getJavaType());
+		EntityWriters.EntityWriter writer = entityWriters.forType(type);
+
+		String entityRel = repositoryRel + "." + StringUtils.uncapitalize(type.getSimpleName());
+		String baseUri = ServletUriComponentsBuilder.fromContextPath(request).path("/" + repositoryRel + "/")
+		                                            .build().toUriString();
+		String query = String.format("select e from %s e where e.%s > :after order by e.%s",
+		                             entityType.getName(), id.getName(), id.getName());
+
+		response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+		JsonGenerator json = jsonFactory.createGenerator(response.getOutputStream(), JsonEncoding.UTF8);
+		json.writeStartObject();
+		json.writeArrayFieldStart("content");
+
+		Object after = Long.MIN_VALUE;
+		List<?> chunk;
+		do {
+			chunk = em.createQuery(query)
+			          .setParameter("after", after)
+			          .setMaxResults(CHUNK_SIZE)
+			          .getResultList();
+
+			for(Object entity : chunk) {
+				after = writer.idOf(entity);
+				writer.write(json, entity, baseUri + after, entityRel);
+			}
+
+			json.flush();
+			em.clear();
+		} while(chunk.size() == CHUNK_SIZE);
+
+		json.writeEndArray();
+		json.writeArrayFieldStart("links");
+		json.writeEndArray();
+		json.writeEndObject();
+		json.close();
+	}
+
+}
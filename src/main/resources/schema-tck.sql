@@ -0,0 +1,40 @@
+-- Indexes and triggers Hibernate's schema generation doesn't create, applied by JpaConfig after the schema has been
+-- updated.
+
+-- ProductRepository.findByAttributeAndValue looks up products by attribute key and value
+DROP INDEX idx_product_attributes_key_value IF EXISTS;
+CREATE INDEX idx_product_attributes_key_value ON Product_attributes (attributes_KEY, attributes, Product_id);
+
+-- Order.total follows every insert, change and delete of a line item, whichever way it is written. Each trigger
+-- applies the difference in a single update, so concurrent writes to the same order add up rather than overwrite
+-- each other. Line items inserted through JPA don't reference their order yet, and must not fire a trigger, which
+-- would hide the generated id of the inserted row from Hibernate.
+DROP TRIGGER line_item_inserted_total IF EXISTS;
+CREATE TRIGGER line_item_inserted_total AFTER INSERT ON LineItem
+  REFERENCING NEW ROW AS inserted
+  FOR EACH ROW WHEN (inserted.order_id IS NOT NULL)
+  UPDATE Orders SET total = total + inserted.price * inserted.amount WHERE id = inserted.order_id;
+
+DROP TRIGGER line_item_updated_total IF EXISTS;
+CREATE TRIGGER line_item_updated_total AFTER UPDATE OF price, amount, order_id ON LineItem
+  REFERENCING OLD ROW AS old NEW ROW AS updated
+  FOR EACH ROW
+  UPDATE Orders SET total = total
+      + CASE WHEN id = updated.order_id THEN updated.price * updated.amount ELSE 0 END
+      - CASE WHEN id = old.order_id THEN old.price * old.amount ELSE 0 END
+    WHERE id = old.order_id OR id = updated.order_id;
+
+DROP TRIGGER line_item_deleted_total IF EXISTS;
+CREATE TRIGGER line_item_deleted_total AFTER DELETE ON LineItem
+  REFERENCING OLD ROW AS deleted
+  FOR EACH ROW
+  UPDATE Orders SET total = total - deleted.price * deleted.amount WHERE id = deleted.order_id;
+
+-- Every update of an order sets its modification date, including those of the triggers above. Its version is left to
+-- Hibernate, which increments it along with the order's line items, as a version changed behind its back would fail
+-- the next write of the loaded order.
+DROP TRIGGER order_updated IF EXISTS;
+CREATE TRIGGER order_updated BEFORE UPDATE ON Orders
+  REFERENCING NEW ROW AS updated
+  FOR EACH ROW
+  SET updated.lastModifiedDate = CURRENT_TIMESTAMP;
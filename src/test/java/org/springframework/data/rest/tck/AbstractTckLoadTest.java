@@ -0,0 +1,150 @@
+package org.springframework.data.rest.tck;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Replays a weighted mix of {@link Scenario}s against the exporter on several threads at once for a fixed time, to
+ * catch the lock contention, conflicting writes and connection starvation single-threaded tests never run into. Unlike
+ * in the other tests, nothing runs in a transaction of the test's own: the data loaded and every request's changes are
+ * committed, so the threads see each other's writes. Subclasses remove them again in {@link #deleteData()}.
+ * <p/>
+ * The number of threads and the duration in seconds default to the {@literal tck.load.threads} and
+ * {@literal tck.load.duration} properties.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public abstract class AbstractTckLoadTest extends AbstractTckTest {
+
+	/**
+	 * Runs the given scenarios on {@literal tck.load.threads} threads (8) for {@literal tck.load.duration} seconds (5).
+	 *
+	 * @param scenarios
+	 *     the scenarios to pick from, each in proportion to its weight.
+	 *
+	 * @return the merged report of all threads.
+	 *
+	 * @throws Exception
+	 */
+	protected LoadReport runLoad(Scenario... scenarios) throws Exception {
+		return runLoad(webAppCtx.getEnvironment().getProperty("tck.load.threads", Integer.class, 8),
+		               webAppCtx.getEnvironment().getProperty("tck.load.duration", Long.class, 5L),
+		               TimeUnit.SECONDS,
+		               scenarios);
+	}
+
+	/**
+	 * Runs the given scenarios on the given number of threads until the given time is up. Every thread picks the next
+	 * scenario at random, each in proportion to its weight, and records its latency and whether it failed.
+	 *
+	 * @param threads
+	 *     the number of threads.
+	 * @param duration
+	 *     how long to keep starting scenarios.
+	 * @param unit
+	 *     the unit of the duration.
+	 * @param scenarios
+	 *     the scenarios to pick from.
+	 *
+	 * @return the merged report of all threads.
+	 *
+	 * @throws Exception
+	 */
+	protected LoadReport runLoad(int threads, long duration, TimeUnit unit, Scenario... scenarios) throws Exception {
+		final List<Scenario> mix = Arrays.asList(scenarios);
+		int totalWeight = 0;
+		for(Scenario scenario : mix) {
+			totalWeight += scenario.weight;
+		}
+		final int weights = totalWeight;
+		final long deadline = System.nanoTime() + unit.toNanos(duration);
+
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Callable<LoadReport>> workers = new ArrayList<Callable<LoadReport>>();
+			for(int i = 0; i < threads; i++) {
+				final Random random = new Random(i);
+				workers.add(new Callable<LoadReport>() {
+					@Override public LoadReport call() {
+						LoadReport report = new LoadReport();
+						while(System.nanoTime() < deadline) {
+							Scenario scenario = pick(mix, random.nextInt(weights));
+							String error = null;
+							long start = System.nanoTime();
+							try {
+								scenario.run(random);
+							} catch(Throwable t) {
+								error = t.toString();
+							}
+							report.scenario(scenario.name).record(System.nanoTime() - start, error);
+						}
+						return report;
+					}
+				});
+			}
+
+			LoadReport report = new LoadReport();
+			long start = System.nanoTime();
+			for(Future<LoadReport> result : executor.invokeAll(workers)) {
+				report.merge(result.get());
+			}
+			report.setElapsedTime(System.nanoTime() - start);
+			return report;
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+	private static Scenario pick(List<Scenario> scenarios, int weight) {
+		for(Scenario scenario : scenarios) {
+			weight -= scenario.weight;
+			if(weight < 0) {
+				return scenario;
+			}
+		}
+		throw new IllegalStateException("No scenario has a weight");
+	}
+
+	/**
+	 * A sequence of requests replayed by {@link #runLoad(Scenario...)}. It fails by throwing, e.g. from a
+	 * {@link org.springframework.test.web.servlet.ResultActions#andExpect(org.springframework.test.web.servlet.ResultMatcher)}
+	 * that doesn't match. Scenarios run on several threads at once.
+	 */
+	public abstract static class Scenario {
+
+		private final String name;
+		private final int    weight;
+
+		/**
+		 * @param name
+		 *     the name to report the scenario under.
+		 * @param weight
+		 *     how often to run the scenario, relative to the weights of the others.
+		 */
+		protected Scenario(String name, int weight) {
+			this.name = name;
+			this.weight = weight;
+		}
+
+		/**
+		 * Runs the scenario once.
+		 *
+		 * @param random
+		 *     the current thread's source of randomness, e.g. to pick the entity to work on.
+		 *
+		 * @throws Exception
+		 */
+		public abstract void run(Random random) throws Exception;
+
+	}
+
+}
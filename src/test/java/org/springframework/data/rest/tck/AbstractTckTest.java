@@ -16,6 +16,13 @@ import org.junit.After;
 import org.junit.Before;
 import org.junit.runner.RunWith;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.jdbc.StatementStatistics;
+import org.springframework.data.rest.tck.web.CompressionFilter;
+import org.springframework.data.rest.tck.web.ConditionalRequestFilter;
+import org.springframework.data.rest.tck.web.ResponseCacheFilter;
+import org.springframework.data.rest.tck.web.RootDocumentFilter;
+import org.springframework.data.rest.tck.web.SmileFilter;
+import org.springframework.data.rest.tck.web.StatementStatisticsFilter;
 import org.springframework.data.rest.webmvc.config.RepositoryRestMvcConfiguration;
 import org.springframework.hateoas.Link;
 import org.springframework.hateoas.LinkDiscoverer;
@@ -62,6 +69,24 @@ public abstract class AbstractTckTest {
     };
   }
 
+  public static ResultMatcher maxQueries(final int max) {
+    return new ResultMatcher() {
+      @Override public void match(MvcResult result) throws Exception {
+        StatementStatistics statistics = statementStatistics(result);
+        assertThat(String.format("Statements executed (%s)", statistics),
+                   statistics.getStatements(),
+                   lessThanOrEqualTo(max));
+      }
+    };
+  }
+
+  public static StatementStatistics statementStatistics(MvcResult result) {
+    StatementStatistics statistics = (StatementStatistics)result.getRequest()
+                                                                .getAttribute(StatementStatisticsFilter.STATISTICS_ATTRIBUTE);
+    assertThat("Statements were recorded", statistics, notNullValue());
+    return statistics;
+  }
+
   protected List<Link> follow(Link parent, String followRel, String childRel) throws Exception {
     List<Link> links = discover(parent, followRel);
     if(null == links || links.isEmpty()) {
@@ -117,9 +142,19 @@ public abstract class AbstractTckTest {
   public void setup() {
     OpenEntityManagerInViewFilter oemivf = new OpenEntityManagerInViewFilter();
     oemivf.setServletContext(servletContext);
+    CompressionFilter cf = new CompressionFilter();
+    cf.setServletContext(servletContext);
+    SmileFilter sf = new SmileFilter();
+    sf.setServletContext(servletContext);
+    ResponseCacheFilter rcf = new ResponseCacheFilter();
+    rcf.setServletContext(servletContext);
+    RootDocumentFilter rdf = new RootDocumentFilter();
+    rdf.setServletContext(servletContext);
+    ConditionalRequestFilter crf = new ConditionalRequestFilter();
+    crf.setServletContext(servletContext);
 
     mockMvc = webAppContextSetup(webAppCtx)
-        .addFilter(oemivf)
+        .addFilters(new StatementStatisticsFilter(), oemivf, cf, sf, rcf, rdf, crf)
         .build();
 
     loadData();
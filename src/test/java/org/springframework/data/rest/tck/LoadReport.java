@@ -0,0 +1,272 @@
+package org.springframework.data.rest.tck;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a run of {@link AbstractTckLoadTest}: for every scenario the number of executions, the failed ones and a
+ * histogram of their latencies. Each worker thread records into a report of its own, which are merged once the run is
+ * over, so recording doesn't contend on anything shared.
+ */
+public class LoadReport {
+
+	private final Map<String, ScenarioStatistics> scenarios = new LinkedHashMap<String, ScenarioStatistics>();
+	private long elapsedNanos;
+
+	ScenarioStatistics scenario(String name) {
+		ScenarioStatistics statistics = scenarios.get(name);
+		if(null == statistics) {
+			statistics = new ScenarioStatistics(name);
+			scenarios.put(name, statistics);
+		}
+		return statistics;
+	}
+
+	void merge(LoadReport report) {
+		for(ScenarioStatistics statistics : report.scenarios.values()) {
+			scenario(statistics.name).merge(statistics);
+		}
+	}
+
+	void setElapsedTime(long nanos) {
+		this.elapsedNanos = nanos;
+	}
+
+	/**
+	 * Returns the statistics of all scenarios executed, in the order they were first executed.
+	 *
+	 * @return
+	 */
+	public Collection<ScenarioStatistics> getScenarios() {
+		return scenarios.values();
+	}
+
+	/**
+	 * Returns the statistics of the scenario with the given name.
+	 *
+	 * @param name
+	 *     must not be {@literal null}.
+	 *
+	 * @return the statistics, empty if the scenario was never executed.
+	 */
+	public ScenarioStatistics getScenario(String name) {
+		ScenarioStatistics statistics = scenarios.get(name);
+		return null != statistics ? statistics : new ScenarioStatistics(name);
+	}
+
+	/**
+	 * Returns the number of scenarios executed.
+	 *
+	 * @return
+	 */
+	public long getExecutions() {
+		long executions = 0;
+		for(ScenarioStatistics statistics : scenarios.values()) {
+			executions += statistics.executions;
+		}
+		return executions;
+	}
+
+	/**
+	 * Returns the number of scenarios that failed.
+	 *
+	 * @return
+	 */
+	public long getErrors() {
+		long errors = 0;
+		for(ScenarioStatistics statistics : scenarios.values()) {
+			errors += statistics.errors;
+		}
+		return errors;
+	}
+
+	/**
+	 * Returns the share of scenarios that failed, between 0 and 1.
+	 *
+	 * @return
+	 */
+	public double getErrorRate() {
+		long executions = getExecutions();
+		return executions > 0 ? (double)getErrors() / executions : 0;
+	}
+
+	/**
+	 * Returns the scenarios executed per second.
+	 *
+	 * @return
+	 */
+	public double getThroughput() {
+		return elapsedNanos > 0 ? getExecutions() * (double)TimeUnit.SECONDS.toNanos(1) / elapsedNanos : 0;
+	}
+
+	/*
+	 * (non-Javadoc)
+	 * @see java.lang.Object#toString()
+	 */
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder();
+		builder.append(String.format("%d scenarios in %dms, %.1f/s, %d errors (%.2f%%)%n",
+		                             getExecutions(), TimeUnit.NANOSECONDS.toMillis(elapsedNanos), getThroughput(),
+		                             getErrors(), getErrorRate() * 100));
+		builder.append(String.format("%-12s %10s %8s %10s %10s %10s %10s%n",
+		                             "scenario", "executions", "errors", "p50 (us)", "p90 (us)", "p99 (us)", "max (us)"));
+		for(ScenarioStatistics statistics : scenarios.values()) {
+			builder.append(String.format("%-12s %10d %8d %10d %10d %10d %10d%n",
+			                             statistics.name, statistics.executions, statistics.errors,
+			                             statistics.getPercentile(50, TimeUnit.MICROSECONDS),
+			                             statistics.getPercentile(90, TimeUnit.MICROSECONDS),
+			                             statistics.getPercentile(99, TimeUnit.MICROSECONDS),
+			                             statistics.getMaxLatency(TimeUnit.MICROSECONDS)));
+		}
+		for(ScenarioStatistics statistics : scenarios.values()) {
+			builder.append(statistics.histogram());
+			for(String error : statistics.errorMessages) {
+				builder.append("  error: ").append(error).append(String.format("%n"));
+			}
+		}
+		return builder.toString();
+	}
+
+	/**
+	 * Executions, errors and latencies of a single scenario. Latencies are counted in buckets of which there are
+	 * {@value #SUB_BUCKETS} per power of two microseconds, so percentiles are accurate to within an eighth.
+	 */
+	public static class ScenarioStatistics {
+
+		static final int SUB_BUCKETS        = 8;
+		static final int SUB_BUCKET_BITS    = 3;
+		static final int MAX_ERROR_MESSAGES = 5;
+
+		private final String       name;
+		private final long[]       buckets       = new long[(64 - SUB_BUCKET_BITS) * SUB_BUCKETS];
+		private final List<String> errorMessages = new ArrayList<String>();
+		private long executions;
+		private long errors;
+		private long maxMicros;
+
+		ScenarioStatistics(String name) {
+			this.name = name;
+		}
+
+		void record(long nanos, String error) {
+			long micros = TimeUnit.NANOSECONDS.toMicros(nanos);
+			executions++;
+			buckets[bucketOf(micros)]++;
+			maxMicros = Math.max(maxMicros, micros);
+
+			if(null != error) {
+				errors++;
+				if(errorMessages.size() < MAX_ERROR_MESSAGES) {
+					errorMessages.add(error);
+				}
+			}
+		}
+
+		void merge(ScenarioStatistics statistics) {
+			executions += statistics.executions;
+			errors += statistics.errors;
+			maxMicros = Math.max(maxMicros, statistics.maxMicros);
+			for(int i = 0; i < buckets.length; i++) {
+				buckets[i] += statistics.buckets[i];
+			}
+			for(String error : statistics.errorMessages) {
+				if(errorMessages.size() < MAX_ERROR_MESSAGES) {
+					errorMessages.add(error);
+				}
+			}
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public long getExecutions() {
+			return executions;
+		}
+
+		public long getErrors() {
+			return errors;
+		}
+
+		/**
+		 * Returns the latency the given percentage of executions stayed within.
+		 *
+		 * @param percentile
+		 *     between 0 and 100.
+		 * @param unit
+		 *     must not be {@literal null}.
+		 *
+		 * @return the upper bound of the bucket the percentile falls into, or 0 if nothing was executed.
+		 */
+		public long getPercentile(double percentile, TimeUnit unit) {
+			long rank = (long)Math.ceil(executions * percentile / 100);
+			long count = 0;
+			for(int i = 0; i < buckets.length && executions > 0; i++) {
+				count += buckets[i];
+				if(count >= Math.max(rank, 1)) {
+					return unit.convert(Math.min(upperBoundOf(i), maxMicros), TimeUnit.MICROSECONDS);
+				}
+			}
+			return 0;
+		}
+
+		public long getMaxLatency(TimeUnit unit) {
+			return unit.convert(maxMicros, TimeUnit.MICROSECONDS);
+		}
+
+		/**
+		 * Renders the executions per power of two microseconds.
+		 */
+		String histogram() {
+			StringBuilder builder = new StringBuilder(String.format("%s latencies:%n", name));
+			for(int i = 0; i < buckets.length; i += SUB_BUCKETS) {
+				long count = 0;
+				for(int j = i; j < i + SUB_BUCKETS; j++) {
+					count += buckets[j];
+				}
+				if(count > 0) {
+					builder.append(String.format("  < %8dus %8d %s%n",
+					                             upperBoundOf(i + SUB_BUCKETS - 1), count, bar(count)));
+				}
+			}
+			return builder.toString();
+		}
+
+		private String bar(long count) {
+			StringBuilder bar = new StringBuilder();
+			for(long i = 0, width = Math.round(50.0 * count / executions); i < width; i++) {
+				bar.append('#');
+			}
+			return bar.toString();
+		}
+
+		/**
+		 * Values below {@value #SUB_BUCKETS} have a bucket each, larger ones share a bucket with the values that agree in
+		 * their highest {@value #SUB_BUCKET_BITS} bits below the leading one.
+		 */
+		static int bucketOf(long micros) {
+			if(micros < SUB_BUCKETS) {
+				return (int)micros;
+			}
+			int exponent = 63 - Long.numberOfLeadingZeros(micros);
+			int subBucket = (int)(micros >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+			return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+		}
+
+		static long upperBoundOf(int bucket) {
+			if(bucket < SUB_BUCKETS) {
+				return bucket + 1;
+			}
+			int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+			long subBucket = bucket % SUB_BUCKETS;
+			return (SUB_BUCKETS + subBucket + 1) << (exponent - SUB_BUCKET_BITS);
+		}
+
+	}
+
+}
@@ -0,0 +1,50 @@
+package org.springframework.data.rest.tck;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+
+import org.springframework.hateoas.Link;
+import org.springframework.hateoas.LinkDiscoverer;
+import org.springframework.hateoas.core.DefaultLinkDiscoverer;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+
+/**
+ * Orders to create, shared by the tests and the benchmarks, which discover what they link to through their own
+ * {@link MockMvc}.
+ */
+public class OrderFixtures {
+
+	private static final MediaType      COMPACT_JSON = MediaType.parseMediaType("application/x-spring-data-compact+json");
+	private static final LinkDiscoverer LINKS        = new DefaultLinkDiscoverer();
+
+	private OrderFixtures() {
+	}
+
+	/**
+	 * Returns the JSON of {@literal new-order-1.txt}, linked to the first customer, its address and the first product.
+	 */
+	public static String newOrderJson(MockMvc mockMvc) throws Exception {
+		Link root = new Link("/");
+		Link customer = discover(mockMvc, discover(mockMvc, root, "customer").get(0), "customer.customer").get(0);
+		Link address = discover(mockMvc, discover(mockMvc, customer, "customer.customer.addresses").get(0),
+		                        "customer.customer.addresses.address").get(0);
+		Link product = discover(mockMvc, discover(mockMvc, root, "product").get(0), "product.product").get(0);
+
+		String json = new String(Files.readAllBytes(Paths.get("src/test/resources/new-order-1.txt")));
+		json = json.replaceAll("%CUSTOMER_HREF%", customer.getHref());
+		json = json.replaceAll("%ADDR_HREF%", address.getHref());
+		return json.replaceAll("%PRODUCT_HREF%", product.getHref());
+	}
+
+	private static List<Link> discover(MockMvc mockMvc, Link root, String rel) throws Exception {
+		String json = mockMvc
+				.perform(get(root.getHref()).accept(COMPACT_JSON))
+				.andReturn().getResponse().getContentAsString();
+		return LINKS.findLinksWithRel(rel, json);
+	}
+
+}
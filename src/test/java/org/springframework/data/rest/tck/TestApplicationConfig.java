@@ -1,9 +1,12 @@
 package org.springframework.data.rest.tck;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.MessageSource;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.support.ReloadableResourceBundleMessageSource;
+import org.springframework.data.rest.tck.web.EntityWriters;
 import org.springframework.data.rest.webmvc.config.RepositoryRestMvcConfiguration;
 import org.springframework.web.servlet.i18n.LocaleChangeInterceptor;
 import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandlerMapping;
@@ -14,6 +17,9 @@ import org.springframework.web.servlet.mvc.method.annotation.RequestMappingHandl
 @Configuration
 public class TestApplicationConfig extends RepositoryRestMvcConfiguration {
 
+	@Autowired
+	private EntityWriters entityWriters;
+
 	@Bean public MessageSource messageSource() {
 		ReloadableResourceBundleMessageSource msgsrc = new ReloadableResourceBundleMessageSource();
 		msgsrc.setBasenames("WEB-INF/messages/ValidationMessages");
@@ -21,6 +27,10 @@ public class TestApplicationConfig extends RepositoryRestMvcConfiguration {
 		return msgsrc;
 	}
 
+	@Override protected void configureJacksonObjectMapper(ObjectMapper objectMapper) {
+		entityWriters.registerWith(objectMapper);
+	}
+
 	@Override public RequestMappingHandlerMapping repositoryExporterHandlerMapping() {
 		RequestMappingHandlerMapping handlerMapping = super.repositoryExporterHandlerMapping();
 
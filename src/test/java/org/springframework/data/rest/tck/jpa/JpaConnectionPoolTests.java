@@ -0,0 +1,222 @@
+package org.springframework.data.rest.tck.jpa;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckLoadTest;
+import org.springframework.data.rest.tck.LoadReport;
+import org.springframework.data.rest.tck.jdbc.PooledDataSource;
+import org.springframework.data.rest.tck.jpa.repository.CustomerRepository;
+import org.springframework.data.rest.tck.web.ConnectionPoolController;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests the {@link PooledDataSource} under concurrent requests and transactions: request throughput grows from one
+ * thread to as many threads as the pool has connections, the pool hands out connections up to its size, and threads
+ * beyond it wait for a connection instead of starving. Each request and transaction also holds its connection for
+ * {@link #WORK_MILLIS}, standing in for the work a request does besides querying. Throughput is logged per number of
+ * threads.
+ */
+@ActiveProfiles(JpaConfig.POOL_PROFILE)
+public class JpaConnectionPoolTests extends AbstractTckLoadTest {
+
+	static final Logger LOG                   = LoggerFactory.getLogger(JpaConnectionPoolTests.class);
+	static final int    OPERATIONS_PER_THREAD = 100;
+	static final long   WORK_MILLIS           = 2;
+	static final long   LOAD_MILLIS           = 1000;
+
+	@Autowired
+	protected TestDataLoader             dataLoader;
+	@Autowired
+	protected PooledDataSource           connectionPool;
+	@Autowired
+	protected CustomerRepository         customers;
+	@Autowired
+	protected PlatformTransactionManager transactionManager;
+	@Autowired
+	protected DataSource                 dataSource;
+	protected TransactionTemplate        tx;
+
+	@Override protected void loadData() {
+		dataLoader.loadData();
+	}
+
+	@Override protected void deleteData() {
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		for(String table : JpaTckLoadTests.TABLES) {
+			jdbc.update("delete from " + table);
+		}
+	}
+
+	@Before
+	public void setupTransactions() {
+		tx = new TransactionTemplate(transactionManager);
+	}
+
+	@Test
+	public void scalesRequestThroughputWithThreadsUpToPoolSize() throws Exception {
+		final String customer = "/customer/" + customers.findByEmailAddress("john.doe@gmail.com").getId();
+		Scenario read = new Scenario("read", 1) {
+			@Override public void run(Random random) throws Exception {
+				tx.execute(new TransactionCallback<Object>() {
+					@Override public Object doInTransaction(TransactionStatus status) {
+						try {
+							request(customer);
+							Thread.sleep(WORK_MILLIS);
+						} catch(Exception e) {
+							throw new IllegalStateException(e);
+						}
+						return null;
+					}
+				});
+			}
+		};
+		int maxActive = connectionPool.getMaxActive();
+		long timeouts = connectionPool.getTimeouts();
+		// Warm up, so the single thread isn't measured against a cold JVM
+		runLoad(maxActive, LOAD_MILLIS, TimeUnit.MILLISECONDS, read);
+
+		List<Double> throughput = new ArrayList<Double>();
+		for(int threads = 1; threads <= maxActive; threads *= 2) {
+			LoadReport report = runLoad(threads, LOAD_MILLIS, TimeUnit.MILLISECONDS, read);
+			LOG.info("{} threads: {} requests/s, pool: {}",
+			         threads, String.format("%.0f", report.getThroughput()), connectionPool);
+			assertThat("No request failed on " + threads + " threads", report.getErrors(), is(0L));
+			throughput.add(report.getThroughput());
+		}
+
+		assertThat("Throughput grows with the threads", throughput.get(throughput.size() - 1),
+		           greaterThan(throughput.get(0)));
+		assertThat("No request timed out waiting for a connection", connectionPool.getTimeouts(), is(timeouts));
+		assertThat("All connections are back in the pool", connectionPool.getActive(), is(0));
+	}
+
+	@Test
+	public void handsOutConnectionsUpToPoolSize() throws Exception {
+		final int maxActive = connectionPool.getMaxActive();
+		final CyclicBarrier allActive = new CyclicBarrier(maxActive);
+
+		run(maxActive, 1, new Runnable() {
+			@Override public void run() {
+				// Holds on to the connection until every thread got one
+				try {
+					allActive.await(connectionPool.getMaxWait(), TimeUnit.MILLISECONDS);
+				} catch(Exception e) {
+					throw new IllegalStateException(e);
+				}
+			}
+		});
+
+		assertThat("Pool was used up to its size", connectionPool.getLargestActive(), is(maxActive));
+		assertThat("All connections are back in the pool", connectionPool.getActive(), is(0));
+	}
+
+	@Test
+	public void servesThreadsBeyondPoolSizeWithoutStarving() throws Exception {
+		int threads = connectionPool.getMaxActive() * 2;
+		long connections = connectionPool.getConnections();
+		long timeouts = connectionPool.getTimeouts();
+
+		run(threads, OPERATIONS_PER_THREAD, new Runnable() {
+			@Override public void run() {
+				try {
+					Thread.sleep(WORK_MILLIS);
+				} catch(InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+		});
+
+		assertThat("Every operation got a connection", connectionPool.getConnections() - connections,
+		           is((long)threads * OPERATIONS_PER_THREAD));
+		assertThat("No thread timed out waiting for a connection", connectionPool.getTimeouts(), is(timeouts));
+		assertThat("Nobody is left waiting", connectionPool.getWaitCount(), is(0));
+		assertThat("All connections are back in the pool", connectionPool.getActive(), is(0));
+	}
+
+	/**
+	 * {@link ConnectionPoolController} reports the pool's metrics.
+	 */
+	@Test
+	public void exposesPoolMetrics() throws Exception {
+		run(1, 1, new Runnable() {
+			@Override public void run() {
+			}
+		});
+
+		String json = mockMvc
+				.perform(get("/pool").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		assertThat(JsonPath.<Integer>read(json, "maxActive"), is(connectionPool.getMaxActive()));
+		assertThat(JsonPath.<Integer>read(json, "active"), is(0));
+		assertThat(JsonPath.<Integer>read(json, "largestActive"), greaterThan(0));
+		assertThat(JsonPath.<Integer>read(json, "idle"), greaterThan(0));
+		assertThat(JsonPath.<Integer>read(json, "waiting"), is(0));
+		assertThat(JsonPath.read(json, "connections").toString(), is(String.valueOf(connectionPool.getConnections())));
+		assertThat(JsonPath.read(json, "timeouts").toString(), is(String.valueOf(connectionPool.getTimeouts())));
+		for(String metric : new String[]{"size", "waitTimeMillis", "maxWaitTimeMillis"}) {
+			assertThat(metric, JsonPath.read(json, metric), notNullValue());
+		}
+	}
+
+	/**
+	 * Runs the given number of operations on each of the given number of threads, each operation querying and doing the
+	 * given work in a transaction of its own, and waits for all of them to complete.
+	 */
+	private void run(int threads, final int operationsPerThread, final Runnable work) throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		try {
+			List<Callable<Object>> tasks = new ArrayList<Callable<Object>>();
+			for(int i = 0; i < threads; i++) {
+				tasks.add(new Callable<Object>() {
+					@Override public Object call() throws Exception {
+						for(int j = 0; j < operationsPerThread; j++) {
+							tx.execute(new TransactionCallback<Object>() {
+								@Override public Object doInTransaction(TransactionStatus status) {
+									customers.findByEmailAddress("john.doe@gmail.com");
+									work.run();
+									return null;
+								}
+							});
+						}
+						return null;
+					}
+				});
+			}
+
+			for(Future<Object> result : executor.invokeAll(tasks)) {
+				result.get();
+			}
+		} finally {
+			executor.shutdown();
+		}
+	}
+
+}
@@ -0,0 +1,77 @@
+package org.springframework.data.rest.tck.jpa;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.jpa.domain.Customer;
+import org.springframework.data.rest.tck.jpa.domain.EmailAddress;
+import org.springframework.data.rest.tck.jpa.repository.CustomerRepository;
+
+/**
+ * Tests the validation of {@link EmailAddress}es and the lookup of {@link Customer}s by their normalized address.
+ */
+public class JpaCustomerEmailTests extends AbstractTckTest {
+
+	static final String[] VALID   = {"john.doe@gmail.com", "John_Doe-1@Mail.Example.ORG", "a@b.cd", "x@1.2.com",
+			"-@a.bc", "a.b.c@d.e.fg"};
+	static final String[] INVALID = {"", "@gmail.com", "john.doe@", "john..doe@gmail.com", ".john@gmail.com",
+			"john.@gmail.com", "john@gmail", "john@gmail.c", "john@gmail.c0m", "john@gmail..com", "john@.gmail.com",
+			"john@gmail.com.", "john@gm_ail.com", "john@doe@gmail.com", "john doe@gmail.com", "j\u00f6hn@gmail.com",
+			"john@gmail.com\n"};
+
+	@Autowired
+	protected TestDataLoader     dataLoader;
+	@Autowired
+	protected CustomerRepository customers;
+
+	@Override protected void loadData() {
+		dataLoader.loadData();
+	}
+
+	@Override protected void deleteData() {
+	}
+
+	@Test
+	public void acceptsWellFormedAddressesOnly() {
+		for(String candidate : VALID) {
+			assertTrue(candidate + " is valid", EmailAddress.isValid(candidate));
+		}
+		for(String candidate : INVALID) {
+			assertFalse(candidate + " is invalid", EmailAddress.isValid(candidate));
+		}
+		assertFalse("null is invalid", EmailAddress.isValid(null));
+	}
+
+	/**
+	 * Dot-separated runs like these made the regular expression used before recurse once per run.
+	 */
+	@Test
+	public void rejectsLongMalformedAddressesWithoutBacktracking() {
+		StringBuilder candidate = new StringBuilder();
+		for(int i = 0; i < 100000; i++) {
+			candidate.append("a.");
+		}
+
+		assertFalse(EmailAddress.isValid(candidate.append('!').toString()));
+	}
+
+	@Test
+	public void findsCustomerByEmailAddressIgnoringCase() {
+		Customer customer = customers.findByEmailAddress("John.Doe@GMAIL.com");
+
+		assertThat("Customer is found by the address in other case", customer, notNullValue());
+		assertThat(customer.getEmailAddress().toString(), is("john.doe@gmail.com"));
+	}
+
+	@Test(expected = DataIntegrityViolationException.class)
+	public void rejectsEmailAddressDifferingInCaseOnly() {
+		Customer customer = new Customer("Johnny", "Doe");
+		customer.setEmailAddress(new EmailAddress("JOHN.DOE@gmail.com"));
+		customers.save(customer);
+	}
+
+}
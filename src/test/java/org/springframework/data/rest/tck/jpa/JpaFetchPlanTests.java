@@ -0,0 +1,84 @@
+package org.springframework.data.rest.tck.jpa;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.jpa.domain.Address;
+import org.springframework.data.rest.tck.jpa.domain.Customer;
+import org.springframework.data.rest.tck.jpa.domain.LineItem;
+import org.springframework.data.rest.tck.jpa.domain.Order;
+import org.springframework.data.rest.tck.jpa.domain.Product;
+import org.springframework.data.rest.tck.jpa.repository.CustomerRepository;
+import org.springframework.data.rest.tck.jpa.repository.OrderRepository;
+import org.springframework.data.rest.tck.jpa.repository.ProductRepository;
+import org.springframework.http.MediaType;
+
+/**
+ * Tests that rendering {@link Order}s doesn't issue a select per order and association.
+ */
+public class JpaFetchPlanTests extends AbstractTckTest {
+
+	static final int ORDERS = 25;
+
+	@Autowired
+	protected TestDataLoader dataLoader;
+	@Autowired
+	protected CustomerRepository customers;
+	@Autowired
+	protected ProductRepository products;
+	@Autowired
+	protected OrderRepository orders;
+	@PersistenceContext
+	protected EntityManager em;
+	protected Customer customer;
+
+	@Override protected void loadData() {
+		dataLoader.loadData();
+
+		customer = customers.findAll().iterator().next();
+		Product product = products.findAll().iterator().next();
+
+		for(int i = 0; i < ORDERS; i++) {
+			Order order = new Order(customer, new Address("123 W 1st Street", "Univille", "USA"));
+			order.add(new LineItem(product, i + 1));
+			orders.save(order);
+		}
+
+		// Make the requests load from the database rather than the persistence context
+		em.flush();
+		em.clear();
+	}
+
+	@Override protected void deleteData() {
+	}
+
+	/**
+	 * A page of 20 orders used to take a select for every order's customer, addresses and line items.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void rendersPageOfOrdersWithBoundedStatementCount() throws Exception {
+		mockMvc
+				.perform(get("/order").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(maxQueries(10));
+	}
+
+	@Test
+	public void prefetchesLineItemsAndProductsOfCustomerOrders() throws Exception {
+		mockMvc
+				.perform(get("/order/search/findByCustomerId")
+						         .param("customerId", customer.getId().toString())
+						         .accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(maxQueries(3));
+	}
+
+}
@@ -0,0 +1,120 @@
+package org.springframework.data.rest.tck.jpa;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hamcrest.Matchers;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.jdbc.StatementStatistics;
+import org.springframework.data.rest.tck.jpa.domain.Order;
+import org.springframework.data.rest.tck.jpa.repository.OrderRepository;
+import org.springframework.data.rest.tck.web.OrderSeekController;
+import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Tests paging through {@link Order}s with the {@literal after} cursor of {@link OrderSeekController}.
+ */
+public class JpaKeysetPagingTests extends AbstractTckTest {
+
+	static final int SCALE     = 6;
+	static final int DEEP_PAGE = 10000;
+
+	@Autowired
+	protected TestDataGenerator dataGenerator;
+	@Autowired
+	protected OrderRepository   orders;
+	@PersistenceContext
+	protected EntityManager     em;
+
+	@Override protected void loadData() {
+		dataGenerator.generate(1, SCALE);
+	}
+
+	@Override protected void deleteData() {
+	}
+
+	@Test
+	public void followsNextLinksThroughOrdersInIdOrder() throws Exception {
+		List<Long> ids = new ArrayList<Long>();
+		String href = "/order/search/seek?limit=2";
+
+		for(int page = 0; page < 3; page++) {
+			String json = mockMvc
+					.perform(get(href).accept(MediaType.APPLICATION_JSON))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString();
+
+			List<Link> orderLinks = links.findLinksWithRel(OrderSeekController.ORDER_REL, json);
+			assertThat("Page has a full set of Orders", orderLinks, Matchers.<Link>iterableWithSize(2));
+			for(Link order : orderLinks) {
+				ids.add(Long.valueOf(order.getHref().substring(order.getHref().lastIndexOf('/') + 1)));
+			}
+
+			href = links.findLinkWithRel(OrderSeekController.NEXT_REL, json).getHref();
+			assertThat("Next Link carries the last id as cursor", href, containsString("after=" + ids.get(ids.size() - 1)));
+		}
+
+		List<Long> expected = new ArrayList<Long>();
+		for(Order order : orders.findAll(new PageRequest(0, 6, Sort.Direction.ASC, "id"))) {
+			expected.add(order.getId());
+		}
+		assertThat("Pages follow each other without gaps or repetitions", ids, is(expected));
+	}
+
+	/**
+	 * Page {@value #DEEP_PAGE} of single {@link Order}s takes the same statements and rows as the first page, as the
+	 * cursor avoids reading past the previous pages. The rows an {@literal offset} skips aren't handed to JDBC, so the
+	 * page's query has to seek to the cursor instead of skipping to it.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void deepPageCostsTheSameAsFirstPage() throws Exception {
+		Order last = orders.findAll(new PageRequest(DEEP_PAGE - 2, 1, Sort.Direction.ASC, "id")).getContent().get(0);
+
+		StatementStatistics first = seek("/order/search/seek?limit=1");
+		StatementStatistics deep = seek("/order/search/seek?limit=1&after=" + last.getId());
+
+		assertThat("Statements of page " + DEEP_PAGE, deep.getStatements(), is(first.getStatements()));
+		assertThat("Rows read for page " + DEEP_PAGE, deep.getRows(), is(first.getRows()));
+
+		String query = null;
+		for(String sql : deep.getSql()) {
+			if(sql.toLowerCase().contains(" from orders ")) {
+				query = sql.toLowerCase();
+			}
+		}
+		assertThat("Page " + DEEP_PAGE + " selects Orders", query, notNullValue());
+		assertTrue("Page " + DEEP_PAGE + " seeks past the cursor: " + query,
+		           Pattern.compile("where \\w+\\.id ?> ?\\?").matcher(query).find());
+		assertThat("Page " + DEEP_PAGE + " skips no rows", query, not(containsString(" offset ")));
+	}
+
+	private StatementStatistics seek(String href) throws Exception {
+		// Make the request load from the database rather than the persistence context
+		em.clear();
+
+		MvcResult result = mockMvc
+				.perform(get(href).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(linkWithRel(OrderSeekController.ORDER_REL))
+				.andExpect(linkWithRel(OrderSeekController.NEXT_REL))
+				.andReturn();
+		return statementStatistics(result);
+	}
+
+}
@@ -0,0 +1,106 @@
+package org.springframework.data.rest.tck.jpa;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.regex.Pattern;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.DecimalNode;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.jpa.domain.LineItem;
+import org.springframework.data.rest.tck.jpa.domain.Money;
+import org.springframework.data.rest.tck.jpa.domain.Product;
+import org.springframework.data.rest.tck.jpa.repository.LineItemRepository;
+import org.springframework.data.rest.tck.jpa.repository.ProductRepository;
+import org.springframework.hateoas.Link;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Tests prices and totals held as {@link Money}. They are rendered exactly like the {@link BigDecimal}s read from their
+ * columns, which the entities held before, were rendered. As {@link Money} is immutable, entities may share instances.
+ */
+public class JpaMoneyTests extends AbstractTckTest {
+
+	@Autowired
+	protected TestDataLoader     dataLoader;
+	@Autowired
+	protected ProductRepository  products;
+	@Autowired
+	protected LineItemRepository lineItems;
+	@Autowired
+	protected DataSource         dataSource;
+	@PersistenceContext
+	protected EntityManager      em;
+	protected ObjectMapper       mapper = new ObjectMapper().enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+	@Override protected void loadData() {
+		dataLoader.loadData();
+		em.flush();
+		em.clear();
+	}
+
+	@Override protected void deleteData() {
+	}
+
+	@Test
+	public void rendersOrderTotalAsBigDecimal() throws Exception {
+		assertRendersColumn(discover(discoverRootLink("order"), "order.order").get(0), "Orders", "total");
+	}
+
+	@Test
+	public void rendersLineItemPriceAsBigDecimal() throws Exception {
+		assertRendersColumn(discover(discoverRootLink("lineItem"), "lineItem.lineItem").get(0), "LineItem", "price");
+	}
+
+	@Test
+	public void rendersProductPriceAsBigDecimal() throws Exception {
+		assertRendersColumn(discover(discoverRootLink("product"), "product.product").get(0), "Product", "price");
+	}
+
+	@Test
+	public void mergesPriceWithoutChangingSharedInstance() {
+		Product product = products.findAll().iterator().next();
+		long minorUnits = product.getPrice().getMinorUnits();
+		LineItem lineItem = lineItems.save(new LineItem(product, 2));
+		em.flush();
+		assertThat("LineItem shares the Product's price", lineItem.getUnitPrice(), sameInstance(product.getPrice()));
+
+		LineItem detached = new LineItem(product, 2);
+		ReflectionTestUtils.setField(detached, "id", lineItem.getId());
+		ReflectionTestUtils.setField(detached, "version", lineItem.getVersion());
+		detached.setPrice(Money.ofMinorUnits(minorUnits + 1));
+		em.merge(detached);
+		em.flush();
+
+		assertThat("Product keeps its price", product.getPrice().getMinorUnits(), is(minorUnits));
+		assertThat(lineItem.getUnitPrice().getMinorUnits(), is(minorUnits + 1));
+	}
+
+	/**
+	 * Asserts that the resource renders the property as the {@link BigDecimal} read from the column of the same name.
+	 */
+	private void assertRendersColumn(Link resource, String table, String property) throws Exception {
+		String href = resource.getHref();
+		Long id = Long.valueOf(href.substring(href.lastIndexOf('/') + 1));
+		BigDecimal column = new JdbcTemplate(dataSource)
+				.queryForObject("select " + property + " from " + table + " where id = ?", BigDecimal.class, id);
+
+		String json = request(href).getContentAsString();
+
+		assertThat("Same number", mapper.readTree(json).get(property), is((JsonNode)DecimalNode.valueOf(column)));
+		assertTrue(String.format("%s renders %s as %s", json, property, mapper.writeValueAsString(column)),
+		           Pattern.compile("\"" + property + "\"\\s*:\\s*" + Pattern.quote(mapper.writeValueAsString(column))
+				                           + "[\\s,}]").matcher(json).find());
+	}
+
+}
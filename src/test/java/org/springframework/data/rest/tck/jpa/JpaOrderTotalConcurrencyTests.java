@@ -0,0 +1,167 @@
+package org.springframework.data.rest.tck.jpa;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.jpa.domain.Address;
+import org.springframework.data.rest.tck.jpa.domain.Customer;
+import org.springframework.data.rest.tck.jpa.domain.LineItem;
+import org.springframework.data.rest.tck.jpa.domain.Order;
+import org.springframework.data.rest.tck.jpa.domain.Product;
+import org.springframework.data.rest.tck.jpa.repository.CustomerRepository;
+import org.springframework.data.rest.tck.jpa.repository.LineItemRepository;
+import org.springframework.data.rest.tck.jpa.repository.OrderRepository;
+import org.springframework.data.rest.tck.jpa.repository.ProductRepository;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests that an {@link Order}'s total stays consistent with its {@link LineItem}s while they are added, changed and
+ * deleted in concurrent transactions. Unlike the other tests, these commit, and remove their data afterwards.
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(classes = JpaConfig.class)
+public class JpaOrderTotalConcurrencyTests {
+
+	static final int        THREADS          = 8;
+	static final int        ITEMS_PER_THREAD = 25;
+	static final BigDecimal PRICE            = new BigDecimal("9.99");
+
+	@Autowired
+	protected CustomerRepository         customers;
+	@Autowired
+	protected ProductRepository          products;
+	@Autowired
+	protected OrderRepository            orders;
+	@Autowired
+	protected LineItemRepository         lineItems;
+	@Autowired
+	protected PlatformTransactionManager transactionManager;
+	protected TransactionTemplate        tx;
+	protected Customer                   customer;
+	protected Product                    product;
+	protected Long                       orderId;
+
+	@Before
+	public void setup() {
+		tx = new TransactionTemplate(transactionManager);
+		tx.execute(new TransactionCallback<Object>() {
+			@Override public Object doInTransaction(TransactionStatus status) {
+				Address address = new Address("123 W 1st Street", "Univille", "USA");
+				customer = new Customer("Concurrent", "Buyer");
+				customer.add(address);
+				customer = customers.save(customer);
+				product = products.save(new Product("Counter", PRICE));
+				orderId = orders.save(new Order(customer, address)).getId();
+				return null;
+			}
+		});
+	}
+
+	@After
+	public void tearDown() {
+		tx.execute(new TransactionCallback<Object>() {
+			@Override public Object doInTransaction(TransactionStatus status) {
+				// Cascades to the Customer and the addresses
+				orders.delete(orderId);
+				products.delete(product.getId());
+				return null;
+			}
+		});
+	}
+
+	/**
+	 * Every thread adds line items of one unit, raises each of them to three units and deletes every fifth of them again,
+	 * each step in a transaction of its own.
+	 *
+	 * @throws Exception
+	 */
+	@Test
+	public void totalFollowsConcurrentLineItemChanges() throws Exception {
+		ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+		List<Future<Integer>> results = new ArrayList<Future<Integer>>();
+		for(int i = 0; i < THREADS; i++) {
+			results.add(executor.submit(new LineItemChanges()));
+		}
+
+		int remaining = 0;
+		for(Future<Integer> result : results) {
+			remaining += result.get();
+		}
+		executor.shutdown();
+
+		Order order = orders.findOne(orderId);
+		assertThat("Total matches the remaining LineItems",
+		           order.getTotal().toBigDecimal(),
+		           comparesEqualTo(PRICE.multiply(BigDecimal.valueOf(3 * remaining))));
+		assertThat("Order holds the remaining LineItems",
+		           lineItemsOf(orderId),
+		           is(remaining));
+	}
+
+	private int lineItemsOf(final Long orderId) {
+		return tx.execute(new TransactionCallback<Integer>() {
+			@Override public Integer doInTransaction(TransactionStatus status) {
+				return orders.findOne(orderId).getLineItems().size();
+			}
+		});
+	}
+
+	private class LineItemChanges implements Callable<Integer> {
+
+		@Override public Integer call() {
+			int remaining = 0;
+
+			for(int i = 0; i < ITEMS_PER_THREAD; i++) {
+				final Long lineItemId = tx.execute(new TransactionCallback<Long>() {
+					@Override public Long doInTransaction(TransactionStatus status) {
+						LineItem lineItem = new LineItem(product);
+						orders.findOne(orderId).add(lineItem);
+						lineItems.save(lineItem);
+						return lineItem.getId();
+					}
+				});
+
+				tx.execute(new TransactionCallback<Object>() {
+					@Override public Object doInTransaction(TransactionStatus status) {
+						lineItems.findOne(lineItemId).setAmount(3);
+						return null;
+					}
+				});
+
+				if(i % 5 == 0) {
+					tx.execute(new TransactionCallback<Object>() {
+						@Override public Object doInTransaction(TransactionStatus status) {
+							Order order = orders.findOne(orderId);
+							order.getLineItems().remove(lineItems.findOne(lineItemId));
+							return null;
+						}
+					});
+				} else {
+					remaining++;
+				}
+			}
+
+			return remaining;
+		}
+
+	}
+
+}
@@ -0,0 +1,209 @@
+package org.springframework.data.rest.tck.jpa;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.jpa.domain.LineItem;
+import org.springframework.data.rest.tck.jpa.domain.Money;
+import org.springframework.data.rest.tck.jpa.domain.Order;
+import org.springframework.data.rest.tck.jpa.repository.OrderRepository;
+import org.springframework.data.rest.tck.jpa.repository.ProductRepository;
+import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Tests that an {@link Order}'s total follows its {@link LineItem}s being added, changed and removed through the
+ * exported repositories, and in the loaded {@link Order} itself, and that the loaded {@link Order}'s version stays the
+ * one in the database meanwhile.
+ */
+public class JpaOrderTotalTests extends AbstractTckTest {
+
+	@Autowired
+	protected TestDataLoader    dataLoader;
+	@Autowired
+	protected DataSource        dataSource;
+	@Autowired
+	protected OrderRepository   orders;
+	@Autowired
+	protected ProductRepository products;
+	@PersistenceContext
+	protected EntityManager     em;
+	protected Link              order;
+	protected Link              orderLineItems;
+
+	@Override protected void loadData() {
+		dataLoader.loadData();
+	}
+
+	@Override protected void deleteData() {
+	}
+
+	@Test
+	public void linkingLineItemAddsToOrderTotal() throws Exception {
+		discoverOrder();
+		BigDecimal total = totalOf(order);
+
+		Link product = discover(discoverRootLink("product"), "product.product").get(0);
+
+		String jsonBody = new String(Files.readAllBytes(Paths.get("src/test/resources/lineitem-json.txt")));
+		jsonBody = jsonBody.replaceAll("%PRODUCT_HREF%", product.getHref());
+		String lineItem = mockMvc
+				.perform(post(discoverRootLink("lineItem").getHref())
+						         .contentType(MediaType.APPLICATION_JSON)
+						         .content(jsonBody))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getHeader("Location");
+
+		jsonBody = new String(Files.readAllBytes(Paths.get("src/test/resources/new-lineitem-json.txt")));
+		jsonBody = jsonBody.replaceAll("%LINEITEM_HREF%", lineItem);
+		mockMvc
+				.perform(post(orderLineItems.getHref())
+						         .contentType(MediaType.APPLICATION_JSON)
+						         .content(jsonBody))
+				.andExpect(status().isCreated());
+
+		// lineitem-json.txt holds a single item for 25.0
+		assertThat("Total includes the linked LineItem", totalOf(order), comparesEqualTo(total.add(new BigDecimal("25"))));
+	}
+
+	@Test
+	public void updatingLineItemChangesOrderTotal() throws Exception {
+		discoverOrder();
+		BigDecimal total = totalOf(order);
+		Link lineItem = discover(orderLineItems, "order.order.lineItems.lineItem").get(0);
+		String json = request(lineItem.getHref()).getContentAsString();
+		BigDecimal price = new BigDecimal(JsonPath.read(json, "price").toString());
+		int amount = Integer.parseInt(JsonPath.read(json, "amount").toString());
+
+		mockMvc
+				.perform(put(lineItem.getHref())
+						         .contentType(MediaType.APPLICATION_JSON)
+						         .content("{\"amount\": " + (amount + 2) + "}"))
+				.andExpect(status().isNoContent());
+
+		assertThat("Total reflects the changed amount",
+		           totalOf(order),
+		           comparesEqualTo(total.add(price.multiply(BigDecimal.valueOf(2)))));
+	}
+
+	@Test
+	public void deletingLineItemSubtractsFromOrderTotal() throws Exception {
+		discoverOrder();
+		BigDecimal total = totalOf(order);
+		Link lineItem = discover(orderLineItems, "order.order.lineItems.lineItem").get(0);
+		String json = request(lineItem.getHref()).getContentAsString();
+		BigDecimal price = new BigDecimal(JsonPath.read(json, "price").toString());
+		int amount = Integer.parseInt(JsonPath.read(json, "amount").toString());
+
+		// Forget the Order loaded while discovering the links, so it doesn't cascade to the deleted LineItem
+		em.clear();
+		mockMvc
+				.perform(delete(lineItem.getHref()))
+				.andExpect(status().isNoContent());
+
+		assertThat("Total no longer includes the deleted LineItem",
+		           totalOf(order),
+		           comparesEqualTo(total.subtract(price.multiply(BigDecimal.valueOf(amount)))));
+	}
+
+	@Test
+	public void removingLineItemSubtractsFromLoadedOrderTotal() throws Exception {
+		Order order = orders.findOne(saveOrderOfTwoLineItems());
+		LineItem removed = order.getLineItems().iterator().next();
+		Money total = order.getTotal().minus(removed.getTotal());
+
+		order.getLineItems().remove(removed);
+
+		assertThat("Total before flush", order.getTotal(), is(total));
+		assertThat("Total after flush", totalOf(order.getId()), comparesEqualTo(total.toBigDecimal()));
+		assertThat(order.getTotal(), is(total));
+
+		LineItem remaining = order.getLineItems().iterator().next();
+		order.remove(remaining);
+
+		assertThat(order.getTotal(), is(Money.ofMinorUnits(0)));
+		assertThat(totalOf(order.getId()), comparesEqualTo(BigDecimal.ZERO));
+	}
+
+	@Test
+	public void changingLineItemAmountChangesLoadedOrderTotal() throws Exception {
+		Order order = orders.findOne(saveOrderOfTwoLineItems());
+		LineItem lineItem = order.getLineItems().iterator().next();
+		Money total = order.getTotal().plus(lineItem.getUnitPrice().times(2));
+
+		lineItem.setAmount(lineItem.getAmount() + 2);
+
+		assertThat("Total before flush", order.getTotal(), is(total));
+		assertThat("Total after flush", totalOf(order.getId()), comparesEqualTo(total.toBigDecimal()));
+	}
+
+	@Test
+	public void keepsLoadedOrderVersionInLineWithDatabase() {
+		Order order = orders.findOne(saveOrderOfTwoLineItems());
+		long version = order.getVersion();
+
+		order.remove(order.getLineItems().iterator().next());
+		em.flush();
+
+		assertThat("Version follows the line items", order.getVersion(), greaterThan(version));
+		assertThat(order.getVersion(), is(versionOf(order.getId())));
+
+		order.add(new LineItem(products.findAll().iterator().next(), 1));
+		em.flush();
+
+		assertThat(order.getVersion(), is(versionOf(order.getId())));
+
+		orders.delete(order);
+		em.flush();
+
+		assertThat(orders.exists(order.getId()), is(false));
+	}
+
+	/**
+	 * Adds a second {@link LineItem} to one of the {@link Order}s, and forgets it, so it is loaded again by its id.
+	 */
+	private Long saveOrderOfTwoLineItems() {
+		Order order = orders.findAll().iterator().next();
+		order.add(new LineItem(products.findAll().iterator().next(), 3));
+		em.flush();
+		em.clear();
+		return order.getId();
+	}
+
+	private void discoverOrder() throws Exception {
+		order = discover(discoverRootLink("order"), "order.order").get(0);
+		orderLineItems = discover(order, "order.order.lineItems").get(0);
+	}
+
+	/**
+	 * Reads the total from the database, as the triggers maintaining it bypass the persistence context.
+	 */
+	private BigDecimal totalOf(Link order) {
+		String href = order.getHref();
+		return totalOf(Long.valueOf(href.substring(href.lastIndexOf('/') + 1)));
+	}
+
+	private BigDecimal totalOf(Long id) {
+		em.flush();
+		return new JdbcTemplate(dataSource).queryForObject("select total from Orders where id = ?", BigDecimal.class, id);
+	}
+
+	private long versionOf(Long id) {
+		return new JdbcTemplate(dataSource).queryForObject("select version from Orders where id = ?", Long.class, id);
+	}
+
+}
@@ -0,0 +1,98 @@
+package org.springframework.data.rest.tck.jpa;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.math.BigDecimal;
+import javax.sql.DataSource;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.jpa.domain.Product;
+import org.springframework.data.rest.tck.jpa.repository.ProductRepository;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests reading a {@link Product} through the exporter with the second-level cache. Each request reads in an
+ * {@link javax.persistence.EntityManager} of its own, so only the second-level cache can spare it the database. Nothing
+ * runs in a transaction of the test's own, so writes are committed, and the product is deleted again afterwards.
+ */
+@ActiveProfiles(JpaConfig.CACHE_PROFILE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JpaProductCacheTests extends AbstractTckTest {
+
+	@Autowired
+	protected ProductRepository          products;
+	@Autowired
+	protected SecondLevelCache           cache;
+	@Autowired
+	protected PlatformTransactionManager transactionManager;
+	@Autowired
+	protected DataSource                 dataSource;
+	protected Long                       productId;
+
+	@Override protected void loadData() {
+		Product product = new Product("Lamp", BigDecimal.TEN, "A desk lamp");
+		product.setAttribute("color", "red");
+		productId = products.save(product).getId();
+	}
+
+	@Override protected void deleteData() {
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		jdbc.update("delete from Product_attributes where Product_id = ?", productId);
+		jdbc.update("delete from Product where id = ?", productId);
+		cache.evictAll();
+	}
+
+	@Test
+	public void readsCachedProductWithoutStatements() throws Exception {
+		cache.evictAll();
+		long misses = cache.getMisses(SecondLevelCache.PRODUCT_REGION);
+		assertThat("First read goes to the database", statementStatistics(read()).getStatements(), greaterThan(0));
+		assertThat(cache.getMisses(SecondLevelCache.PRODUCT_REGION), greaterThan(misses));
+
+		long hits = cache.getHits(SecondLevelCache.PRODUCT_REGION);
+		assertThat("Second read is served from the cache", statementStatistics(read()).getStatements(), is(0));
+		assertThat(cache.getHits(SecondLevelCache.PRODUCT_REGION), greaterThan(hits));
+	}
+
+	@Test
+	public void readsProductUpdatedSinceCached() throws Exception {
+		read();
+		assertThat(attribute(read(), "color"), is("red"));
+
+		new TransactionTemplate(transactionManager).execute(new TransactionCallback<Object>() {
+			@Override public Object doInTransaction(TransactionStatus status) {
+				products.findOne(productId).setAttribute("color", "blue");
+				return null;
+			}
+		});
+
+		assertThat(attribute(read(), "color"), is("blue"));
+	}
+
+	private MvcResult read() throws Exception {
+		return mockMvc
+				.perform(get("/product/" + productId).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn();
+	}
+
+	private static String attribute(MvcResult result, String name) throws Exception {
+		return JsonPath.read(result.getResponse().getContentAsString(), "attributes." + name);
+	}
+
+}
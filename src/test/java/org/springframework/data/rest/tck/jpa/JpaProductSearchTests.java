@@ -0,0 +1,219 @@
+package org.springframework.data.rest.tck.jpa;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.jpa.domain.Product;
+import org.springframework.data.rest.tck.jpa.repository.ProductRepository;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests {@link ProductRepository#findByDescriptionContaining} answered from the {@link ProductSearchIndex} against the
+ * {@literal like} query it replaces, directly and as exported. Nothing runs in a transaction of the test's own, so
+ * writes are committed or rolled back like the exporter's, and the products written are deleted again afterwards.
+ */
+@ActiveProfiles(JpaConfig.SEARCH_PROFILE)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class JpaProductSearchTests extends AbstractTckTest {
+
+	static final String[] SNIPPETS = {"vintage", "Vintage", "ab", "e", " with ", "thermos.", "no such thing"};
+
+	@Autowired
+	protected ProductRepository          products;
+	@Autowired
+	protected ProductSearchIndex         searchIndex;
+	@Autowired
+	protected PlatformTransactionManager transactionManager;
+	@Autowired
+	protected DataSource                 dataSource;
+	@PersistenceContext
+	protected EntityManager              em;
+	protected List<Long>                 saved = new ArrayList<Long>();
+
+	@Override protected void loadData() {
+		save("Vintage lunchbox with thermos.");
+		save("A vintage, durable kettle.");
+		save("Cable with plug");
+		save("ab");
+	}
+
+	@Override protected void deleteData() {
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		for(Long id : saved) {
+			jdbc.update("delete from Product_attributes where Product_id = ?", id);
+			jdbc.update("delete from Product where id = ?", id);
+		}
+		searchIndex.invalidate();
+	}
+
+	@Test
+	public void findsSameProductsAsLikeQuery() {
+		for(String snippet : SNIPPETS) {
+			assertSameAsLikeQuery(snippet);
+		}
+	}
+
+	@Test
+	public void pagesSameProductsAsLikeQuery() {
+		List<Long> expected = like("e");
+		List<Long> found = new ArrayList<Long>();
+		for(int page = 0; page * 2 < expected.size(); page++) {
+			Page<Product> result = products.findByDescriptionContaining("e", new PageRequest(page, 2));
+			assertThat("Total of page " + page, result.getTotalElements(), is((long)expected.size()));
+			for(Product product : result) {
+				found.add(product.getId());
+			}
+		}
+		assertThat(found, is(expected));
+	}
+
+	@Test
+	public void findsCommittedSavesAndDeletes() {
+		assertSameAsLikeQuery("kettle");
+
+		Product lamp = products.findOne(save("A portable kettle lamp"));
+		assertThat("Index holds the committed Product", searchIndex.findIdsByDescriptionContaining("kettle lamp"),
+		           contains(lamp.getId()));
+		assertSameAsLikeQuery("kettle");
+
+		products.delete(lamp);
+		assertThat(searchIndex.findIdsByDescriptionContaining("kettle lamp"), empty());
+		assertSameAsLikeQuery("kettle");
+	}
+
+	@Test
+	public void findsOwnWritesButNoRolledBackOnes() {
+		assertSameAsLikeQuery("handmade");
+
+		new TransactionTemplate(transactionManager).execute(new TransactionCallback<Object>() {
+			@Override public Object doInTransaction(TransactionStatus status) {
+				saved.add(products.save(new Product("Mug", BigDecimal.TEN, "A handmade mug")).getId());
+				assertThat("Transaction finds its own Product",
+				           products.findByDescriptionContaining("handmade", new PageRequest(0, 10)).getContent(),
+				           hasSize(1));
+				status.setRollbackOnly();
+				return null;
+			}
+		});
+
+		assertThat(products.findByDescriptionContaining("handmade", new PageRequest(0, 10)).getContent(), empty());
+		assertSameAsLikeQuery("handmade");
+	}
+
+	@Test
+	public void dropsProductsDeletedBehindTheRepository() {
+		long id = save("A limited edition chair");
+		assertSameAsLikeQuery("edition");
+
+		new JdbcTemplate(dataSource).update("delete from Product where id = ?", id);
+
+		Page<Product> page = products.findByDescriptionContaining("edition", new PageRequest(0, 10));
+		assertThat(page.getContent(), empty());
+		assertThat(page.getTotalElements(), is(0L));
+		assertSameAsLikeQuery("edition");
+	}
+
+	@Test
+	public void searchesDatabaseForIdsBeyondIndex() {
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		long next = jdbc.queryForObject("select max(id) from Product", Long.class) + 1;
+		long large = Integer.MAX_VALUE + 1L;
+		jdbc.update("insert into Product (id, name, description, price) values (?, ?, ?, ?)",
+		            large, "Backpack", "A classic backpack", BigDecimal.ONE);
+		try {
+			searchIndex.invalidate();
+			assertThat(searchIndex.findIdsByDescriptionContaining("backpack"), nullValue());
+			assertSameAsLikeQuery("backpack");
+			assertThat(like("backpack"), contains(large));
+		} finally {
+			jdbc.update("delete from Product where id = ?", large);
+			jdbc.update("alter table Product alter column id restart with " + next);
+		}
+	}
+
+	@Test
+	public void exportsSearchAnsweredFromIndex() throws Exception {
+		String search = mockMvc
+				.perform(get("/product/search").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		assertThat(JsonPath.<List<String>>read(search, "$links[*].href"),
+		           hasItem(endsWith("/product/search/findByDescriptionContaining")));
+
+		List<Long> expected = like("e");
+		List<Long> found = new ArrayList<Long>();
+		String href = "/product/search/findByDescriptionContaining?description=e&limit=2";
+		for(int page = 0; null != href; page++) {
+			assertThat("Pages of 2 products", page, lessThanOrEqualTo(expected.size() / 2));
+			MvcResult result = mockMvc
+					.perform(get(href).accept(MediaType.APPLICATION_JSON))
+					.andExpect(status().isOk())
+					.andReturn();
+			for(String sql : statementStatistics(result).getSql()) {
+				assertThat("Page " + page + " is answered from the index", sql.toLowerCase(), not(containsString(" like ")));
+			}
+
+			String json = result.getResponse().getContentAsString();
+			for(String self : JsonPath.<List<String>>read(json, "$content[*].links[?(@.rel == 'self')].href")) {
+				found.add(Long.valueOf(self.substring(self.lastIndexOf('/') + 1)));
+			}
+			href = null;
+			for(Map<String, String> link : JsonPath.<List<Map<String, String>>>read(json, "$links")) {
+				if(link.get("rel").endsWith(".next")) {
+					href = link.get("href");
+				}
+			}
+		}
+		assertThat("Products containing 'e'", found, is(expected));
+	}
+
+	private long save(String description) {
+		Product product = products.save(new Product("Product", BigDecimal.ONE, description));
+		saved.add(product.getId());
+		return product.getId();
+	}
+
+	private void assertSameAsLikeQuery(String snippet) {
+		List<Long> found = new ArrayList<Long>();
+		Page<Product> page = products.findByDescriptionContaining(snippet, new PageRequest(0, 1000));
+		for(Product product : page) {
+			found.add(product.getId());
+		}
+
+		List<Long> expected = like(snippet);
+		assertThat("Products containing '" + snippet + "'", found, is(expected));
+		assertThat("Total of '" + snippet + "'", page.getTotalElements(), is((long)expected.size()));
+	}
+
+	private List<Long> like(String snippet) {
+		return em.createQuery("select p.id from Product p where p.description like :snippet order by p.id", Long.class)
+		         .setParameter("snippet", "%" + snippet + "%")
+		         .getResultList();
+	}
+
+}
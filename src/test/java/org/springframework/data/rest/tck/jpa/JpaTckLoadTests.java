@@ -0,0 +1,155 @@
+package org.springframework.data.rest.tck.jpa;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckLoadTest;
+import org.springframework.data.rest.tck.LoadReport;
+import org.springframework.hateoas.Link;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Replays the scenarios of {@link JpaTckTests} - discovering the exported repositories, listing, following links,
+ * creating, updating and deleting customers - on several threads at once. Updates go to the same two customers, so
+ * concurrent writes to the same rows are part of the mix. Each update is conditional on the {@literal ETag} it read
+ * and, like a well-behaved client, reads again and retries when a concurrent write got there first.
+ */
+public class JpaTckLoadTests extends AbstractTckLoadTest {
+
+	static final Logger   LOG                    = LoggerFactory.getLogger(JpaTckLoadTests.class);
+	static final String   CUSTOMERS_REL          = "customer";
+	static final String   CUSTOMER_REL           = "customer.customer";
+	static final String   CUSTOMER_ADDRESSES_REL = "customer.customer.addresses";
+	static final String   NEW_CUSTOMER           = "{\"firstname\": \"Jim\", \"lastname\": \"Doe\"}";
+	static final int      MAX_UPDATE_ATTEMPTS    = 20;
+	/**
+	 * Tables to empty after the run, in an order that satisfies their foreign keys.
+	 */
+	static final String[] TABLES                 = {"LineItem", "Orders", "Customer_Address", "Address", "Customer",
+			"Product_attributes", "Product"};
+
+	@Autowired
+	protected TestDataLoader dataLoader;
+	@Autowired
+	protected DataSource     dataSource;
+	protected Link           customersLink;
+	protected List<Link>     customers;
+	protected byte[]         customerUpdate;
+	protected AtomicLong     updateConflicts;
+
+	@Override protected void loadData() {
+		dataLoader.loadData();
+	}
+
+	@Override protected void deleteData() {
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		for(String table : TABLES) {
+			jdbc.update("delete from " + table);
+		}
+	}
+
+	@Before
+	public void discoverCustomers() throws Exception {
+		customersLink = discoverRootLink(CUSTOMERS_REL);
+		customers = discover(customersLink, CUSTOMER_REL);
+		customerUpdate = Files.readAllBytes(Paths.get("src/test/resources/customer-update.txt"));
+		updateConflicts = new AtomicLong();
+	}
+
+	@Test
+	public void servesConcurrentMixWithoutErrors() throws Exception {
+		LoadReport report = runLoad(
+				new Scenario("discover", 10) {
+					@Override public void run(Random random) throws Exception {
+						discoverRootLink(CUSTOMERS_REL);
+					}
+				},
+				new Scenario("list", 30) {
+					@Override public void run(Random random) throws Exception {
+						request(customersLink.getHref());
+					}
+				},
+				new Scenario("follow", 25) {
+					@Override public void run(Random random) throws Exception {
+						Link customer = customers.get(random.nextInt(customers.size()));
+						request(discover(customer, CUSTOMER_ADDRESSES_REL).get(0).getHref());
+					}
+				},
+				new Scenario("create", 15) {
+					@Override public void run(Random random) throws Exception {
+						createCustomer();
+					}
+				},
+				new Scenario("update", 10) {
+					@Override public void run(Random random) throws Exception {
+						updateCustomer(customers.get(random.nextInt(customers.size())));
+					}
+				},
+				new Scenario("delete", 10) {
+					@Override public void run(Random random) throws Exception {
+						mockMvc
+								.perform(delete(createCustomer()))
+								.andExpect(status().isNoContent());
+					}
+				});
+
+		LOG.info("Load test results ({} updates retried after a conflict):\n{}", updateConflicts, report);
+
+		for(String scenario : new String[]{"discover", "list", "follow", "create", "update", "delete"}) {
+			assertThat(scenario + " was run", report.getScenario(scenario).getExecutions(), greaterThan(0L));
+		}
+		assertThat("No scenario failed", report.getErrors(), is(0L));
+	}
+
+	/**
+	 * Updates the given customer on condition it is still at the version read, reading it again while concurrent writes
+	 * get in between.
+	 */
+	private void updateCustomer(Link customer) throws Exception {
+		for(int attempt = 0; attempt < MAX_UPDATE_ATTEMPTS; attempt++) {
+			String etag = request(customer.getHref()).getHeader("ETag");
+			int status = mockMvc
+					.perform(put(customer.getHref())
+							         .contentType(MediaType.APPLICATION_JSON)
+							         .header("If-Match", etag)
+							         .content(customerUpdate))
+					.andReturn().getResponse().getStatus();
+			if(status == HttpStatus.NO_CONTENT.value()) {
+				return;
+			}
+			assertThat("Update lost a race or failed", status,
+			           either(is(HttpStatus.PRECONDITION_FAILED.value())).or(is(HttpStatus.CONFLICT.value())));
+			updateConflicts.incrementAndGet();
+		}
+		fail("Customer not updated in " + MAX_UPDATE_ATTEMPTS + " attempts");
+	}
+
+	/**
+	 * Creates a customer and returns its URI.
+	 */
+	private String createCustomer() throws Exception {
+		return mockMvc
+				.perform(post(customersLink.getHref())
+						         .contentType(MediaType.APPLICATION_JSON)
+						         .content(NEW_CUSTOMER))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getHeader("Location");
+	}
+
+}
@@ -0,0 +1,121 @@
+package org.springframework.data.rest.tck.jpa;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+
+import java.util.List;
+import javax.sql.DataSource;
+
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Tests the rows written by the {@link TestDataGenerator}: how many there are for a scale, that they refer to each other
+ * consistently, and that the same seed always produces the same data. Rows that were there before are left out by
+ * their ids.
+ */
+public class JpaTestDataGeneratorTests extends AbstractTckTest {
+
+	@Autowired
+	protected TestDataGenerator dataGenerator;
+	@Autowired
+	protected DataSource        dataSource;
+	protected JdbcTemplate      jdbc;
+
+	@Override protected void loadData() {
+		jdbc = new JdbcTemplate(dataSource);
+	}
+
+	@Override protected void deleteData() {
+	}
+
+	@Test
+	public void generatesCustomersAndProductsPerScale() {
+		long customers = count("Customer");
+		long products = count("Product");
+
+		dataGenerator.generate(1, 2);
+
+		assertThat("Customers", count("Customer") - customers, is(2L * TestDataGenerator.CUSTOMERS_PER_SCALE));
+		assertThat("Products", count("Product") - products, is(2L * TestDataGenerator.CUSTOMERS_PER_SCALE / 10));
+	}
+
+	@Test
+	public void generatesConsistentReferences() {
+		long after = max("Customer");
+
+		dataGenerator.generate(1, 1);
+
+		assertThat("Customers with one or two Addresses",
+		           jdbc.queryForObject("select count(*) from Customer c where c.id > ? and (select count(*) from"
+				                               + " Customer_Address ca where ca.Customer_id = c.id) not between 1 and 2",
+		                               Long.class, after),
+		           is(0L));
+		assertThat("Orders of generated Customers", ordersOf(after), greaterThan(0L));
+		assertThat("Orders without Customer or shipping Address",
+		           jdbc.queryForObject("select count(*) from Orders o left join Customer c on c.id = o.customer_id"
+				                               + " left join Address a on a.id = o.shippingAddress_id"
+				                               + " where o.customer_id > ? and (c.id is null or a.id is null)",
+		                               Long.class, after),
+		           is(0L));
+		assertThat("Orders with one to four LineItems",
+		           jdbc.queryForObject("select count(*) from Orders o where o.customer_id > ? and (select count(*)"
+				                               + " from LineItem l where l.order_id = o.id) not between 1 and 4",
+		                               Long.class, after),
+		           is(0L));
+		assertThat("LineItems without their Product's price",
+		           jdbc.queryForObject("select count(*) from LineItem l join Orders o on o.id = l.order_id"
+				                               + " left join Product p on p.id = l.product_id"
+				                               + " where o.customer_id > ? and (p.id is null or p.price <> l.price)",
+		                               Long.class, after),
+		           is(0L));
+	}
+
+	@Test
+	public void generatesSameDataForSameSeed() {
+		List<String> first = generate(7);
+		List<String> second = generate(7);
+		List<String> other = generate(8);
+
+		assertThat(first, not(empty()));
+		assertThat("Same seed", second, is(first));
+		assertThat("Other seed", other, not(first));
+	}
+
+	/**
+	 * Generates a scale of data with the given seed, and returns the generated rows without their ids, which continue
+	 * from the rows already there.
+	 */
+	private List<String> generate(long seed) {
+		long customer = max("Customer");
+		long product = max("Product");
+		long lineItem = max("LineItem");
+
+		dataGenerator.generate(seed, 1);
+
+		List<String> rows = jdbc.queryForList(
+				"select firstname || ' ' || lastname from Customer where id > ? order by id", String.class, customer);
+		rows.addAll(jdbc.queryForList(
+				"select description from Product where id > ? order by id", String.class, product));
+		rows.addAll(jdbc.queryForList(
+				"select cast(amount as varchar(10)) from LineItem where id > ? order by id", String.class, lineItem));
+		rows.add("Orders: " + ordersOf(customer));
+		return rows;
+	}
+
+	private long ordersOf(long afterCustomer) {
+		return jdbc.queryForObject("select count(*) from Orders where customer_id > ?", Long.class, afterCustomer);
+	}
+
+	private long count(String table) {
+		return jdbc.queryForObject("select count(*) from " + table, Long.class);
+	}
+
+	private long max(String table) {
+		Long max = jdbc.queryForObject("select max(id) from " + table, Long.class);
+		return null == max ? 0 : max;
+	}
+
+}
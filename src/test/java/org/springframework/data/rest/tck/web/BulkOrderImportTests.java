@@ -0,0 +1,149 @@
+package org.springframework.data.rest.tck.web;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.math.BigDecimal;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.sql.DataSource;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.OrderFixtures;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.jpa.domain.Product;
+import org.springframework.data.rest.tck.jpa.repository.OrderRepository;
+import org.springframework.data.rest.tck.jpa.repository.ProductRepository;
+import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+/**
+ * Tests importing {@link org.springframework.data.rest.tck.jpa.domain.Order}s through the {@link BulkOrderController}.
+ */
+public class BulkOrderImportTests extends AbstractTckTest {
+
+	static final MediaType NDJSON = MediaType.parseMediaType(BulkOrderController.NDJSON);
+
+	@Autowired
+	protected TestDataLoader    dataLoader;
+	@Autowired
+	protected OrderRepository   orders;
+	@Autowired
+	protected ProductRepository products;
+	@Autowired
+	protected DataSource        dataSource;
+	@PersistenceContext
+	protected EntityManager     em;
+
+	@Override protected void loadData() {
+		dataLoader.loadData();
+	}
+
+	@Override protected void deleteData() {
+	}
+
+	@Test
+	public void importsJsonArrayOfOrdersWithLineItems() throws Exception {
+		String order = OrderFixtures.newOrderJson(mockMvc);
+		long count = orders.count();
+
+		String json = importOrders(MediaType.APPLICATION_JSON, "[" + order + "," + order + "," + order + "]");
+
+		assertThat("Every Order is created", JsonPath.<List<Integer>>read(json, "$results[*].status"),
+		           everyItem(is(201)));
+		assertThat(orders.count(), is(count + 3));
+
+		String created = JsonPath.read(json, "$results[0].href");
+		mockMvc
+				.perform(get(created).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(linkWithRel("order.order.lineItems"));
+	}
+
+	@Test
+	public void importsNewlineDelimitedOrders() throws Exception {
+		String order = OrderFixtures.newOrderJson(mockMvc).replaceAll("\\s*\\n\\s*", "");
+		long count = orders.count();
+
+		String json = importOrders(NDJSON, order + "\n" + order + "\n");
+
+		assertThat("Every Order is created", JsonPath.<List<Integer>>read(json, "$results[*].status"),
+		           contains(201, 201));
+		assertThat(orders.count(), is(count + 2));
+	}
+
+	@Test
+	public void reportsInvalidRecordsAndWritesTheOthers() throws Exception {
+		String order = OrderFixtures.newOrderJson(mockMvc);
+		String unknownProduct = order.replaceAll("/product/\\d+", "/product/0");
+		String noCustomer = order.replaceAll("\"customer\"", "\"buyer\"");
+		long count = orders.count();
+
+		String json = importOrders(MediaType.APPLICATION_JSON, "[" + unknownProduct + "," + order + "," + noCustomer + "]");
+
+		assertThat(JsonPath.<List<Integer>>read(json, "$results[*].status"), contains(404, 201, 400));
+		assertThat(JsonPath.<String>read(json, "$results[0].message"), containsString("/product/0"));
+		assertThat("Only the valid Order is created", orders.count(), is(count + 1));
+	}
+
+	/**
+	 * A {@link Product} deleted from the database but still in the persistence context passes as valid, and fails only
+	 * when the {@link org.springframework.data.rest.tck.jpa.domain.LineItem} referring to it is written.
+	 */
+	@Test
+	public void reportsRecordsFailingToBeWrittenAndWritesTheOthers() throws Exception {
+		String order = OrderFixtures.newOrderJson(mockMvc);
+		Product deleted = products.save(new Product("Deleted", BigDecimal.ONE));
+		em.flush();
+		new JdbcTemplate(dataSource).update("delete from Product where id = ?", deleted.getId());
+		String deletedProduct = order.replaceAll("/product/\\d+", "/product/" + deleted.getId());
+		long count = orders.count();
+
+		String json = importOrders(MediaType.APPLICATION_JSON, "[" + order + "," + deletedProduct + "," + order + "]");
+
+		assertThat(JsonPath.<List<Integer>>read(json, "$results[*].status"), contains(201, 404, 201));
+		assertThat("The other Orders are created", orders.count(), is(count + 2));
+	}
+
+	@Test
+	public void replacesLineItemsOfExistingOrder() throws Exception {
+		Link order = discover(discoverRootLink("order"), "order.order").get(0);
+		Link product = discover(discoverRootLink("product"), "product.product").get(0);
+		String lineItem = "{\"product\": {\"href\": \"" + product.getHref() + "\"}, \"amount\": 3}";
+
+		String json = importOrders(MediaType.APPLICATION_JSON,
+		                           "[{\"href\": \"" + order.getHref() + "\", \"lineItems\": [" + lineItem + "]}]");
+
+		assertThat(JsonPath.<Integer>read(json, "$results[0].status"), is(200));
+		assertThat(JsonPath.<String>read(json, "$results[0].href"), is(order.getHref()));
+		assertThat("Order holds only the imported LineItem",
+		           discover(discover(order, "order.order.lineItems").get(0), "order.order.lineItems.lineItem"),
+		           hasSize(1));
+	}
+
+	@Test
+	public void rejectsMalformedBody() throws Exception {
+		mockMvc
+				.perform(post("/order/bulk")
+						         .contentType(MediaType.APPLICATION_JSON)
+						         .content("[" + OrderFixtures.newOrderJson(mockMvc) + ", {"))
+				.andExpect(status().isBadRequest());
+	}
+
+	private String importOrders(MediaType contentType, String body) throws Exception {
+		return mockMvc
+				.perform(post("/order/bulk")
+						         .contentType(contentType)
+						         .content(body))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+	}
+
+}
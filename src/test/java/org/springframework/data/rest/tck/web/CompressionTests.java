@@ -0,0 +1,273 @@
+package org.springframework.data.rest.tck.web;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.springframework.test.web.servlet.setup.MockMvcBuilders.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.jpa.domain.Customer;
+import org.springframework.data.rest.tck.jpa.repository.CustomerRepository;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewFilter;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.FileCopyUtils;
+
+/**
+ * Tests the {@link CompressionFilter} negotiating the encoding of response bodies. Compresses bodies of any size, as
+ * those of the TCK's own data are small.
+ */
+public class CompressionTests extends AbstractTckTest {
+
+	@Autowired
+	protected TestDataLoader     dataLoader;
+	@Autowired
+	protected CustomerRepository customers;
+	@PersistenceContext
+	protected EntityManager      em;
+	protected MockMvc            compressing;
+	protected int                compressions;
+
+	@Override protected void loadData() {
+		dataLoader.loadData();
+	}
+
+	@Override protected void deleteData() {
+	}
+
+	@Before
+	public void setupCompression() {
+		OpenEntityManagerInViewFilter oemivf = new OpenEntityManagerInViewFilter();
+		oemivf.setServletContext(servletContext);
+		CompressionFilter cf = new CompressionFilter() {
+			@Override byte[] compress(byte[] body, String encoding) throws IOException {
+				compressions++;
+				return super.compress(body, encoding);
+			}
+		};
+		cf.setServletContext(servletContext);
+		cf.setMinSize(1);
+		ConditionalRequestFilter crf = new ConditionalRequestFilter();
+		crf.setServletContext(servletContext);
+
+		compressing = webAppContextSetup(webAppCtx)
+				.addFilters(oemivf, cf, crf)
+				.build();
+	}
+
+	@Test
+	public void gzipsWhenAccepted() throws Exception {
+		String plain = request("/product").getContentAsString();
+		MockHttpServletResponse gzipped = compressed("/product", "gzip");
+
+		assertThat(gzipped.getHeader("Content-Encoding"), is("gzip"));
+		assertThat(new String(decode(new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray())))),
+		           is(plain));
+	}
+
+	@Test
+	public void prefersEncodingOfHigherQuality() throws Exception {
+		String plain = request("/product").getContentAsString();
+		MockHttpServletResponse deflated = compressed("/product", "gzip;q=0.5, deflate");
+
+		assertThat(deflated.getHeader("Content-Encoding"), is("deflate"));
+		assertThat(new String(decode(new InflaterInputStream(new ByteArrayInputStream(deflated.getContentAsByteArray())))),
+		           is(plain));
+	}
+
+	@Test
+	public void sendsIdentityUnlessAccepted() throws Exception {
+		MockHttpServletResponse response = compressed("/product", "gzip;q=0, br");
+
+		assertThat(response.getHeader("Content-Encoding"), nullValue());
+		assertThat(response.getContentAsString(), is(request("/product").getContentAsString()));
+	}
+
+	@Test
+	public void leavesRootDocumentUncompressedBelowMinSize() throws Exception {
+		mockMvc
+				.perform(get("/").accept(MediaType.APPLICATION_JSON).header("Accept-Encoding", "gzip"))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Encoding", nullValue()));
+	}
+
+	@Test
+	public void suffixesETagWithEncoding() throws Exception {
+		String href = discover(discoverRootLink("customer"), "customer.customer").get(0).getHref();
+		String etag = compressed(href, "br").getHeader("ETag");
+		String gzipped = ConditionalRequestFilter.withSuffix(etag, "gzip");
+
+		assertThat(compressed(href, "gzip").getHeader("ETag"), is(gzipped));
+		assertThat(compressed(href, "deflate").getHeader("ETag"), is(ConditionalRequestFilter.withSuffix(etag, "deflate")));
+
+		compressing
+				.perform(get(href).accept(MediaType.APPLICATION_JSON)
+						         .header("Accept-Encoding", "gzip")
+						         .header("If-None-Match", gzipped))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string("ETag", gzipped));
+		compressing
+				.perform(put(href)
+						         .contentType(MediaType.APPLICATION_JSON)
+						         .header("If-Match", gzipped)
+						         .content(Files.readAllBytes(Paths.get("src/test/resources/customer-update.txt"))))
+				.andExpect(status().isNoContent());
+	}
+
+	@Test
+	public void reusesCompressedBodyWhileUnchanged() throws Exception {
+		Customer customer = customers.findByEmailAddress("john.doe@gmail.com");
+		String href = "/customer/" + customer.getId();
+		byte[] gzipped = compressed(href, "gzip").getContentAsByteArray();
+		assertThat(compressed(href, "gzip").getContentAsByteArray(), is(gzipped));
+		assertThat("Compressed once", compressions, is(1));
+
+		compressed(href, "deflate");
+		assertThat("Compressed per encoding", compressions, is(2));
+
+		customer.setLastname("Deer");
+		em.flush();
+		assertThat(compressed(href, "gzip").getContentAsByteArray(), not(gzipped));
+		assertThat("Compressed again once changed", compressions, is(3));
+	}
+
+	@Test
+	public void compressesResponsesNotToBeStoredEveryTime() throws Exception {
+		String[][] headers = {{null, null}, {"W/\"1\"", null}, {"\"1\"", "no-store"}, {"\"1\"", "max-age=60, private"}};
+		for(String[] etagAndCacheControl : headers) {
+			CountingCompressionFilter filter = new CountingCompressionFilter();
+			for(int i = 0; i < 2; i++) {
+				filter.doFilter(gzipRequest("/data"), new MockHttpServletResponse(),
+				                new MockFilterChain(json(new byte[CompressionFilter.DEFAULT_MIN_SIZE], etagAndCacheControl)));
+			}
+			assertThat(Arrays.toString(etagAndCacheControl), filter.compressions, is(2));
+		}
+	}
+
+	@Test
+	public void boundsCompressedBytesCached() throws Exception {
+		byte[] body = new byte[CompressionFilter.MAX_CACHED_BODY / 2];
+		new Random(0).nextBytes(body);
+		CountingCompressionFilter filter = new CountingCompressionFilter();
+		int urls = 2 * CompressionFilter.MAX_CACHED_BYTES / body.length;
+		for(int i = 0; i < urls; i++) {
+			filter.doFilter(gzipRequest("/data/" + i), new MockHttpServletResponse(),
+			                new MockFilterChain(json(body, "\"1\"", "public")));
+		}
+		assertThat(filter.getCachedBytes(), allOf(greaterThan(0L), lessThanOrEqualTo((long)CompressionFilter.MAX_CACHED_BYTES)));
+
+		filter.doFilter(gzipRequest("/data/" + (urls - 1)), new MockHttpServletResponse(),
+		                new MockFilterChain(json(body, "\"1\"", "public")));
+		assertThat("Most recent kept", filter.compressions, is(urls));
+		filter.doFilter(gzipRequest("/data/0"), new MockHttpServletResponse(),
+		                new MockFilterChain(json(body, "\"1\"", "public")));
+		assertThat("Eldest evicted", filter.compressions, is(urls + 1));
+	}
+
+	@Test
+	public void compressesLargeBodiesAsTheyAreWritten() throws Exception {
+		final byte[] chunk = new byte[64 * 1024];
+		Arrays.fill(chunk, (byte)' ');
+		final int chunks = CompressionFilter.MAX_CACHED_BODY / chunk.length + 2;
+		final MockHttpServletResponse response = new MockHttpServletResponse();
+		HttpServlet servlet = new HttpServlet() {
+			@Override protected void service(HttpServletRequest request,
+			                                 HttpServletResponse wrapper) throws IOException {
+				wrapper.setContentType("application/json");
+				wrapper.setHeader("ETag", "\"1\"");
+				for(int i = 0; i < chunks; i++) {
+					wrapper.getOutputStream().write(chunk);
+				}
+				wrapper.flushBuffer();
+				assertThat("Compressed before the body is complete", response.getHeader("Content-Encoding"), is("gzip"));
+				assertThat(response.getContentAsByteArray().length, greaterThan(0));
+			}
+		};
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/large");
+		request.addHeader("Accept-Encoding", "gzip");
+
+		new CompressionFilter().doFilter(request, response, new MockFilterChain(servlet));
+
+		ByteArrayOutputStream body = new ByteArrayOutputStream();
+		for(int i = 0; i < chunks; i++) {
+			body.write(chunk);
+		}
+		assertThat(response.getHeader("ETag"), is("\"1-gzip\""));
+		assertThat(decode(new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))),
+		           is(body.toByteArray()));
+	}
+
+	private static MockHttpServletRequest gzipRequest(String uri) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+		request.addHeader("Accept-Encoding", "gzip");
+		return request;
+	}
+
+	/**
+	 * Renders the given body as JSON with the given {@literal ETag} and {@literal Cache-Control} headers, either of them
+	 * left out if {@literal null}.
+	 */
+	private static HttpServlet json(final byte[] body, final String... etagAndCacheControl) {
+		return new HttpServlet() {
+			@Override protected void service(HttpServletRequest request,
+			                                 HttpServletResponse response) throws IOException {
+				response.setContentType("application/json");
+				if(null != etagAndCacheControl[0]) {
+					response.setHeader("ETag", etagAndCacheControl[0]);
+				}
+				if(null != etagAndCacheControl[1]) {
+					response.setHeader("Cache-Control", etagAndCacheControl[1]);
+				}
+				response.getOutputStream().write(body);
+			}
+		};
+	}
+
+	private MockHttpServletResponse compressed(String href, String acceptEncoding) throws Exception {
+		return compressing
+				.perform(get(href).accept(MediaType.APPLICATION_JSON).header("Accept-Encoding", acceptEncoding))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Vary", containsString("Accept-Encoding")))
+				.andReturn().getResponse();
+	}
+
+	private static byte[] decode(InputStream in) throws Exception {
+		return FileCopyUtils.copyToByteArray(in);
+	}
+
+	private static class CountingCompressionFilter extends CompressionFilter {
+
+		private int compressions;
+
+		@Override byte[] compress(byte[] body, String encoding) throws IOException {
+			compressions++;
+			return super.compress(body, encoding);
+		}
+
+	}
+
+}
@@ -0,0 +1,109 @@
+package org.springframework.data.rest.tck.web;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.jpa.domain.Customer;
+import org.springframework.data.rest.tck.jpa.repository.CustomerRepository;
+import org.springframework.http.MediaType;
+
+/**
+ * Tests the {@literal ETag}s the {@link ConditionalRequestFilter} derives from the version of an entity, and the
+ * conditional requests it answers from them.
+ */
+public class ConditionalRequestTests extends AbstractTckTest {
+
+	@Autowired
+	protected TestDataLoader     dataLoader;
+	@Autowired
+	protected CustomerRepository customers;
+	protected String             customerHref;
+	protected byte[]             customerUpdate;
+
+	@Override protected void loadData() {
+		dataLoader.loadData();
+	}
+
+	@Override protected void deleteData() {
+	}
+
+	@Before
+	public void setupCustomer() throws Exception {
+		customerHref = "/customer/" + customers.findByEmailAddress("john.doe@gmail.com").getId();
+		customerUpdate = Files.readAllBytes(Paths.get("src/test/resources/customer-update.txt"));
+	}
+
+	@Test
+	public void tagsItemsWithTheirVersion() throws Exception {
+		Customer customer = customers.findByEmailAddress("john.doe@gmail.com");
+
+		mockMvc
+				.perform(get(customerHref).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", "\"" + customer.getVersion() + "\""));
+	}
+
+	@Test
+	public void answersUnchangedItemWithNotModified() throws Exception {
+		String etag = etagOf(customerHref);
+
+		mockMvc
+				.perform(get(customerHref).accept(MediaType.APPLICATION_JSON).header("If-None-Match", etag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string("ETag", etag))
+				.andExpect(content().string(""))
+				.andExpect(maxQueries(1));
+	}
+
+	@Test
+	public void appliesUpdateMatchingCurrentVersion() throws Exception {
+		String etag = etagOf(customerHref);
+
+		String updated = mockMvc
+				.perform(put(customerHref)
+						         .contentType(MediaType.APPLICATION_JSON)
+						         .header("If-Match", etag)
+						         .content(customerUpdate))
+				.andExpect(status().isNoContent())
+				.andReturn().getResponse().getHeader("ETag");
+
+		assertThat("Version was incremented", updated, allOf(notNullValue(), not(etag)));
+		assertThat(etagOf(customerHref), is(updated));
+		mockMvc
+				.perform(get(customerHref).accept(MediaType.APPLICATION_JSON).header("If-None-Match", etag))
+				.andExpect(status().isOk());
+	}
+
+	@Test
+	public void rejectsUpdateOfStaleVersion() throws Exception {
+		String etag = etagOf(customerHref);
+
+		mockMvc
+				.perform(put(customerHref)
+						         .contentType(MediaType.APPLICATION_JSON)
+						         .header("If-Match", "\"-1\"")
+						         .content(customerUpdate))
+				.andExpect(status().isPreconditionFailed());
+
+		assertThat(customers.findByEmailAddress("john.doe@gmail.com").getFirstname(), is("John"));
+		assertThat(etagOf(customerHref), is(etag));
+	}
+
+	private String etagOf(String href) throws Exception {
+		return mockMvc
+				.perform(get(href).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getHeader("ETag");
+	}
+
+}
@@ -0,0 +1,170 @@
+package org.springframework.data.rest.tck.web;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Locale;
+import javax.sql.DataSource;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.jpa.repository.CustomerRepository;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.web.servlet.ResultMatcher;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionCallbackWithoutResult;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Tests importing {@link org.springframework.data.rest.tck.jpa.domain.Customer}s through the {@link
+ * CustomerImportController}. Nothing runs in a transaction of the test's own, so the chunks are committed like they are
+ * outside of tests, and the customers imported are deleted again afterwards.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class CustomerImportTests extends AbstractTckTest {
+
+	static final MediaType NDJSON = MediaType.parseMediaType(BulkOrderController.NDJSON);
+
+	@Autowired
+	protected TestDataLoader             dataLoader;
+	@Autowired
+	protected CustomerRepository         customers;
+	@Autowired
+	protected PlatformTransactionManager transactionManager;
+	@Autowired
+	protected DataSource                 dataSource;
+	protected long                       lastCustomerId;
+
+	@Override protected void loadData() {
+		new TransactionTemplate(transactionManager).execute(new TransactionCallbackWithoutResult() {
+			@Override protected void doInTransactionWithoutResult(TransactionStatus status) {
+				dataLoader.loadData();
+			}
+		});
+		lastCustomerId = new JdbcTemplate(dataSource).queryForObject("select max(id) from Customer", Long.class);
+	}
+
+	@Override protected void deleteData() {
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		List<Long> addresses = jdbc.queryForList("select addresses_id from Customer_Address where Customer_id > ?",
+		                                         Long.class, lastCustomerId);
+		jdbc.update("delete from Customer_Address where Customer_id > ?", lastCustomerId);
+		for(Long address : addresses) {
+			jdbc.update("delete from Address where id = ?", address);
+		}
+		jdbc.update("delete from Customer where id > ?", lastCustomerId);
+	}
+
+	@Test
+	public void importsNewlineDelimitedCustomers() throws Exception {
+		String json = new String(Files.readAllBytes(Paths.get("src/test/resources/customer-json.txt")));
+		long count = customers.count();
+
+		String report = importCustomers(Locale.ENGLISH, json, status().isOk());
+
+		assertThat(JsonPath.<Integer>read(report, "$accepted"), is(2));
+		assertThat(JsonPath.<Integer>read(report, "$rejected"), is(0));
+		assertThat(customers.count(), is(count + 2));
+	}
+
+	@Test
+	public void importsMoreCustomersThanFitIntoAChunk() throws Exception {
+		StringBuilder json = new StringBuilder();
+		for(int i = 0; i < CustomerImportController.CHUNK_SIZE * 2 + 1; i++) {
+			json.append("{\"firstname\": \"Jim\", \"lastname\": \"Doe\", \"emailAddress\": \"jim.doe.")
+			    .append(i)
+			    .append("@example.com\"}\n");
+		}
+		long count = customers.count();
+
+		String report = importCustomers(Locale.ENGLISH, json.toString(), status().isOk());
+
+		assertThat(JsonPath.<Integer>read(report, "$accepted"), is(CustomerImportController.CHUNK_SIZE * 2 + 1));
+		assertThat(customers.count(), is(count + CustomerImportController.CHUNK_SIZE * 2 + 1));
+	}
+
+	@Test
+	public void reportsLocalizedErrorsOfRejectedLines() throws Exception {
+		String json = "{\"firstname\": \"Jim\", \"lastname\": \"Doe\"}\n"
+				+ "{\"lastname\": \"Doe\"}\n"
+				+ "{\"firstname\": \"Jim\", \"lastname\": \"Doe\", \"emailAddress\": \"jim.doe@\"}\n";
+		long count = customers.count();
+
+		String report = importCustomers(Locale.GERMAN, json, status().isOk());
+
+		assertThat(JsonPath.<Integer>read(report, "$accepted"), is(1));
+		assertThat(JsonPath.<Integer>read(report, "$rejected"), is(2));
+		assertThat(JsonPath.<List<Integer>>read(report, "$errors[*].line"), contains(2, 3));
+		assertThat(JsonPath.<String>read(report, "$errors[0].errors[0].message"), is("firstname darf nicht leer sein"));
+		assertThat(JsonPath.<String>read(report, "$errors[1].errors[0].invalidValue"), is("jim.doe@"));
+		assertThat(customers.count(), is(count + 1));
+	}
+
+	@Test
+	public void rejectsTakenEmailAddresses() throws Exception {
+		String json = "{\"firstname\": \"Johnny\", \"lastname\": \"Doe\", \"emailAddress\": \"JOHN.DOE@gmail.com\"}\n"
+				+ "{\"firstname\": \"Jim\", \"lastname\": \"Doe\", \"emailAddress\": \"jim.doe@gmail.com\"}\n"
+				+ "{\"firstname\": \"Jimmy\", \"lastname\": \"Doe\", \"emailAddress\": \"Jim.Doe@gmail.com\"}\n";
+
+		String report = importCustomers(Locale.ENGLISH, json, status().isOk());
+
+		assertThat(JsonPath.<Integer>read(report, "$accepted"), is(1));
+		assertThat(JsonPath.<List<Integer>>read(report, "$errors[*].line"), contains(1, 3));
+		assertThat(JsonPath.<String>read(report, "$errors[0].errors[0].message"),
+		           is("Field emailAddress is already taken"));
+	}
+
+	@Test
+	public void reportsRecordsTheDatabaseRejects() throws Exception {
+		StringBuilder firstname = new StringBuilder();
+		for(int i = 0; i < 256; i++) {
+			firstname.append('J');
+		}
+		String json = "{\"firstname\": \"Jim\", \"lastname\": \"Doe\", \"emailAddress\": \"jim@example.com\"}\n"
+				+ "{\"firstname\": \"" + firstname + "\", \"lastname\": \"Doe\", \"emailAddress\": \"jimmy@example.com\"}\n"
+				+ "{\"firstname\": \"Jimmy\", \"lastname\": \"Doe\", \"emailAddress\": \"jimmy@example.com\"}\n";
+		long count = customers.count();
+
+		String report = importCustomers(Locale.ENGLISH, json, status().isOk());
+
+		assertThat(JsonPath.<Integer>read(report, "$accepted"), is(2));
+		assertThat(JsonPath.<Integer>read(report, "$rejected"), is(1));
+		assertThat(JsonPath.<List<Integer>>read(report, "$errors[*].line"), contains(2));
+		assertThat(JsonPath.<String>read(report, "$errors[0].errors[0].message"), not(isEmptyOrNullString()));
+		assertThat(customers.count(), is(count + 2));
+	}
+
+	@Test
+	public void reportsMalformedLine() throws Exception {
+		String json = "{\"firstname\": \"Jim\", \"lastname\": \"Doe\"}\n{\"firstname\": \n";
+		long count = customers.count();
+
+		String report = importCustomers(Locale.ENGLISH, json, status().isBadRequest());
+
+		assertThat(JsonPath.<String>read(report, "$message"), containsString("line 1"));
+		assertThat("Chunk is rolled back", customers.count(), is(count));
+	}
+
+	private String importCustomers(Locale locale, String body, ResultMatcher status) throws Exception {
+		return mockMvc
+				.perform(post("/customer/import")
+						         .locale(locale)
+						         .contentType(NDJSON)
+						         .content(body))
+				.andExpect(status)
+				.andReturn().getResponse().getContentAsString();
+	}
+
+}
@@ -0,0 +1,130 @@
+package org.springframework.data.rest.tck.web;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.io.StringWriter;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.jpa.domain.Address;
+import org.springframework.data.rest.tck.jpa.domain.Customer;
+import org.springframework.data.rest.tck.jpa.domain.LineItem;
+import org.springframework.data.rest.tck.jpa.domain.Order;
+import org.springframework.data.rest.tck.jpa.domain.Product;
+import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
+
+/**
+ * Tests the {@link EntityWriters} built at startup rendering every domain type, and rendering the exporter's collection
+ * and item resources byte for byte as the exporter's own serializer does.
+ */
+public class EntityWritersTests extends AbstractTckTest {
+
+	@Autowired
+	protected TestDataLoader dataLoader;
+	@Autowired
+	protected EntityWriters  entityWriters;
+	@PersistenceContext
+	protected EntityManager  em;
+
+	@Override protected void loadData() {
+		dataLoader.loadData();
+		em.flush();
+		em.clear();
+	}
+
+	@Override protected void deleteData() {
+	}
+
+	@Test
+	public void rendersCustomerEmailAddressAsString() throws Exception {
+		String json = write(Customer.class, "customer");
+
+		assertThat(JsonPath.read(json, "emailAddress").toString(), containsString("@"));
+		assertThat(JsonPath.<List<String>>read(json, "links[?(@.rel == 'customer.customer.addresses')].href").get(0),
+		           endsWith("/addresses"));
+	}
+
+	@Test
+	public void rendersOrderTotalAsNumber() throws Exception {
+		String json = write(Order.class, "order");
+
+		assertThat(JsonPath.read(json, "total"), instanceOf(Number.class));
+		assertThat(JsonPath.<List<String>>read(json, "links[?(@.rel == 'order.order.customer')].href").get(0),
+		           endsWith("/customer"));
+	}
+
+	@Test
+	public void rendersLineItemProductAsLink() throws Exception {
+		String json = write(LineItem.class, "lineItem");
+
+		assertThat(JsonPath.read(json, "price"), instanceOf(Number.class));
+		assertThat(JsonPath.<List<?>>read(json, "links[?(@.rel == 'lineItem.lineItem.product')]"), hasSize(1));
+	}
+
+	@Test
+	public void rendersProductAndAddressProperties() throws Exception {
+		assertThat(JsonPath.read(write(Product.class, "product"), "name").toString(), not(isEmptyString()));
+		assertThat(JsonPath.read(write(Address.class, "address"), "city").toString(), is("Univille"));
+	}
+
+	@Test
+	public void rendersExporterResourcesAsTheExporterDoes() throws Exception {
+		for(String rel : new String[]{"customer", "order", "product"}) {
+			Link repository = discoverRootLink(rel);
+			Link entity = discover(repository, rel + "." + rel).get(0);
+			for(MediaType mediaType : new MediaType[]{MediaType.APPLICATION_JSON, COMPACT_JSON, VERBOSE_JSON}) {
+				assertRenderedAsByExporter(repository.getHref(), mediaType);
+				assertRenderedAsByExporter(entity.getHref(), mediaType);
+			}
+		}
+	}
+
+	@Test(expected = IllegalArgumentException.class)
+	public void rejectsTypesOtherThanEntities() {
+		entityWriters.forType(String.class);
+	}
+
+	private void assertRenderedAsByExporter(String href, MediaType mediaType) throws Exception {
+		byte[] written = render(href, mediaType);
+		entityWriters.setEnabled(false);
+		try {
+			assertArrayEquals(String.format("%s in %s", href, mediaType), render(href, mediaType), written);
+		} finally {
+			entityWriters.setEnabled(true);
+		}
+	}
+
+	private byte[] render(String href, MediaType mediaType) throws Exception {
+		return mockMvc
+				.perform(get(href).accept(mediaType))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsByteArray();
+	}
+
+	private String write(Class<?> type, String repository) throws Exception {
+		Object entity = em.createQuery("select e from " + type.getSimpleName() + " e").setMaxResults(1).getSingleResult();
+		EntityWriters.EntityWriter writer = entityWriters.forType(type);
+		String selfUri = "http://localhost/" + repository + "/" + writer.idOf(entity);
+
+		StringWriter out = new StringWriter();
+		JsonGenerator json = new JsonFactory().createGenerator(out);
+		writer.write(json, entity, selfUri, repository + "." + repository);
+		json.close();
+
+		assertThat(JsonPath.<List<String>>read(out.toString(), "links[?(@.rel == 'self')].href").get(0), is(selfUri));
+		return out.toString();
+	}
+
+}
@@ -0,0 +1,162 @@
+package org.springframework.data.rest.tck.web;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.jpa.domain.Customer;
+import org.springframework.data.rest.tck.jpa.repository.CustomerRepository;
+import org.springframework.data.rest.tck.jpa.repository.OrderRepository;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MvcResult;
+
+/**
+ * Tests the {@link ExpansionController} embedding the associations named in the {@literal expand} parameter, compared
+ * with following the links to them. The persistence context is cleared before every request, so each one reads what it
+ * renders from the database.
+ */
+public class ExpansionTests extends AbstractTckTest {
+
+	@Autowired
+	protected TestDataLoader     dataLoader;
+	@Autowired
+	protected CustomerRepository customers;
+	@Autowired
+	protected OrderRepository    orders;
+	@PersistenceContext
+	protected EntityManager      em;
+	protected String             orderHref;
+	protected int                requests;
+	protected int                statements;
+
+	@Override protected void loadData() {
+		dataLoader.loadData();
+		Customer customer = customers.findByEmailAddress("john.doe@gmail.com");
+		orderHref = "/order/" + orders.findByCustomer(customer).get(0).getId();
+		em.flush();
+		em.clear();
+	}
+
+	@Override protected void deleteData() {
+	}
+
+	@Test
+	public void embedsLineItemProductsAndCustomerOfOrder() throws Exception {
+		String json = expand(orderHref + "?expand=lineItems.product,customer");
+
+		assertThat(JsonPath.read(json, "customer.lastname").toString(), is("Doe"));
+		assertThat(JsonPath.<List<String>>read(json, "lineItems[*].product.name"), not(empty()));
+		assertThat("Embedded LineItems keep their links",
+		           JsonPath.<List<?>>read(json, "lineItems[0].links[?(@.rel == 'lineItem.lineItem.product')]"),
+		           hasSize(1));
+		assertThat("Order still links to its Customer",
+		           JsonPath.<List<?>>read(json, "links[?(@.rel == 'order.order.customer')]"),
+		           hasSize(1));
+	}
+
+	@Test
+	public void takesFewerRequestsAndStatementsThanFollowingLinks() throws Exception {
+		String expanded = expand(orderHref + "?expand=lineItems.product,customer");
+		int expandedStatements = statements;
+
+		requests = 0;
+		statements = 0;
+		String order = perform(orderHref, MediaType.APPLICATION_JSON);
+		String customer = perform(hrefOf(order, "order.order.customer"), MediaType.APPLICATION_JSON);
+		List<String> productNames = new ArrayList<String>();
+		String lineItems = perform(hrefOf(order, "order.order.lineItems"), COMPACT_JSON);
+		for(String lineItemHref : hrefsOf(lineItems, "order.order.lineItems.lineItem")) {
+			String lineItem = perform(lineItemHref, MediaType.APPLICATION_JSON);
+			String product = perform(hrefOf(lineItem, "lineItem.lineItem.product"), MediaType.APPLICATION_JSON);
+			productNames.add(JsonPath.read(product, "content.name").toString());
+		}
+
+		assertThat("Same Customer",
+		           JsonPath.read(expanded, "customer.lastname"),
+		           is(JsonPath.read(customer, "content.lastname")));
+		assertThat("Same Products",
+		           JsonPath.<List<String>>read(expanded, "lineItems[*].product.name"),
+		           containsInAnyOrder(productNames.toArray()));
+		assertThat("Following links takes more requests", requests, greaterThan(1));
+		assertThat(String.format("Following links takes more statements than %d", expandedStatements),
+		           statements,
+		           greaterThan(expandedStatements));
+	}
+
+	@Test
+	public void pagesExpandedCollections() throws Exception {
+		em.clear();
+		String json = mockMvc
+				.perform(get("/order?expand=customer&limit=1").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(linkWithRel("order.next"))
+				.andExpect(maxQueries(2))
+				.andReturn().getResponse().getContentAsString();
+
+		assertThat(JsonPath.<List<?>>read(json, "$content"), hasSize(1));
+		assertThat(JsonPath.read(json, "$content[0].customer.lastname").toString(), is("Doe"));
+	}
+
+	@Test
+	public void rejectsUnknownPropertiesAndNonAssociations() throws Exception {
+		for(String expand : new String[]{"nothing", "total", "lineItems.nothing"}) {
+			mockMvc
+					.perform(get(orderHref + "?expand=" + expand).accept(MediaType.APPLICATION_JSON))
+					.andExpect(status().isBadRequest());
+		}
+	}
+
+	@Test
+	public void leavesExpandedItemsWithoutETag() throws Exception {
+		mockMvc
+				.perform(get(orderHref + "?expand=customer").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", nullValue()));
+	}
+
+	/**
+	 * Requests the expansion, which takes one statement for the entities and one for the element collections of each
+	 * type embedded, here the {@link org.springframework.data.rest.tck.jpa.domain.Product}s' attributes.
+	 */
+	private String expand(String href) throws Exception {
+		em.clear();
+		MvcResult result = mockMvc
+				.perform(get(href).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(maxQueries(2))
+				.andReturn();
+		statements = statementStatistics(result).getStatements();
+		return result.getResponse().getContentAsString();
+	}
+
+	private String perform(String href, MediaType mediaType) throws Exception {
+		em.clear();
+		MvcResult result = mockMvc
+				.perform(get(href).accept(mediaType))
+				.andExpect(status().isOk())
+				.andReturn();
+		requests++;
+		statements += statementStatistics(result).getStatements();
+		return result.getResponse().getContentAsString();
+	}
+
+	private static String hrefOf(String json, String rel) {
+		return hrefsOf(json, rel).get(0);
+	}
+
+	private static List<String> hrefsOf(String json, String rel) {
+		return JsonPath.read(json, String.format("links[?(@.rel == '%s')].href", rel));
+	}
+
+}
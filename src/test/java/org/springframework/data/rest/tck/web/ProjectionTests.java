@@ -0,0 +1,149 @@
+package org.springframework.data.rest.tck.web;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.List;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.jpa.domain.Customer;
+import org.springframework.data.rest.tck.jpa.repository.CustomerRepository;
+import org.springframework.http.MediaType;
+
+/**
+ * Tests the {@link ProjectionController} selecting only the properties named in the {@literal fields} parameter.
+ */
+public class ProjectionTests extends AbstractTckTest {
+
+	@Autowired
+	protected TestDataLoader     dataLoader;
+	@Autowired
+	protected CustomerRepository customers;
+
+	@Override protected void loadData() {
+		dataLoader.loadData();
+	}
+
+	@Override protected void deleteData() {
+	}
+
+	@Test
+	public void projectsCustomerNames() throws Exception {
+		String json = project("/customer?fields=firstname,lastname", "/customer");
+
+		assertThat(JsonPath.<List<String>>read(json, "$content[*].lastname"), hasItem("Doe"));
+		assertThat(JsonPath.<List<?>>read(json, "$content[*].emailAddress"), empty());
+	}
+
+	@Test
+	public void projectsOrderTotalsWithoutLoadingAssociations() throws Exception {
+		String json = project("/order?fields=total,customer", "/order");
+
+		assertThat(JsonPath.<List<?>>read(json, "$content[*].total"), not(empty()));
+		assertThat(JsonPath.<List<?>>read(json, "$content[*].lineItems"), empty());
+		assertThat("Order links to its Customer",
+		           JsonPath.<List<String>>read(json, "$content[0].links[?(@.rel == 'order.order.customer')].href").get(0),
+		           containsString("/customer"));
+	}
+
+	@Test
+	public void projectsProductPrices() throws Exception {
+		String json = project("/product?fields=name,price", "/product");
+
+		assertThat(JsonPath.<List<?>>read(json, "$content[*].price"), not(empty()));
+		assertThat(JsonPath.<List<?>>read(json, "$content[*].attributes"), empty());
+	}
+
+	@Test
+	public void rejectsUnknownAndCollectionProperties() throws Exception {
+		mockMvc
+				.perform(get("/product?fields=weight").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+		mockMvc
+				.perform(get("/product?fields=attributes").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void projectsItemWithItsVersionAsETag() throws Exception {
+		Customer customer = customers.findByEmailAddress("john.doe@gmail.com");
+
+		mockMvc
+				.perform(get("/customer/" + customer.getId() + "?fields=lastname").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", "\"" + customer.getVersion() + "\""))
+				.andExpect(content().string(containsString("\"lastname\":\"Doe\"")))
+				.andExpect(content().string(not(containsString("firstname"))))
+				.andExpect(maxQueries(2));
+	}
+
+	@Test
+	public void linksFullPageToNextPage() throws Exception {
+		String json = mockMvc
+				.perform(get("/order?fields=total&limit=1").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(linkWithRel("order.next"))
+				.andExpect(maxQueries(1))
+				.andReturn().getResponse().getContentAsString();
+
+		assertThat(JsonPath.<List<?>>read(json, "$content"), hasSize(1));
+		assertThat(JsonPath.<Integer>read(json, "$page.number"), is(1));
+		assertThat(JsonPath.<Integer>read(json, "$page.size"), is(1));
+	}
+
+	@Test
+	public void sortsProjectedCollection() throws Exception {
+		String json = mockMvc
+				.perform(get("/product?fields=price&sort=price&price.dir=desc").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(maxQueries(1))
+				.andReturn().getResponse().getContentAsString();
+
+		List<Number> prices = JsonPath.read(json, "$content[*].price");
+		assertThat(prices, hasSize(greaterThan(1)));
+		for(int i = 1; i < prices.size(); i++) {
+			assertThat(prices.get(i).doubleValue(), lessThanOrEqualTo(prices.get(i - 1).doubleValue()));
+		}
+
+		json = mockMvc
+				.perform(get("/product?fields=price&sort=price&price.dir=desc&limit=1").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+		assertThat("Next page keeps the order",
+		           JsonPath.<List<String>>read(json, "$links[?(@.rel == 'product.next')].href").get(0),
+		           allOf(containsString("sort=price"), containsString("price.dir=desc")));
+	}
+
+	@Test
+	public void rejectsSortByAssociationsAndUnknownDirections() throws Exception {
+		mockMvc
+				.perform(get("/order?fields=total&sort=customer").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+		mockMvc
+				.perform(get("/order?fields=total&sort=total&total.dir=up").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isBadRequest());
+	}
+
+	/**
+	 * Requests the projection, which takes a single statement, and the full collection it is a projection of, and
+	 * returns the projection, which must be the smaller of the two.
+	 */
+	private String project(String projectionHref, String fullHref) throws Exception {
+		String projection = mockMvc
+				.perform(get(projectionHref).accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(maxQueries(1))
+				.andReturn().getResponse().getContentAsString();
+		String full = request(fullHref).getContentAsString();
+
+		assertThat("Projection is smaller", projection.length(), lessThan(full.length()));
+		return projection;
+	}
+
+}
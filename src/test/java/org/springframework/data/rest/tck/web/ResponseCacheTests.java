@@ -0,0 +1,137 @@
+package org.springframework.data.rest.tck.web;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.nio.file.Files;
+import java.nio.file.Paths;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.jpa.repository.CustomerRepository;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Tests the {@link ResponseCacheFilter} answering requests from the {@link LastModifiedTracker}'s high-water marks and
+ * its cached responses. Tests expecting either wait for the marks involved to settle first.
+ */
+@ActiveProfiles(ControllerConfig.HTTP_CACHE_PROFILE)
+public class ResponseCacheTests extends AbstractTckTest {
+
+	@Autowired
+	protected TestDataLoader      dataLoader;
+	@Autowired
+	protected CustomerRepository  customers;
+	@Autowired
+	protected LastModifiedTracker tracker;
+
+	@Override protected void loadData() {
+		dataLoader.loadData();
+	}
+
+	@Override protected void deleteData() {
+	}
+
+	@Test
+	public void servesRepeatedRequestsFromCache() throws Exception {
+		awaitSettled(null, "product");
+		for(String href : new String[]{"/", "/product"}) {
+			String body = mockMvc
+					.perform(get(href).accept(MediaType.APPLICATION_JSON))
+					.andExpect(status().isOk())
+					.andReturn().getResponse().getContentAsString();
+
+			mockMvc
+					.perform(get(href).accept(MediaType.APPLICATION_JSON))
+					.andExpect(status().isOk())
+					.andExpect(header().string("Last-Modified", notNullValue()))
+					.andExpect(content().string(body))
+					.andExpect(maxQueries(0));
+		}
+	}
+
+	@Test
+	public void answersIfModifiedSinceWithoutQuerying() throws Exception {
+		awaitSettled("product");
+		Object lastModified = request("/product").getHeaderValue("Last-Modified");
+
+		mockMvc
+				.perform(get("/product").accept(MediaType.APPLICATION_JSON).header("If-Modified-Since", lastModified))
+				.andExpect(status().isNotModified())
+				.andExpect(content().string(""))
+				.andExpect(maxQueries(0));
+	}
+
+	@Test
+	public void advancesLastModifiedOfWrittenRepositoryOnly() throws Exception {
+		awaitSettled("customer", "product");
+		String customerHref = "/customer/" + customers.findByEmailAddress("john.doe@gmail.com").getId();
+		MockHttpServletResponse customer = request(customerHref);
+		Object customerModified = customer.getHeaderValue("Last-Modified");
+		Object productsModified = request("/product").getHeaderValue("Last-Modified");
+
+		mockMvc
+				.perform(put(customerHref)
+						         .contentType(MediaType.APPLICATION_JSON)
+						         .content(Files.readAllBytes(Paths.get("src/test/resources/customer-update.txt"))))
+				.andExpect(status().isNoContent());
+
+		MockHttpServletResponse updated = mockMvc
+				.perform(get(customerHref).accept(MediaType.APPLICATION_JSON).header("If-Modified-Since", customerModified))
+				.andExpect(status().isOk())
+				.andReturn().getResponse();
+		assertThat((Long)updated.getHeaderValue("Last-Modified"), greaterThan((Long)customerModified));
+		assertThat(JsonPath.read(updated.getContentAsString(), "firstname").toString(), is("Ralph"));
+
+		mockMvc
+				.perform(get("/product").accept(MediaType.APPLICATION_JSON).header("If-Modified-Since", productsModified))
+				.andExpect(status().isNotModified());
+	}
+
+	@Test
+	public void neitherValidatesNorCachesMarkOfCurrentSecond() throws Exception {
+		awaitSettled("customer");
+		String customerHref = "/customer/" + customers.findByEmailAddress("john.doe@gmail.com").getId();
+
+		mockMvc
+				.perform(put(customerHref)
+						         .contentType(MediaType.APPLICATION_JSON)
+						         .content(Files.readAllBytes(Paths.get("src/test/resources/customer-update.txt"))))
+				.andExpect(status().isNoContent());
+		long now = System.currentTimeMillis();
+		MockHttpServletResponse updated = request(customerHref);
+		Long lastModified = (Long)updated.getHeaderValue("Last-Modified");
+		assertThat("Last-Modified isn't in the future", lastModified, lessThanOrEqualTo(now));
+
+		// A write later in the same second wouldn't move the mark
+		if(!tracker.isSettled(lastModified)) {
+			mockMvc
+					.perform(get(customerHref).accept(MediaType.APPLICATION_JSON).header("If-Modified-Since", lastModified))
+					.andExpect(status().isOk());
+		}
+
+		awaitSettled("customer");
+		mockMvc
+				.perform(get(customerHref).accept(MediaType.APPLICATION_JSON).header("If-Modified-Since", lastModified))
+				.andExpect(status().isNotModified());
+	}
+
+	/**
+	 * Waits for the marks of the repositories exported under the given paths to settle, which takes up to a second.
+	 */
+	private void awaitSettled(String... paths) throws InterruptedException {
+		for(String path : paths) {
+			while(!tracker.isSettled(tracker.getLastModified(path))) {
+				Thread.sleep(50);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,83 @@
+package org.springframework.data.rest.tck.web;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.Test;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+
+/**
+ * Tests the {@link RootDocumentFilter} serving the root document the exporter rendered first for each media type.
+ * Requests answered by the filter never reach a handler.
+ */
+public class RootDocumentTests extends AbstractTckTest {
+
+	@Override protected void loadData() {
+	}
+
+	@Override protected void deleteData() {
+	}
+
+	@Test
+	public void servesSameDocumentPerMediaType() throws Exception {
+		for(MediaType mediaType : new MediaType[]{MediaType.APPLICATION_JSON, COMPACT_JSON, VERBOSE_JSON}) {
+			MvcResult first = mockMvc
+					.perform(get("/").accept(mediaType))
+					.andExpect(status().isOk())
+					.andReturn();
+			assertThat("First request is rendered by the exporter", first.getHandler(), notNullValue());
+
+			MvcResult second = mockMvc
+					.perform(get("/").accept(mediaType))
+					.andExpect(status().isOk())
+					.andExpect(content().contentType(first.getResponse().getContentType()))
+					.andExpect(content().string(first.getResponse().getContentAsString()))
+					.andReturn();
+			assertThat("Second request is served from memory", second.getHandler(), nullValue());
+		}
+	}
+
+	@Test
+	public void servesSameDocumentForAcceptHeadersNegotiatingSameMediaType() throws Exception {
+		MockHttpServletResponse first = request("/", MediaType.APPLICATION_JSON);
+
+		for(int i = 0; i <= RootDocumentFilter.MAX_ENTRIES; i++) {
+			MvcResult result = mockMvc
+					.perform(get("/").header("Accept", "text/html;q=0.1, application/json;q=0." + (i + 10)))
+					.andExpect(status().isOk())
+					.andExpect(content().string(first.getContentAsString()))
+					.andReturn();
+			assertThat("Request " + i + " is served from memory", result.getHandler(), nullValue());
+		}
+	}
+
+	@Test
+	public void keepsBaseUrlOfRequest() throws Exception {
+		String local = request("/").getContentAsString();
+		String remote = mockMvc
+				.perform(get("/").accept(MediaType.APPLICATION_JSON).with(new RequestPostProcessor() {
+					@Override public MockHttpServletRequest postProcessRequest(MockHttpServletRequest request) {
+						request.setServerName("example.org");
+						return request;
+					}
+				}))
+				.andExpect(status().isOk())
+				.andReturn().getResponse().getContentAsString();
+
+		assertThat(links.findLinkWithRel("customer", local).getHref(), startsWith("http://localhost"));
+		assertThat(links.findLinkWithRel("customer", remote).getHref(), startsWith("http://example.org"));
+	}
+
+	@Test
+	public void leavesOutUnexportedRepositories() throws Exception {
+		assertThat(links.findLinkWithRel("notAccessible", request("/").getContentAsString()), nullValue());
+	}
+
+}
@@ -0,0 +1,201 @@
+package org.springframework.data.rest.tck.web;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.List;
+import javax.servlet.http.HttpServlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.jayway.jsonpath.JsonPath;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.hateoas.Link;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * Tests the {@link SmileFilter} reading and writing Smile, which has to carry the same representations and links as
+ * JSON. Decimals are compared as they were written.
+ */
+public class SmileTests extends AbstractTckTest {
+
+	static final MediaType COMPACT_SMILE = MediaType.parseMediaType("application/x-spring-data-compact+smile");
+	static final MediaType VERBOSE_SMILE = MediaType.parseMediaType("application/x-spring-data-verbose+smile");
+
+	@Autowired
+	protected TestDataLoader dataLoader;
+	protected ObjectMapper   json  = new ObjectMapper()
+			.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+	protected ObjectMapper   smile = new ObjectMapper(new SmileFactory())
+			.enable(DeserializationFeature.USE_BIG_DECIMAL_FOR_FLOATS);
+
+	@Override protected void loadData() {
+		dataLoader.loadData();
+	}
+
+	@Override protected void deleteData() {
+	}
+
+	@Test
+	public void rendersEveryExportedEntityLikeJson() throws Exception {
+		String root = request("/").getContentAsString();
+		assertSameAsJson("/", SmileFilter.SMILE, MediaType.APPLICATION_JSON);
+
+		for(String rel : JsonPath.<List<String>>read(root, "$links[*].rel")) {
+			Link repository = links.findLinkWithRel(rel, root);
+			assertSameAsJson(repository.getHref(), SmileFilter.SMILE, MediaType.APPLICATION_JSON);
+			assertSameAsJson(repository.getHref(), VERBOSE_SMILE, VERBOSE_JSON);
+
+			String entities = assertSameAsJson(repository.getHref(), COMPACT_SMILE, COMPACT_JSON);
+			for(Link entity : links.findLinksWithRel(rel + "." + rel, entities)) {
+				assertSameAsJson(entity.getHref(), SmileFilter.SMILE, MediaType.APPLICATION_JSON);
+			}
+		}
+	}
+
+	@Test
+	public void createsAndUpdatesEntitiesFromSmile() throws Exception {
+		Link customers = discoverRootLink("customer");
+		String customer = Files.readAllLines(Paths.get("src/test/resources/customer-json.txt"),
+		                                     StandardCharsets.UTF_8).get(0);
+
+		String location = mockMvc
+				.perform(post(customers.getHref())
+						         .contentType(SmileFilter.SMILE)
+						         .content(smile.writeValueAsBytes(json.readTree(customer))))
+				.andExpect(status().isCreated())
+				.andReturn().getResponse().getHeader("Location");
+
+		JsonNode created = smile.readTree(requestSmile(location, SmileFilter.SMILE));
+		assertThat(created.get("firstname").asText(), is("John"));
+
+		byte[] update = Files.readAllBytes(Paths.get("src/test/resources/customer-update.txt"));
+		mockMvc
+				.perform(put(location)
+						         .contentType(SmileFilter.SMILE)
+						         .content(smile.writeValueAsBytes(json.readTree(update))))
+				.andExpect(status().isNoContent());
+
+		assertThat(JsonPath.read(request(location).getContentAsString(), "firstname").toString(), is("Ralph"));
+	}
+
+	@Test
+	public void rejectsMalformedSmile() throws Exception {
+		mockMvc
+				.perform(post(discoverRootLink("customer").getHref())
+						         .contentType(SmileFilter.SMILE)
+						         .content(new byte[]{':', ')', '\n', 1, 2, 3}))
+				.andExpect(status().isBadRequest());
+	}
+
+	@Test
+	public void leavesJsonClientsAlone() throws Exception {
+		mockMvc
+				.perform(get("/product").accept(MediaType.APPLICATION_JSON, SmileFilter.SMILE))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON));
+	}
+
+	@Test
+	public void tagsSmileApartFromJson() throws Exception {
+		String href = discover(discoverRootLink("customer"), "customer.customer").get(0).getHref();
+		String etag = request(href).getHeader("ETag");
+		String smileTag = ConditionalRequestFilter.withSuffix(etag, "smile");
+
+		mockMvc
+				.perform(get(href).accept(SmileFilter.SMILE))
+				.andExpect(status().isOk())
+				.andExpect(header().string("ETag", smileTag));
+		mockMvc
+				.perform(get(href).accept(SmileFilter.SMILE).header("If-None-Match", smileTag))
+				.andExpect(status().isNotModified())
+				.andExpect(header().string("ETag", smileTag));
+	}
+
+	@Test
+	public void rejectsBodiesTooLargeToTranslateUnlessJsonIsAccepted() throws Exception {
+		MockHttpServletResponse response = requestLarge(SmileFilter.SMILE_VALUE);
+		assertThat(response.getStatus(), is(HttpServletResponse.SC_NOT_ACCEPTABLE));
+		assertThat(response.getContentLength(), is(0));
+		assertThat(response.getHeader("ETag"), nullValue());
+
+		response = requestLarge(SmileFilter.SMILE_VALUE + ", application/json;q=0.5");
+		assertThat(response.getStatus(), is(HttpServletResponse.SC_OK));
+		assertThat(response.getContentType(), is(MediaType.APPLICATION_JSON_VALUE));
+		assertThat(response.getContentAsByteArray().length, is(SmileFilter.MAX_BODY_SIZE + 1));
+		assertThat(response.getHeader("ETag"), is("\"1\""));
+	}
+
+	@Test
+	public void passesMalformedHeadersThrough() throws Exception {
+		for(String[] headers : new String[][]{
+				{SmileFilter.SMILE_VALUE + ", json", null},
+				{SmileFilter.SMILE_VALUE, "x-jackson-smile"}}) {
+			MockHttpServletRequest request = new MockHttpServletRequest("POST", "/malformed");
+			request.addHeader("Accept", headers[0]);
+			request.setContentType(headers[1]);
+			request.setContent(new byte[]{1, 2, 3});
+			MockFilterChain chain = new MockFilterChain();
+
+			new SmileFilter().doFilter(request, new MockHttpServletResponse(), chain);
+
+			assertThat(Arrays.toString(headers), chain.getRequest(), sameInstance((Object)request));
+		}
+	}
+
+	private static MockHttpServletResponse requestLarge(String accept) throws Exception {
+		HttpServlet servlet = new HttpServlet() {
+			@Override protected void service(HttpServletRequest request,
+			                                 HttpServletResponse response) throws IOException {
+				response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+				response.setHeader("ETag", "\"1\"");
+				byte[] spaces = new byte[1024];
+				Arrays.fill(spaces, (byte)' ');
+				for(int i = 0; i < SmileFilter.MAX_BODY_SIZE / spaces.length; i++) {
+					response.getOutputStream().write(spaces);
+				}
+				response.getOutputStream().write('0');
+			}
+		};
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/large");
+		request.addHeader("Accept", accept);
+		MockHttpServletResponse response = new MockHttpServletResponse();
+
+		new SmileFilter().doFilter(request, response, new MockFilterChain(servlet));
+		return response;
+	}
+
+	private String assertSameAsJson(String href, MediaType smileType, MediaType jsonType) throws Exception {
+		String body = request(href, jsonType).getContentAsString();
+		assertThat(String.format("%s in %s", href, smileType),
+		           smile.readTree(requestSmile(href, smileType)),
+		           is(json.readTree(body)));
+		return body;
+	}
+
+	private byte[] requestSmile(String href, MediaType smileType) throws Exception {
+		return mockMvc
+				.perform(get(href).accept(smileType))
+				.andExpect(status().isOk())
+				.andExpect(header().string("Content-Type", endsWith("smile")))
+				.andReturn().getResponse().getContentAsByteArray();
+	}
+
+}
@@ -0,0 +1,172 @@
+package org.springframework.data.rest.tck.web;
+
+import static org.hamcrest.Matchers.*;
+import static org.junit.Assert.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.servlet.ServletOutputStream;
+import javax.sql.DataSource;
+
+import com.jayway.jsonpath.JsonPath;
+import org.junit.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.rest.tck.AbstractTckTest;
+import org.springframework.data.rest.tck.jpa.TestDataLoader;
+import org.springframework.data.rest.tck.jpa.repository.OrderRepository;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.web.method.HandlerMethod;
+
+/**
+ * Tests the {@link StreamingExportController}, and that requests not opting into it are left to the exporter. Runs in
+ * the {@literal exportTest} task, whose small heap fits the database of a million orders but not a million orders
+ * materialized at once.
+ */
+@ActiveProfiles(ControllerConfig.STREAMING_PROFILE)
+public class StreamingExportTests extends AbstractTckTest {
+
+	static final int ORDERS     = 1000000;
+	static final int BATCH_SIZE = 10000;
+
+	@Autowired
+	protected TestDataLoader            dataLoader;
+	@Autowired
+	protected OrderRepository           orders;
+	@Autowired
+	protected DataSource                dataSource;
+	@Autowired
+	protected StreamingExportController controller;
+	@PersistenceContext
+	protected EntityManager             em;
+
+	@Override protected void loadData() {
+		dataLoader.loadData();
+		em.flush();
+		em.clear();
+	}
+
+	@Override protected void deleteData() {
+	}
+
+	@Test
+	public void rendersOrdersWithPropertiesAndAssociationLinks() throws Exception {
+		String json = mockMvc
+				.perform(get("/order?export").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(content().contentType(MediaType.APPLICATION_JSON))
+				.andExpect(handler().handlerType(StreamingExportController.class))
+				.andReturn().getResponse().getContentAsString();
+
+		List<Object> content = JsonPath.read(json, "$content");
+		assertThat("All Orders are exported", (long)content.size(), is(orders.count()));
+		assertThat("Order links to itself",
+		           JsonPath.<List<String>>read(json, "$content[0].links[?(@.rel == 'self')].href").get(0),
+		           containsString("/order/"));
+		assertThat("Order links to its Customer",
+		           JsonPath.<List<String>>read(json, "$content[0].links[?(@.rel == 'order.order.customer')].href").get(0),
+		           containsString("/customer"));
+	}
+
+	@Test
+	public void leavesRequestsWithoutExportParameterToExporter() throws Exception {
+		MvcResult result = mockMvc
+				.perform(get("/order").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn();
+
+		assertThat(handlerTypeOf(result), not(typeCompatibleWith(StreamingExportController.class)));
+		assertThat("Collection links are rendered",
+		           JsonPath.<List<Object>>read(result.getResponse().getContentAsString(), "$links"),
+		           not(empty()));
+	}
+
+	@Test
+	public void leavesSortedExportsToExporter() throws Exception {
+		MvcResult result = mockMvc
+				.perform(get("/order?export&sort=id").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andReturn();
+
+		assertThat(handlerTypeOf(result), not(typeCompatibleWith(StreamingExportController.class)));
+	}
+
+	@Test
+	public void leavesCompactAndVerboseExportsToExporter() throws Exception {
+		for(MediaType mediaType : new MediaType[]{COMPACT_JSON, VERBOSE_JSON}) {
+			MvcResult result = mockMvc
+					.perform(get("/order?export").accept(mediaType))
+					.andExpect(status().isOk())
+					.andReturn();
+
+			assertThat(mediaType.toString(),
+			           handlerTypeOf(result),
+			           not(typeCompatibleWith(StreamingExportController.class)));
+		}
+	}
+
+	@Test
+	public void streamsMillionOrdersInConstantHeap() throws Exception {
+		JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+		long customer = jdbc.queryForObject("select min(id) from Customer", Long.class);
+		long address = jdbc.queryForObject("select min(id) from Address", Long.class);
+		long id = jdbc.queryForObject("select max(id) from Orders", Long.class);
+
+		List<Object[]> rows = new ArrayList<Object[]>(BATCH_SIZE);
+		for(int i = 0; i < ORDERS; i++) {
+			rows.add(new Object[]{++id, customer, address});
+			if(rows.size() == BATCH_SIZE || i == ORDERS - 1) {
+				jdbc.batchUpdate("insert into Orders (id, customer_id, shippingAddress_id) values (?, ?, ?)", rows);
+				rows.clear();
+			}
+		}
+
+		// The response is counted rather than buffered, unlike MockMvc's
+		final SelfLinkCounter out = new SelfLinkCounter();
+		MockHttpServletResponse response = new MockHttpServletResponse() {
+			@Override public ServletOutputStream getOutputStream() {
+				return out;
+			}
+		};
+		controller.exportOrders(new MockHttpServletRequest("GET", "/order"), response);
+
+		assertThat("All Orders are exported", out.count, is(orders.count()));
+	}
+
+	private static Class<?> handlerTypeOf(MvcResult result) {
+		Object handler = result.getHandler();
+		return handler instanceof HandlerMethod ? ((HandlerMethod)handler).getBeanType() : handler.getClass();
+	}
+
+	/**
+	 * Counts the {@literal self} links, one per exported entity, in the bytes written to it.
+	 */
+	static class SelfLinkCounter extends ServletOutputStream {
+
+		private static final byte[] SELF = "\"self\"".getBytes();
+
+		long count;
+		private int matched;
+
+		@Override public void write(int b) {
+			if(b == SELF[matched]) {
+				if(++matched == SELF.length) {
+					count++;
+					matched = 0;
+				}
+			} else {
+				matched = b == SELF[0] ? 1 : 0;
+			}
+		}
+
+	}
+
+}
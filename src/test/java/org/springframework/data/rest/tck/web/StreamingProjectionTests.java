@@ -0,0 +1,28 @@
+package org.springframework.data.rest.tck.web;
+
+import static org.hamcrest.Matchers.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+import org.junit.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Runs the {@link ProjectionTests} with the {@link StreamingExportController} mapped, whose literal collection URLs
+ * would win over the {@link ProjectionController}'s templated ones if they didn't leave projections to it.
+ */
+@ActiveProfiles(ControllerConfig.STREAMING_PROFILE)
+public class StreamingProjectionTests extends ProjectionTests {
+
+	@Test
+	public void projectsExportRequests() throws Exception {
+		mockMvc
+				.perform(get("/order?export&fields=total").accept(MediaType.APPLICATION_JSON))
+				.andExpect(status().isOk())
+				.andExpect(handler().handlerType(ProjectionController.class))
+				.andExpect(content().string(containsString("\"total\"")))
+				.andExpect(content().string(not(containsString("\"customer\""))));
+	}
+
+}